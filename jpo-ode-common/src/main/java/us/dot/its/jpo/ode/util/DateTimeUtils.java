@@ -25,11 +25,14 @@ import java.util.Date;
 
 public class DateTimeUtils {
 
+   private static final DateTimeFormatter ISO_MILLIS_FORMATTER = DateTimeFormatter
+         .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
    private DateTimeUtils() {
    }
 
    public static String now() {
-      return nowZDT().format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"));
+      return IsoTimestampClock.systemUTC().now();
    }
 
    public static ZonedDateTime nowZDT() {
@@ -37,7 +40,7 @@ public class DateTimeUtils {
    }
 
    public static String isoDateTime(ZonedDateTime zonedDateTime) {
-      return zonedDateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"));
+      return zonedDateTime.format(ISO_MILLIS_FORMATTER);
    }
 
    public static ZonedDateTime
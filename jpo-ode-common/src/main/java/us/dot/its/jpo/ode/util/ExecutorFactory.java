@@ -0,0 +1,80 @@
+package us.dot.its.jpo.ode.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the long running and blocking loops of the ODE:
+ * Kafka consumers, exporters, importers, UDP receivers and depositors. Threads
+ * are named after the group they belong to, <code>&lt;group&gt;-&lt;n&gt;</code>.
+ * <p>
+ * With virtual threads enabled, the threads created from then on are virtual
+ * threads, which park instead of holding a platform thread and its stack while
+ * they block on I/O or wait for messages. Otherwise they are platform threads
+ * in a {@link ThreadGroup} of the group name. Platform threads are not daemon
+ * threads, like the threads they replace. Virtual threads always are, so with
+ * them enabled the JVM does not wait for the loops to finish before exiting.
+ */
+public class ExecutorFactory {
+
+   private static volatile boolean virtualThreads = false;
+
+   private static final Map<String, ThreadGroup> threadGroups = new ConcurrentHashMap<>();
+
+   private ExecutorFactory() {
+   }
+
+   public static boolean isVirtualThreads() {
+      return virtualThreads;
+   }
+
+   public static void setVirtualThreads(boolean virtualThreads) {
+      ExecutorFactory.virtualThreads = virtualThreads;
+   }
+
+   /**
+    * Factory of the threads of a group.
+    */
+   public static ThreadFactory threadFactory(String group) {
+      if (virtualThreads)
+         return Thread.ofVirtual().name(group + "-", 0).factory();
+
+      ThreadGroup threadGroup = threadGroups.computeIfAbsent(group, ThreadGroup::new);
+      return Thread.ofPlatform().group(threadGroup).name(group + "-", 0).daemon(false).factory();
+   }
+
+   /**
+    * Starts a thread running the task.
+    */
+   public static Thread start(String group, Runnable task) {
+      Thread thread = threadFactory(group).newThread(task);
+      thread.start();
+      return thread;
+   }
+
+   public static ExecutorService newSingleThreadExecutor(String group) {
+      return Executors.newSingleThreadExecutor(threadFactory(group));
+   }
+
+   public static ScheduledExecutorService newSingleThreadScheduledExecutor(String group) {
+      return Executors.newSingleThreadScheduledExecutor(threadFactory(group));
+   }
+
+   public static ExecutorService newFixedThreadPool(String group, int threads) {
+      return Executors.newFixedThreadPool(threads, threadFactory(group));
+   }
+
+   /**
+    * Executor running each task on a thread of its own, new or reused when
+    * platform threads are used.
+    */
+   public static ExecutorService newCachedThreadPool(String group) {
+      if (virtualThreads)
+         return Executors.newThreadPerTaskExecutor(threadFactory(group));
+      return Executors.newCachedThreadPool(threadFactory(group));
+   }
+}
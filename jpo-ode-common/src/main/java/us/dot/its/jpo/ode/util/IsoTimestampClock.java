@@ -0,0 +1,99 @@
+package us.dot.its.jpo.ode.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats the current time as <code>yyyy-MM-dd'T'HH:mm:ss.SSS'Z'</code> in
+ * UTC, the format of {@link DateTimeUtils#now()}. The last value is cached for
+ * the millisecond it was produced in, so callers within the same millisecond
+ * share one String, and a new millisecond is formatted directly from the epoch
+ * millis without going through java.time.
+ */
+public class IsoTimestampClock {
+
+   private static final IsoTimestampClock SYSTEM_UTC = new IsoTimestampClock(Clock.systemUTC());
+
+   private static final long MILLIS_PER_DAY = 86_400_000L;
+   private static final DateTimeFormatter FALLBACK_FORMATTER = DateTimeFormatter
+         .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+   private static final class Formatted {
+      private final long millis;
+      private final String value;
+
+      private Formatted(long millis, String value) {
+         this.millis = millis;
+         this.value = value;
+      }
+   }
+
+   private final Clock clock;
+   private volatile Formatted last = new Formatted(Long.MIN_VALUE, null);
+
+   public static IsoTimestampClock systemUTC() {
+      return SYSTEM_UTC;
+   }
+
+   public IsoTimestampClock(Clock clock) {
+      this.clock = clock;
+   }
+
+   public String now() {
+      long millis = clock.millis();
+      Formatted formatted = last;
+      if (formatted.millis != millis) {
+         formatted = new Formatted(millis, format(millis));
+         last = formatted;
+      }
+      return formatted.value;
+   }
+
+   /**
+    * Formats epoch millis as <code>yyyy-MM-dd'T'HH:mm:ss.SSS'Z'</code> in UTC.
+    */
+   public static String format(long epochMillis) {
+      long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+      int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+
+      // days to civil date, see H. Hinnant, "chrono-Compatible Low-Level Date Algorithms"
+      long z = epochDay + 719_468;
+      long era = Math.floorDiv(z, 146_097);
+      long dayOfEra = z - era * 146_097;
+      long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+      long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+      long shiftedMonth = (5 * dayOfYear + 2) / 153;
+      int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+      int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+      long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+      if (year < 1 || year > 9999)
+         return FALLBACK_FORMATTER.format(Instant.ofEpochMilli(epochMillis));
+
+      char[] chars = new char[24];
+      write(chars, 0, (int) year, 4);
+      chars[4] = '-';
+      write(chars, 5, month, 2);
+      chars[7] = '-';
+      write(chars, 8, day, 2);
+      chars[10] = 'T';
+      write(chars, 11, millisOfDay / 3_600_000, 2);
+      chars[13] = ':';
+      write(chars, 14, millisOfDay / 60_000 % 60, 2);
+      chars[16] = ':';
+      write(chars, 17, millisOfDay / 1_000 % 60, 2);
+      chars[19] = '.';
+      write(chars, 20, millisOfDay % 1_000, 3);
+      chars[23] = 'Z';
+      return new String(chars);
+   }
+
+   private static void write(char[] chars, int offset, int value, int digits) {
+      for (int i = offset + digits - 1; i >= offset; i--) {
+         chars[i] = (char) ('0' + value % 10);
+         value /= 10;
+      }
+   }
+}
@@ -89,6 +89,19 @@ public class JsonUtils {
       }
    }
 
+   /**
+    * Same as {@link #fromJson(String, Class)} for a tree already parsed, without
+    * writing it out as a string first.
+    */
+   public static Object fromJson(JsonNode tree, Class<?> clazz) {
+      try {
+         return mapper.treeToValue(tree, clazz);
+      } catch (IOException e) {
+         e.printStackTrace();
+         return null;
+      }
+   }
+
    public static Object jacksonFromJson(String s, Class<?> clazz) throws JsonUtilsException {
       try {
          return mapper.readValue(s, clazz);
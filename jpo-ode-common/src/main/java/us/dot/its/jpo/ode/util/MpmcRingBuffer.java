@@ -0,0 +1,112 @@
+package us.dot.its.jpo.ode.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer queue backed by a ring of
+ * pre-sized slots (D. Vyukov's bounded MPMC algorithm). Every slot carries a
+ * sequence number telling producers and consumers whether it is free, so
+ * {@link #offer(Object)} and {@link #poll()} only contend on a single CAS and
+ * never block.
+ *
+ * @param <E> element type, null elements are not permitted
+ */
+public class MpmcRingBuffer<E> {
+
+   private final int mask;
+   private final AtomicReferenceArray<E> slots;
+   private final AtomicLongArray sequences;
+   private final AtomicLong tail = new AtomicLong();
+   private final AtomicLong head = new AtomicLong();
+
+   /**
+    * @param capacity minimum number of elements, rounded up to a power of two
+    *                 of at least 2 since a single slot cannot tell full from
+    *                 free
+    */
+   public MpmcRingBuffer(int capacity) {
+      if (capacity < 1 || capacity > (1 << 30))
+         throw new IllegalArgumentException("Invalid ring buffer capacity " + capacity);
+
+      int size = Math.max(2, Integer.highestOneBit(capacity));
+      if (size < capacity)
+         size <<= 1;
+
+      this.mask = size - 1;
+      this.slots = new AtomicReferenceArray<>(size);
+      this.sequences = new AtomicLongArray(size);
+      for (int i = 0; i < size; i++) {
+         sequences.set(i, i);
+      }
+   }
+
+   /**
+    * @return false if the buffer is full
+    */
+   public boolean offer(E e) {
+      if (e == null)
+         throw new NullPointerException();
+
+      long pos = tail.get();
+      for (;;) {
+         int index = (int) pos & mask;
+         long diff = sequences.get(index) - pos;
+         if (diff == 0) {
+            if (tail.compareAndSet(pos, pos + 1)) {
+               slots.lazySet(index, e);
+               // publishes the element to the consumer of this slot
+               sequences.lazySet(index, pos + 1);
+               return true;
+            }
+            pos = tail.get();
+         } else if (diff < 0) {
+            return false;
+         } else {
+            pos = tail.get();
+         }
+      }
+   }
+
+   /**
+    * @return the oldest element, or null if the buffer is empty
+    */
+   public E poll() {
+      long pos = head.get();
+      for (;;) {
+         int index = (int) pos & mask;
+         long diff = sequences.get(index) - (pos + 1);
+         if (diff == 0) {
+            if (head.compareAndSet(pos, pos + 1)) {
+               E e = slots.get(index);
+               slots.lazySet(index, null);
+               // hands the slot back to the producer of the next lap
+               sequences.lazySet(index, pos + mask + 1);
+               return e;
+            }
+            pos = head.get();
+         } else if (diff < 0) {
+            return null;
+         } else {
+            pos = head.get();
+         }
+      }
+   }
+
+   /**
+    * Approximate number of elements, exact only when the buffer is quiescent.
+    */
+   public int size() {
+      long size = tail.get() - head.get();
+      return (int) Math.max(0, Math.min(size, capacity()));
+   }
+
+   public boolean isEmpty() {
+      return size() == 0;
+   }
+
+   public int capacity() {
+      return mask + 1;
+   }
+}
@@ -1,12 +1,12 @@
 /*******************************************************************************
  * Copyright 2018 572682
- * 
+ *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not
  * use this file except in compliance with the License.  You may obtain a copy
  * of the License at
- * 
+ *
  *   http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
@@ -15,21 +15,122 @@
  ******************************************************************************/
 package us.dot.its.jpo.ode.util;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Enumeration;
-import java.util.Hashtable;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Pool of objects that can be checked out and in from many threads without a
+ * lock. An object checked in is kept in a one slot cache of the thread, so the
+ * thread gets it back on its next check out, or else in a shared
+ * {@link MpmcRingBuffer} for the other threads. Each pooled object carries its
+ * state, idle or in use, which threads claim with a CAS.
+ * <p>
+ * At most <code>maxSize</code> objects are pooled. Check outs beyond that get an
+ * object of their own, expired when it is checked in. Objects idle for longer
+ * than the expiration time are expired in the background. Objects are told
+ * apart by {@link Object#equals(Object)}.
+ */
 public abstract class SerializableObjectPool<T> implements Serializable {
    private static final long serialVersionUID = 914977959079989774L;
 
+   public static final long DEFAULT_EXPIRATION_TIME_MS = 30000;
+   public static final int DEFAULT_MAX_SIZE = 64;
+
+   private static final int IDLE = 0;
+   private static final int IN_USE = 1;
+   private static final int REMOVED = 2;
+
+   private static final class Pooled<T> {
+      final T object;
+      final AtomicInteger state = new AtomicInteger(IN_USE);
+      volatile long lastUsed = System.currentTimeMillis();
+
+      Pooled(T object) {
+         this.object = object;
+      }
+
+      boolean acquire() {
+         return state.compareAndSet(IDLE, IN_USE);
+      }
+   }
+
+   private static final class Evictor {
+      static final ScheduledExecutorService SCHEDULER = ExecutorFactory
+            .newSingleThreadScheduledExecutor("ObjectPoolEvictor");
+   }
+
    private long expirationTime;
+   private int maxSize;
 
-   private Hashtable<T, Long> locked, unlocked;
+   private transient Map<T, Pooled<T>> pooled;
+   private transient MpmcRingBuffer<Pooled<T>> idle;
+   private transient ThreadLocal<Pooled<T>> threadCache;
+   private transient AtomicInteger size;
+   private transient ScheduledFuture<?> eviction;
+   private transient volatile boolean closed;
+
+   private transient LongAdder hits;
+   private transient LongAdder misses;
+   private transient LongAdder creations;
+   private transient LongAdder expirations;
 
    public SerializableObjectPool() {
-      expirationTime = 30000; // 30 seconds
-      locked = new Hashtable<T, Long>();
-      unlocked = new Hashtable<T, Long>();
+      this(DEFAULT_EXPIRATION_TIME_MS, DEFAULT_MAX_SIZE);
+   }
+
+   /**
+    * @param expirationTime milliseconds an object may stay idle in the pool
+    * @param maxSize        maximum number of pooled objects
+    */
+   public SerializableObjectPool(long expirationTime, int maxSize) {
+      this.expirationTime = expirationTime;
+      this.maxSize = maxSize;
+      initialize();
+   }
+
+   private void initialize() {
+      pooled = new ConcurrentHashMap<>();
+      idle = new MpmcRingBuffer<>(maxSize);
+      threadCache = new ThreadLocal<>();
+      size = new AtomicInteger();
+      hits = new LongAdder();
+      misses = new LongAdder();
+      creations = new LongAdder();
+      expirations = new LongAdder();
+      eviction = scheduleEviction(this, Math.max(1, expirationTime / 2));
+   }
+
+   /**
+    * Runs the eviction of the pool until the pool is closed or garbage
+    * collected.
+    */
+   private static ScheduledFuture<?> scheduleEviction(SerializableObjectPool<?> pool, long period) {
+      WeakReference<SerializableObjectPool<?>> ref = new WeakReference<>(pool);
+      AtomicReference<ScheduledFuture<?>> future = new AtomicReference<>();
+      future.set(Evictor.SCHEDULER.scheduleAtFixedRate(() -> {
+         SerializableObjectPool<?> p = ref.get();
+         if (p != null) {
+            p.evictExpired();
+         } else if (future.get() != null) {
+            future.get().cancel(false);
+         }
+      }, period, period, TimeUnit.MILLISECONDS));
+      return future.get();
+   }
+
+   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      initialize();
    }
 
    protected abstract T create();
@@ -38,40 +139,166 @@ public abstract class SerializableObjectPool<T> implements Serializable {
 
    public abstract void expire(T o);
 
-   public synchronized T checkOut() {
+   public T checkOut() {
       long now = System.currentTimeMillis();
-      T t;
-      if (unlocked.size() > 0) {
-         Enumeration<T> e = unlocked.keys();
-         while (e.hasMoreElements()) {
-            t = e.nextElement();
-            if ((now - unlocked.get(t)) > expirationTime) {
-               // object has expired
-               unlocked.remove(t);
-               expire(t);
-               t = null;	//NOSONAR
-            } else {
-               if (validate(t)) {
-                  unlocked.remove(t);
-                  locked.put(t, now);
-                  return (t);
-               } else {
-                  // object failed validation
-                  unlocked.remove(t);
-                  expire(t);
-                  t = null;	//NOSONAR
-               }
-            }
+
+      // the object this thread checked in last
+      Pooled<T> p = threadCache.get();
+      if (p != null && p.acquire() && usable(p, now)) {
+         hits.increment();
+         return p.object;
+      }
+
+      while ((p = idle.poll()) != null) {
+         if (p.acquire() && usable(p, now)) {
+            hits.increment();
+            return p.object;
+         }
+      }
+
+      if (reserve()) {
+         misses.increment();
+         T t;
+         try {
+            t = create();
+         } catch (RuntimeException e) {
+            size.decrementAndGet();
+            throw e;
+         }
+         creations.increment();
+         pooled.put(t, new Pooled<>(t));
+         return t;
+      }
+
+      // the pool is full, take an idle object cached by another thread
+      for (Pooled<T> q : pooled.values()) {
+         if (q.acquire() && usable(q, now)) {
+            hits.increment();
+            return q.object;
          }
       }
-      // no objects available, create a new one
-      t = create();
-      locked.put(t, now);
-      return (t);
+
+      misses.increment();
+      creations.increment();
+      return create();
+   }
+
+   public void checkIn(T t) {
+      Pooled<T> p = pooled.get(t);
+      if (p == null) {
+         // created beyond the maximum size
+         expirations.increment();
+         expire(t);
+         return;
+      }
+      if (p.state.get() != IN_USE)
+         return;
+      if (closed) {
+         p.state.set(REMOVED);
+         remove(p);
+         return;
+      }
+
+      p.lastUsed = System.currentTimeMillis();
+      p.state.set(IDLE);
+
+      Pooled<T> cached = threadCache.get();
+      if (cached == null || cached == p || cached.state.get() != IDLE) {
+         threadCache.set(p);
+      } else {
+         // left for the other threads to take from the pool when the ring is full
+         idle.offer(p);
+      }
+   }
+
+   /**
+    * Expires the objects idle for longer than the expiration time.
+    */
+   public void evictExpired() {
+      long now = System.currentTimeMillis();
+      for (Pooled<T> p : pooled.values()) {
+         if (now - p.lastUsed > expirationTime && p.state.compareAndSet(IDLE, REMOVED))
+            remove(p);
+      }
+   }
+
+   /**
+    * Stops the eviction and expires the idle objects. Objects checked out are
+    * expired when they are checked in.
+    */
+   public void close() {
+      closed = true;
+      eviction.cancel(false);
+      for (Pooled<T> p : pooled.values()) {
+         if (p.state.compareAndSet(IDLE, REMOVED))
+            remove(p);
+      }
+   }
+
+   private boolean reserve() {
+      int n;
+      do {
+         n = size.get();
+         if (n >= maxSize)
+            return false;
+      } while (!size.compareAndSet(n, n + 1));
+      return true;
+   }
+
+   /**
+    * @return true if the object checked out has neither expired nor failed
+    *         validation, else removes it from the pool
+    */
+   private boolean usable(Pooled<T> p, long now) {
+      if (now - p.lastUsed <= expirationTime && validate(p.object))
+         return true;
+      p.state.set(REMOVED);
+      remove(p);
+      return false;
+   }
+
+   private void remove(Pooled<T> p) {
+      if (pooled.remove(p.object, p)) {
+         size.decrementAndGet();
+         expirations.increment();
+         expire(p.object);
+      }
+   }
+
+   public long getExpirationTime() {
+      return expirationTime;
+   }
+
+   public int getMaxSize() {
+      return maxSize;
+   }
+
+   /**
+    * @return number of pooled objects, idle or checked out
+    */
+   public int getSize() {
+      return size.get();
+   }
+
+   /**
+    * @return check outs served by a pooled object
+    */
+   public long getHits() {
+      return hits.sum();
+   }
+
+   /**
+    * @return check outs that found no idle object
+    */
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   public long getCreations() {
+      return creations.sum();
    }
 
-   public synchronized void checkIn(T t) {
-      locked.remove(t);
-      unlocked.put(t, System.currentTimeMillis());
+   public long getExpirations() {
+      return expirations.sum();
    }
 }
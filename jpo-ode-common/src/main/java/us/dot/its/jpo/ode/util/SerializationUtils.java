@@ -1,12 +1,12 @@
 /*******************************************************************************
  * Copyright 2018 572682
- * 
+ *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not
  * use this file except in compliance with the License.  You may obtain a copy
  * of the License at
- * 
+ *
  *   http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
@@ -18,28 +18,120 @@ package us.dot.its.jpo.ode.util;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoPool;
+import com.esotericsoftware.kryo.serializers.VersionFieldSerializer;
 
+/**
+ * Binary serialization of the ODE model objects published to the POJO topics.
+ * <p>
+ * Records start with a two byte magic and the version of the format, followed
+ * by the exact bytes Kryo wrote. Version 1 writes the version of each object's
+ * class ahead of its fields, so fields added to a class with
+ * {@link com.esotericsoftware.kryo.serializers.VersionFieldSerializer.Since}
+ * leave the records written before them readable. Records without the header,
+ * written by the Kryo serialization of earlier releases, are still read as
+ * such. The POJO topics never carried Java serialized objects, and they are not
+ * read.
+ * <p>
+ * Until all readers of the POJO topics read version 1, records are written in
+ * the legacy format: the bytes of the Kryo field serialization, without the
+ * header.
+ * <p>
+ * Instances are safe to use from several threads, each serialization borrows a
+ * Kryo instance from a pool shared by all of them.
+ */
 public class SerializationUtils<T> {
-   private Kryo kryo = new Kryo();
-   
+
+   public static final byte MAGIC_0 = 'O';
+   public static final byte MAGIC_1 = 'D';
+   public static final byte FORMAT_VERSION = 1;
+   private static final int HEADER_LENGTH = 3;
+
+   private static final int INITIAL_BUFFER_SIZE = 1024;
+
+   private static final KryoPool kryoPool = new KryoPool.Builder(SerializationUtils::newKryo).softReferences()
+         .build();
+
+   private static final KryoPool legacyKryoPool = new KryoPool.Builder(Kryo::new).softReferences().build();
+
+   private final boolean legacyFormat;
+
+   /**
+    * Writes the legacy format.
+    */
+   public SerializationUtils() {
+      this(true);
+   }
+
+   /**
+    * @param legacyFormat true to write the headerless legacy format, false to
+    *                     write version 1
+    */
+   public SerializationUtils(boolean legacyFormat) {
+      this.legacyFormat = legacyFormat;
+   }
+
+   private static Kryo newKryo() {
+      Kryo kryo = new Kryo();
+      kryo.setDefaultSerializer(VersionFieldSerializer.class);
+      return kryo;
+   }
+
    public byte[] serialize(T object) {
       if (object == null) {
          return null;
       }
-      
-      Output output = new Output(1024, -1);
-      kryo.writeClassAndObject(output, object);
-      byte[] bytes = output.getBuffer();
+
+      Output output = new Output(INITIAL_BUFFER_SIZE, -1);
+      KryoPool pool = legacyFormat ? legacyKryoPool : kryoPool;
+      if (!legacyFormat) {
+         output.writeByte(MAGIC_0);
+         output.writeByte(MAGIC_1);
+         output.writeByte(FORMAT_VERSION);
+      }
+      Kryo kryo = pool.borrow();
+      try {
+         kryo.writeClassAndObject(output, object);
+      } finally {
+         pool.release(kryo);
+      }
+      byte[] bytes = output.toBytes();
       output.close();
       return bytes;
    }
 
+   public boolean isLegacyFormat() {
+      return legacyFormat;
+   }
+
    public T deserialize(byte[] buffer) {
-      Input input = new Input(buffer);
-      @SuppressWarnings("unchecked")
-      T object = (T) kryo.readClassAndObject(input);
-      input.close();
-      return object;
+      if (buffer == null || buffer.length == 0) {
+         return null;
+      }
+
+      if (hasHeader(buffer)) {
+         if (buffer[2] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported serialization format version " + buffer[2]);
+         }
+         return read(kryoPool, new Input(buffer, HEADER_LENGTH, buffer.length - HEADER_LENGTH));
+      }
+
+      return read(legacyKryoPool, new Input(buffer));
+   }
+
+   private static boolean hasHeader(byte[] buffer) {
+      return buffer.length >= HEADER_LENGTH && buffer[0] == MAGIC_0 && buffer[1] == MAGIC_1;
+   }
+
+   @SuppressWarnings("unchecked")
+   private T read(KryoPool pool, Input input) {
+      Kryo kryo = pool.borrow();
+      try {
+         return (T) kryo.readClassAndObject(input);
+      } finally {
+         pool.release(kryo);
+         input.close();
+      }
    }
 
 }
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright 2018 572682
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package us.dot.its.jpo.ode.util;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * Converts XML to a Jackson tree in one pass over the StAX events of the
+ * document, by the rules of <code>org.json.XML.toJSONObject(xml, true)</code>:
+ * <ul>
+ * <li>an element becomes a field named after it, of the element's parent or of
+ * the root object</li>
+ * <li>an element holding text only, or nothing, becomes the trimmed text, an
+ * empty string if there is none</li>
+ * <li>attributes become text fields and text mixed with elements becomes the
+ * <code>content</code> field</li>
+ * <li>siblings of the same name become an array, in document order. A single
+ * element never becomes an array of one, the XML does not tell the two apart.
+ * </li>
+ * <li>all values are kept as text, numbers and booleans included</li>
+ * </ul>
+ * DTDs and external entities are not processed.
+ */
+public final class XmlJsonConverter {
+
+   public static final String CONTENT = "content";
+
+   private static final XMLInputFactory inputFactory = newInputFactory();
+
+   private XmlJsonConverter() {
+   }
+
+   private static XMLInputFactory newInputFactory() {
+      XMLInputFactory factory = XMLInputFactory.newFactory();
+      factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+      factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      return factory;
+   }
+
+   /**
+    * An element being read, with the text read since its start or its last
+    * child element.
+    */
+   private static final class Element {
+      final ObjectNode fields = JsonNodeFactory.instance.objectNode();
+      final StringBuilder text = new StringBuilder();
+
+      void flushText() {
+         if (text.length() == 0)
+            return;
+         String content = text.toString().trim();
+         text.setLength(0);
+         if (!content.isEmpty())
+            accumulate(fields, CONTENT, TextNode.valueOf(content));
+      }
+
+      JsonNode value() {
+         flushText();
+         if (fields.isEmpty())
+            return TextNode.valueOf("");
+         if (fields.size() == 1 && fields.has(CONTENT))
+            return fields.get(CONTENT);
+         return fields;
+      }
+   }
+
+   public static ObjectNode toObjectNode(String xml) throws XMLStreamException {
+      return toObjectNode(new StringReader(xml));
+   }
+
+   public static ObjectNode toObjectNode(Reader xml) throws XMLStreamException {
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(xml);
+      try {
+         Element root = new Element();
+         Deque<Element> open = new ArrayDeque<>();
+         open.push(root);
+         while (reader.hasNext()) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+               open.peek().flushText();
+               Element element = new Element();
+               for (int i = 0; i < reader.getAttributeCount(); i++) {
+                  accumulate(element.fields, reader.getAttributeLocalName(i),
+                        TextNode.valueOf(reader.getAttributeValue(i)));
+               }
+               open.push(element);
+               break;
+            case XMLStreamConstants.END_ELEMENT:
+               JsonNode value = open.pop().value();
+               accumulate(open.peek().fields, reader.getLocalName(), value);
+               break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+               if (open.size() > 1)
+                  open.peek().text.append(reader.getTextCharacters(), reader.getTextStart(),
+                        reader.getTextLength());
+               break;
+            default:
+               break;
+            }
+         }
+         return root.fields;
+      } finally {
+         reader.close();
+      }
+   }
+
+   /**
+    * Sets the field, or adds the value to the field's array once the field is
+    * set more than once.
+    */
+   private static void accumulate(ObjectNode object, String name, JsonNode value) {
+      JsonNode existing = object.get(name);
+      if (existing == null) {
+         // an array is only ever the value of repeated fields
+         if (value.isArray())
+            object.putArray(name).add(value);
+         else
+            object.set(name, value);
+      } else if (existing.isArray()) {
+         ((ArrayNode) existing).add(value);
+      } else {
+         ArrayNode array = object.putArray(name);
+         array.add(existing);
+         array.add(value);
+      }
+   }
+}
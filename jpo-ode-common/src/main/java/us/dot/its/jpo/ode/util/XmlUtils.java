@@ -15,8 +15,8 @@
  ******************************************************************************/
 package us.dot.its.jpo.ode.util;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.XML;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -124,14 +124,12 @@ public class XmlUtils {
 
    public static ObjectNode toObjectNode(String xml) throws XmlUtilsException {
       try {
-         JSONObject jsonObject = XML.toJSONObject(xml, true);
-         String jsonString = jsonObject.toString();
-         return JsonUtils.toObjectNode(jsonString);
+         return XmlJsonConverter.toObjectNode(xml);
 
          /*
           * Due to issues with XmlMapper converting "xml arrays" to a valid DOM
-          * collection we could not use it in this context. Hence the above workaround
-          * was adopted. See:
+          * collection we could not use it in this context. XmlJsonConverter reads
+          * the XML by the array rules of org.json instead. See:
           * https://github.com/FasterXML/jackson-dataformat-xml/issues/187
           * https://github.com/FasterXML/jackson-dataformat-xml/issues/205
           */
@@ -141,14 +139,35 @@ public class XmlUtils {
       }
    }
 
+   /**
+    * Same tree as {@link #toObjectNode(String)}, copied to org.json objects for
+    * the code written against them.
+    */
    public static JSONObject toJSONObject(String xml) throws XmlUtilsException {
       try {
-         return XML.toJSONObject(xml, true);
+         return toJSONObject(XmlJsonConverter.toObjectNode(xml));
       } catch (Exception e) {
          throw new XmlUtilsException("Error decoding " + xml + "to JSONObject", e);
       }
    }
 
+   private static JSONObject toJSONObject(ObjectNode node) {
+      JSONObject jsonObject = new JSONObject();
+      node.fields().forEachRemaining(field -> jsonObject.put(field.getKey(), toJSONValue(field.getValue())));
+      return jsonObject;
+   }
+
+   private static Object toJSONValue(JsonNode node) {
+      if (node.isObject()) {
+         return toJSONObject((ObjectNode) node);
+      } else if (node.isArray()) {
+         JSONArray array = new JSONArray();
+         node.forEach(element -> array.put(toJSONValue(element)));
+         return array;
+      }
+      return node.asText();
+   }
+
    public static JsonNode getJsonNode(String tree, String fieldName) throws XmlUtilsException {
       JsonNode jsonNode;
       try {
@@ -0,0 +1,51 @@
+package us.dot.its.jpo.ode.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ExecutorFactoryTest {
+
+   @AfterEach
+   public void restorePlatformThreads() {
+      ExecutorFactory.setVirtualThreads(false);
+   }
+
+   @Test
+   public void testPlatformThreadsNamedInGroup() throws Exception {
+      ExecutorService executor = ExecutorFactory.newFixedThreadPool("ExecutorFactoryTest", 2);
+      Thread first = executor.submit(Thread::currentThread).get();
+
+      assertFalse(first.isVirtual());
+      assertFalse(first.isDaemon());
+      assertEquals("ExecutorFactoryTest-0", first.getName());
+      assertEquals("ExecutorFactoryTest", first.getThreadGroup().getName());
+      executor.shutdown();
+   }
+
+   @Test
+   public void testVirtualThreadsWhenEnabled() throws Exception {
+      ExecutorFactory.setVirtualThreads(true);
+
+      ExecutorService executor = ExecutorFactory.newCachedThreadPool("VirtualExporter");
+      Thread first = executor.submit(Thread::currentThread).get();
+      Thread second = executor.submit(Thread::currentThread).get();
+      assertTrue(first.isVirtual());
+      assertEquals("VirtualExporter-0", first.getName());
+      assertEquals("VirtualExporter-1", second.getName());
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+      Thread started = ExecutorFactory.start("VirtualDepositor", () -> {
+      });
+      started.join();
+      assertTrue(started.isVirtual());
+      assertEquals("VirtualDepositor-0", started.getName());
+   }
+}
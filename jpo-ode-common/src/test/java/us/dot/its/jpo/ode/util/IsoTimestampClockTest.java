@@ -0,0 +1,90 @@
+package us.dot.its.jpo.ode.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IsoTimestampClockTest {
+
+   private static final DateTimeFormatter EXPECTED = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+         .withZone(ZoneOffset.UTC);
+
+   private static class ManualClock extends Clock {
+      long millis;
+
+      @Override
+      public ZoneId getZone() {
+         return ZoneOffset.UTC;
+      }
+
+      @Override
+      public Clock withZone(ZoneId zone) {
+         return this;
+      }
+
+      @Override
+      public Instant instant() {
+         return Instant.ofEpochMilli(millis);
+      }
+
+      @Override
+      public long millis() {
+         return millis;
+      }
+   }
+
+   @Test
+   public void testFormatMatchesDateTimeFormatter() {
+      long[] millis = { 0L, -1L, 951_782_400_000L, 951_868_799_999L, 1_709_164_800_123L, 4_107_542_399_999L,
+            253_402_300_799_999L, -62_135_596_800_000L };
+      for (long m : millis) {
+         assertEquals(EXPECTED.format(Instant.ofEpochMilli(m)), IsoTimestampClock.format(m));
+      }
+
+      Random random = new Random(20231018L);
+      for (int i = 0; i < 100_000; i++) {
+         long m = random.nextLong() % 253_402_300_800_000L;
+         m = Math.max(m, -62_135_596_800_000L);
+         assertEquals(EXPECTED.format(Instant.ofEpochMilli(m)), IsoTimestampClock.format(m));
+      }
+   }
+
+   @Test
+   public void testYearsOutsideFourDigitsFallBack() {
+      long[] millis = { 253_402_300_800_000L, -62_135_596_800_001L };
+      for (long m : millis) {
+         assertEquals(EXPECTED.format(Instant.ofEpochMilli(m)), IsoTimestampClock.format(m));
+      }
+   }
+
+   @Test
+   public void testNowIsCachedPerMillisecond() {
+      ManualClock clock = new ManualClock();
+      clock.millis = 1_697_587_200_001L;
+      IsoTimestampClock timestampClock = new IsoTimestampClock(clock);
+
+      String first = timestampClock.now();
+      assertEquals("2023-10-18T00:00:00.001Z", first);
+      assertSame(first, timestampClock.now());
+
+      clock.millis++;
+      String second = timestampClock.now();
+      assertEquals("2023-10-18T00:00:00.002Z", second);
+      assertNotSame(first, second);
+   }
+
+   @Test
+   public void testDateTimeUtilsNowUsesSameFormat() {
+      String now = DateTimeUtils.now();
+      assertEquals(now, EXPECTED.format(Instant.from(EXPECTED.parse(now))));
+   }
+}
@@ -0,0 +1,85 @@
+package us.dot.its.jpo.ode.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class MpmcRingBufferTest {
+
+   @Test
+   public void testCapacityIsRoundedToPowerOfTwo() {
+      assertEquals(8, new MpmcRingBuffer<Integer>(5).capacity());
+      assertEquals(2, new MpmcRingBuffer<Integer>(1).capacity());
+      assertEquals(1024, new MpmcRingBuffer<Integer>(1024).capacity());
+   }
+
+   @Test
+   public void testFifoAcrossWraparound() {
+      MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(4);
+      int next = 0;
+      for (int lap = 0; lap < 5; lap++) {
+         for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(lap * 4 + i));
+         }
+         assertFalse(ring.offer(-1));
+         assertEquals(4, ring.size());
+         for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(next++), ring.poll());
+         }
+         assertNull(ring.poll());
+         assertTrue(ring.isEmpty());
+      }
+   }
+
+   @Test
+   public void testConcurrentProducersAndConsumers() throws Exception {
+      final int producers = 4;
+      final int perProducer = 50_000;
+      MpmcRingBuffer<Integer> ring = new MpmcRingBuffer<>(256);
+      ConcurrentHashMap<Integer, Boolean> seen = new ConcurrentHashMap<>();
+      AtomicInteger consumed = new AtomicInteger();
+      CountDownLatch producersDone = new CountDownLatch(producers);
+
+      ExecutorService pool = Executors.newFixedThreadPool(producers + 2);
+      for (int p = 0; p < producers; p++) {
+         final int base = p * perProducer;
+         pool.submit(() -> {
+            for (int i = 0; i < perProducer; i++) {
+               while (!ring.offer(base + i)) {
+                  Thread.onSpinWait();
+               }
+            }
+            producersDone.countDown();
+         });
+      }
+      for (int c = 0; c < 2; c++) {
+         pool.submit(() -> {
+            while (consumed.get() < producers * perProducer) {
+               Integer value = ring.poll();
+               if (value == null) {
+                  Thread.onSpinWait();
+                  continue;
+               }
+               assertNull(seen.put(value, Boolean.TRUE));
+               consumed.incrementAndGet();
+            }
+         });
+      }
+
+      assertTrue(producersDone.await(30, TimeUnit.SECONDS));
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+      assertEquals(producers * perProducer, seen.size());
+      assertTrue(ring.isEmpty());
+   }
+}
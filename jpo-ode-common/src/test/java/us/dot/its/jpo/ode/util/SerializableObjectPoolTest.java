@@ -0,0 +1,149 @@
+package us.dot.its.jpo.ode.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+public class SerializableObjectPoolTest {
+
+   private static class Resource {
+      final AtomicBoolean inUse = new AtomicBoolean();
+      volatile boolean valid = true;
+      volatile boolean expired = false;
+   }
+
+   private static class ResourcePool extends SerializableObjectPool<Resource> {
+      private static final long serialVersionUID = 1L;
+
+      ResourcePool(long expirationTime, int maxSize) {
+         super(expirationTime, maxSize);
+      }
+
+      @Override
+      protected Resource create() {
+         return new Resource();
+      }
+
+      @Override
+      public boolean validate(Resource o) {
+         return o.valid;
+      }
+
+      @Override
+      public void expire(Resource o) {
+         o.expired = true;
+      }
+   }
+
+   @Test
+   public void testThreadGetsItsObjectBack() {
+      ResourcePool pool = new ResourcePool(30000, 4);
+
+      Resource first = pool.checkOut();
+      pool.checkIn(first);
+      assertSame(first, pool.checkOut());
+
+      assertEquals(1, pool.getHits());
+      assertEquals(1, pool.getMisses());
+      assertEquals(1, pool.getCreations());
+      assertEquals(1, pool.getSize());
+      pool.close();
+   }
+
+   @Test
+   public void testObjectsHandedToOtherThreads() throws Exception {
+      ResourcePool pool = new ResourcePool(30000, 4);
+      Resource first = pool.checkOut();
+      Resource second = pool.checkOut();
+      pool.checkIn(first);
+      // the thread cache holds the first, the second goes to the shared ring
+      pool.checkIn(second);
+
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      assertSame(second, executor.submit(pool::checkOut).get());
+      executor.shutdown();
+      assertSame(first, pool.checkOut());
+      assertEquals(2, pool.getCreations());
+      pool.close();
+   }
+
+   @Test
+   public void testObjectsBeyondMaxSizeExpiredOnCheckIn() {
+      ResourcePool pool = new ResourcePool(30000, 2);
+      Resource first = pool.checkOut();
+      Resource second = pool.checkOut();
+      Resource overflow = pool.checkOut();
+
+      assertEquals(2, pool.getSize());
+      assertEquals(3, pool.getCreations());
+      pool.checkIn(overflow);
+      assertTrue(overflow.expired);
+      pool.checkIn(first);
+      pool.checkIn(second);
+      assertFalse(first.expired);
+      pool.close();
+      assertTrue(first.expired);
+      assertTrue(second.expired);
+   }
+
+   @Test
+   public void testInvalidAndExpiredObjectsReplaced() throws Exception {
+      ResourcePool pool = new ResourcePool(50, 4);
+      Resource invalid = pool.checkOut();
+      invalid.valid = false;
+      pool.checkIn(invalid);
+
+      Resource replacement = pool.checkOut();
+      assertNotSame(invalid, replacement);
+      assertTrue(invalid.expired);
+
+      pool.checkIn(replacement);
+      // expired in the background once idle for longer than the expiration time
+      long deadline = System.currentTimeMillis() + 5000;
+      while (!replacement.expired && System.currentTimeMillis() < deadline)
+         Thread.sleep(10);
+      assertTrue(replacement.expired);
+      assertEquals(0, pool.getSize());
+      assertEquals(2, pool.getExpirations());
+      pool.close();
+   }
+
+   @Test
+   public void testConcurrentCheckOutsNeverShareAnObject() throws Exception {
+      ResourcePool pool = new ResourcePool(30000, 4);
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+         results.add(executor.submit(() -> {
+            for (int i = 0; i < 10000; i++) {
+               Resource r = pool.checkOut();
+               if (!r.inUse.compareAndSet(false, true))
+                  return false;
+               r.inUse.set(false);
+               pool.checkIn(r);
+            }
+            return true;
+         }));
+      }
+      for (Future<Boolean> result : results)
+         assertTrue(result.get());
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+      assertEquals(80000, pool.getHits() + pool.getMisses());
+      assertTrue(pool.getSize() <= 4);
+      pool.close();
+   }
+}
@@ -15,12 +15,29 @@
  ******************************************************************************/
 package us.dot.its.jpo.ode.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Test;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 public class SerializationUtilsTest {
    
    @Test
@@ -34,4 +51,73 @@ public class SerializationUtilsTest {
       assertEquals(td, serializer.deserialize(actual));
    }
 
+   @Test
+   public void testVersionedRecordWithoutPadding() {
+      TestData td = new TestData(1, "string", BigDecimal.valueOf(2.3));
+      SerializationUtils<TestData> serializer = new SerializationUtils<TestData>(false);
+      byte[] actual = serializer.serialize(td);
+
+      assertArrayEquals(new byte[] { 'O', 'D', 1 }, new byte[] { actual[0], actual[1], actual[2] });
+      assertTrue(actual.length < 200);
+      assertEquals(td, serializer.deserialize(actual));
+   }
+
+   @Test
+   public void testLegacyFormatWrittenByDefault() {
+      TestData td = new TestData(1, "string", BigDecimal.valueOf(2.3));
+      byte[] actual = new SerializationUtils<TestData>().serialize(td);
+
+      // readable by the Kryo deserialization of earlier releases
+      assertEquals(td, new Kryo().readClassAndObject(new Input(actual)));
+      assertTrue(actual.length < 200);
+   }
+
+   @Test
+   public void testReadsLegacyKryoRecords() {
+      TestData td = new TestData(1, "string", BigDecimal.valueOf(2.3));
+      // as written by earlier releases, the whole buffer
+      Output output = new Output(1024, -1);
+      new Kryo().writeClassAndObject(output, td);
+
+      assertEquals(td, new SerializationUtils<TestData>().deserialize(output.getBuffer()));
+   }
+
+   @Test
+   public void testJavaSerializedRecordsNotRead() throws IOException {
+      ArrayList<BigDecimal> values = new ArrayList<>(List.of(BigDecimal.ONE, BigDecimal.valueOf(2.3)));
+
+      // read as Kryo records, so never handed to an ObjectInputStream
+      assertThrows(KryoException.class,
+            () -> new SerializationUtils<List<BigDecimal>>().deserialize(javaSerialize(values)));
+   }
+
+   @Test
+   public void testConcurrentSerialization() throws Exception {
+      SerializationUtils<TestData> serializer = new SerializationUtils<TestData>();
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+         int id = t;
+         results.add(executor.submit(() -> {
+            for (int i = 0; i < 2000; i++) {
+               TestData td = new TestData(id, "string" + i, BigDecimal.valueOf(i));
+               if (!td.equals(serializer.deserialize(serializer.serialize(td))))
+                  return false;
+            }
+            return true;
+         }));
+      }
+      for (Future<Boolean> result : results)
+         assertTrue(result.get());
+      executor.shutdown();
+   }
+
+   private static byte[] javaSerialize(Serializable object) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+         out.writeObject(object);
+      }
+      return bytes.toByteArray();
+   }
+
 }
@@ -0,0 +1,84 @@
+package us.dot.its.jpo.ode.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.json.XML;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class XmlJsonConverterTest {
+
+   private static final String DECODER_OUTPUT = "<?xml version=\"1.0\"?>\n"
+         + "<OdeAsn1Data>\n"
+         + "  <metadata>\n"
+         + "    <recordType>rxMsg</recordType>\n"
+         + "    <sanitized>false</sanitized>\n"
+         + "    <odePacketID/>\n"
+         + "    <logFileName></logFileName>\n"
+         + "    <encodings>\n"
+         + "      <encodings><elementName>root</elementName><encodingRule>COER</encodingRule></encodings>\n"
+         + "      <encodings><elementName>unsecuredData</elementName><encodingRule>UPER</encodingRule></encodings>\n"
+         + "    </encodings>\n"
+         + "  </metadata>\n"
+         + "  <payload>\n"
+         + "    <data>\n"
+         + "      <MessageFrame>\n"
+         + "        <messageId>31</messageId>\n"
+         + "        <value><TravelerInformation><msgCnt>1</msgCnt><packetID>0000000000000B5F43</packetID>"
+         + "<urlB>null</urlB><nodes><NodeXY><x>-3</x></NodeXY><NodeXY><x>4</x></NodeXY><NodeXY><x>5</x></NodeXY>"
+         + "</nodes><content><advisory><SEQUENCE><item><itis>7186</itis></item></SEQUENCE></advisory></content>"
+         + "<extent><useFor3meters/></extent></TravelerInformation></value>\n"
+         + "      </MessageFrame>\n"
+         + "    </data>\n"
+         + "  </payload>\n"
+         + "</OdeAsn1Data>";
+
+   @Test
+   public void testSameTreeAsOrgJson() throws Exception {
+      ObjectNode expected = JsonUtils.toObjectNode(XML.toJSONObject(DECODER_OUTPUT, true).toString());
+      assertEquals(expected, XmlJsonConverter.toObjectNode(DECODER_OUTPUT));
+   }
+
+   @Test
+   public void testValuesKeptAsText() throws XMLStreamException {
+      ObjectNode node = XmlJsonConverter.toObjectNode(DECODER_OUTPUT);
+      assertEquals("31", node.at("/OdeAsn1Data/payload/data/MessageFrame/messageId").textValue());
+      assertEquals("false", node.at("/OdeAsn1Data/metadata/sanitized").textValue());
+      assertEquals("0000000000000B5F43",
+            node.at("/OdeAsn1Data/payload/data/MessageFrame/value/TravelerInformation/packetID").textValue());
+      assertEquals("", node.at("/OdeAsn1Data/metadata/odePacketID").textValue());
+      assertEquals("", node.at("/OdeAsn1Data/metadata/logFileName").textValue());
+   }
+
+   @Test
+   public void testRepeatedSiblingsBecomeArray() throws XMLStreamException {
+      ObjectNode node = XmlJsonConverter.toObjectNode("<a><b>1</b><c>x</c><b>2</b><d><e>3</e></d></a>");
+      assertEquals("{\"a\":{\"b\":[\"1\",\"2\"],\"c\":\"x\",\"d\":{\"e\":\"3\"}}}", node.toString());
+   }
+
+   @Test
+   public void testAttributesAndMixedContent() throws Exception {
+      String xml = "<a id=\"7\"> one <b>2</b> three &amp; four <b/><![CDATA[<five>]]></a>";
+      ObjectNode node = XmlJsonConverter.toObjectNode(xml);
+      assertEquals("7", node.at("/a/id").textValue());
+      assertEquals("one", node.at("/a/content/0").textValue());
+      assertEquals("three & four", node.at("/a/content/1").textValue());
+      assertEquals("<five>", node.at("/a/content/2").textValue());
+      assertEquals(JsonUtils.toObjectNode(XML.toJSONObject(xml, true).toString()), node);
+   }
+
+   @Test
+   public void testExternalEntitiesNotResolved() {
+      String xml = "<!DOCTYPE a [<!ENTITY e SYSTEM \"file:///etc/passwd\">]><a>&e;</a>";
+      try {
+         ObjectNode node = XmlJsonConverter.toObjectNode(xml);
+         assertTrue(node.at("/a").asText().isEmpty());
+      } catch (XMLStreamException e) {
+         // rejected
+      }
+   }
+}
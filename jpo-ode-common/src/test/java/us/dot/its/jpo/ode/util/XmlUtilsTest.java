@@ -16,4 +16,17 @@ public class XmlUtilsTest {
         assertEquals("5651E543", parsedRecordId);
     }
 
+    @Test
+    public void testToJSONObjectCopiesObjectNode() throws Exception {
+        var myXml = "<OdeAsn1Data><metadata><recordId>5651E543</recordId><odePacketID/>"
+                + "<encodings><encodings><elementName>root</elementName></encodings>"
+                + "<encodings><elementName>unsecuredData</elementName></encodings></encodings></metadata>"
+                + "<payload><data><MessageFrame><messageId>31</messageId></MessageFrame></data></payload></OdeAsn1Data>";
+        var expected = JsonUtils.toObjectNode(XmlUtils.toJSONObject(myXml).toString());
+        var actual = XmlUtils.toObjectNode(myXml);
+        assertEquals(expected, actual);
+        assertEquals("5651E543", actual.at("/OdeAsn1Data/metadata/recordId").textValue());
+        assertEquals(2, actual.at("/OdeAsn1Data/metadata/encodings/encodings").size());
+    }
+
 }
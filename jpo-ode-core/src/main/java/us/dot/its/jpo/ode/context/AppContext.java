@@ -55,6 +55,7 @@ public class AppContext {
    public static final String METRICS_POLLING_RATE_SECONDS = "metrics.polling.rate.seconds";
    public static final String METRICS_GRAPHITE_HOST = "metrics.graphite.host";
    public static final String METRICS_GRAPHITE_PORT = "metrics.graphite.port";
+   public static final String METRICS_REGISTRY_NAME = "ode";
 
    private static AppContext instance = null;
 
@@ -16,11 +16,13 @@
 package us.dot.its.jpo.ode.wrapper;
 
 import java.util.Arrays;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import us.dot.its.jpo.ode.util.ExecutorFactory;
+
 /**
  * @author 572682
  *
@@ -36,7 +38,7 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractSubscriberProcessor<K, S> extends MessageProcessor<K, S> {
 
    private Logger logger = LoggerFactory.getLogger(this.getClass());
-   protected int messagesConsumed = 0;
+   protected final AtomicInteger messagesConsumed = new AtomicInteger();
 
    /**
     * Starts a Kafka listener that runs call() every time a new msg arrives
@@ -47,17 +49,12 @@ public abstract class AbstractSubscriberProcessor<K, S> extends MessageProcessor
    public void start(MessageConsumer<K, S> consumer, String... inputTopics) {
       logger.info("Subscribing to {}", Arrays.asList(inputTopics).toString());
 
-      Executors.newSingleThreadExecutor().submit(new Runnable() {
-         @Override
-         public void run() {
-            consumer.subscribe(inputTopics);
-         }
-      });
+      ExecutorFactory.start(consumer.getName(), () -> consumer.subscribe(inputTopics));
    }
 
    @Override
    public Object call() {
-      messagesConsumed++;
+      messagesConsumed.incrementAndGet();
 
       S consumedData = getRecord().value();
 
@@ -16,24 +16,51 @@
 package us.dot.its.jpo.ode.wrapper;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Properties;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class MessageConsumer<K, V> {
 
+    /**
+     * How the offsets of consumed records are committed.
+     */
+    public enum CommitMode {
+        /** Committed by the Kafka consumer at the auto commit interval */
+        AUTO,
+        /** Processed offsets committed after each batch, waiting for the commit */
+        SYNC,
+        /**
+         * Processed offsets committed after each batch without waiting, a failed
+         * commit is superseded by the commit of the next batch
+         */
+        ASYNC
+    }
+
     private String name = "DefaultMessageConsumer";
 
     private static final int CONSUMER_POLL_TIMEOUT_MS = 60000;
+    private static final int MIN_POLL_TIMEOUT_MS = 100;
     public static final String SERIALIZATION_STRING_DESERIALIZER = "org.apache.kafka.common.serialization.StringDeserializer";
     public static final String SERIALIZATION_BYTE_ARRAY_DESERIALIZER = "org.apache.kafka.common.serialization.ByteArrayDeserializer";
     public static final int DEFAULT_CONSUMER_SESSION_TIMEOUT_MS = 30000;
     public static final int DEFAULT_CONSUMER_AUTO_COMMIT_INTERVAL_MS = 1000;
     public static final String DEFAULT_CONSUMER_ENABLE_AUTO_COMMIT = "true";
+    public static final int DEFAULT_MAX_DELIVERY_ATTEMPTS = 3;
+    public static final int DEFAULT_MAX_POLL_RECORDS = 500;
+    public static final int DEFAULT_ADAPTIVE_BATCH_POLLS = 8;
 
     private static Logger logger = LoggerFactory.getLogger(MessageConsumer.class);
 
@@ -43,6 +70,26 @@ public class MessageConsumer<K, V> {
 
     private boolean isRunning = false;
 
+    private CommitMode commitMode = CommitMode.AUTO;
+
+    private int maxDeliveryAttempts = DEFAULT_MAX_DELIVERY_ATTEMPTS;
+
+    // offset of the record that last failed in each partition and the number of
+    // times it was delivered
+    private final Map<TopicPartition, Long> failedOffsets = new HashMap<>();
+    private final Map<TopicPartition, Integer> deliveryAttempts = new HashMap<>();
+
+    // adaptive batching: while the consumer lags, polls are accumulated up to the
+    // batch target, which doubles up to maxBatchRecords and halves back to
+    // max.poll.records once caught up. The poll timeout grows while idle.
+    private boolean adaptive = false;
+    private int maxPollRecords = DEFAULT_MAX_POLL_RECORDS;
+    private int maxBatchRecords = maxPollRecords * DEFAULT_ADAPTIVE_BATCH_POLLS;
+    private int batchTarget = maxPollRecords;
+    private Duration pollTimeout = Duration.ofMillis(CONSUMER_POLL_TIMEOUT_MS);
+
+    private MessageConsumerStats stats;
+
     public static MessageConsumer<String, byte[]> defaultByteArrayMessageConsumer(
             String brokers,
             String groupId,
@@ -107,6 +154,10 @@ public class MessageConsumer<K, V> {
             MessageProcessor<K, V> processor,
             Properties props) {
         this.processor = processor;
+        props.putIfAbsent("enable.auto.commit", DEFAULT_CONSUMER_ENABLE_AUTO_COMMIT);
+        props.putIfAbsent("auto.commit.interval.ms", DEFAULT_CONSUMER_AUTO_COMMIT_INTERVAL_MS);
+        props.putIfAbsent("session.timeout.ms", DEFAULT_CONSUMER_SESSION_TIMEOUT_MS);
+        props.putIfAbsent("key.deserializer", SERIALIZATION_STRING_DESERIALIZER);
         props.put("bootstrap.servers", brokers);
         props.put("group.id", groupId);
 
@@ -116,9 +167,36 @@ public class MessageConsumer<K, V> {
         
         this.consumer = new KafkaConsumer<K, V>(props);
 
+        Object maxPoll = props.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG);
+        if (maxPoll != null)
+            this.maxPollRecords = Integer.parseInt(maxPoll.toString());
+        this.maxBatchRecords = maxPollRecords * DEFAULT_ADAPTIVE_BATCH_POLLS;
+        this.batchTarget = maxPollRecords;
+
         logger.info("Consumer Created for groupId {}", groupId);
     }
 
+    /**
+     * Consumer committing the offsets of the records its processor has processed
+     * after each batch, unless the commit mode is AUTO. Records that fail to
+     * process are consumed again, up to the maximum delivery attempts.
+     */
+    public MessageConsumer(
+            String brokers,
+            String groupId,
+            MessageProcessor<K, V> processor,
+            Properties props,
+            CommitMode commitMode) {
+        this(brokers, groupId, processor, manualCommit(props, commitMode));
+        this.commitMode = commitMode;
+    }
+
+    private static Properties manualCommit(Properties props, CommitMode commitMode) {
+        if (commitMode != CommitMode.AUTO)
+            props.put("enable.auto.commit", "false");
+        return props;
+    }
+
     private Properties addConfluentProperties(Properties props) {
         props.put("ssl.endpoint.identification.algorithm", "https");
         props.put("security.protocol", "SASL_SSL");
@@ -145,21 +223,27 @@ public class MessageConsumer<K, V> {
         logger.info("Subscribing to {}", listTopics);
         consumer.subscribe(listTopics);
 
+        if (stats == null)
+            stats = new MessageConsumerStats(name);
+        stats.setBatchTarget(batchTarget);
+
         isRunning = true;
         boolean gotMessages = false;
         while (isRunning) {
             try {
-                ConsumerRecords<K, V> records = consumer.poll(Duration.ofMillis(CONSUMER_POLL_TIMEOUT_MS));
+                Duration timeout = pollTimeout;
+                ConsumerRecords<K, V> records = poll();
                 if (records != null && !records.isEmpty()) {
                     gotMessages = true;
                     logger.debug("{} consuming {} message(s)", name, records.count());
-                    processor.process(records);
+                    stats.markBatch(records.count());
+                    process(records);
                 } else {
                     if (gotMessages) {
                         logger.debug(
-                                "{} no messages consumed in {} seconds.",
+                                "{} no messages consumed in {} ms.",
                                 name,
-                                CONSUMER_POLL_TIMEOUT_MS / 1000);
+                                timeout.toMillis());
                         gotMessages = false;
                     }
                 }
@@ -172,6 +256,145 @@ public class MessageConsumer<K, V> {
         consumer.close();
     }
 
+    /**
+     * Polls the next batch. In adaptive mode, a consumer that lags behind its
+     * partitions keeps polling without waiting until the batch target is reached,
+     * handing the processor wider batches, while a consumer that has caught up
+     * processes each poll as soon as it returns.
+     */
+    private ConsumerRecords<K, V> poll() {
+        ConsumerRecords<K, V> records = consumer.poll(pollTimeout);
+        int count = records != null ? records.count() : 0;
+        stats.markPoll(count);
+        if (count == 0) {
+            if (adaptive) {
+                pollTimeout = min(pollTimeout.multipliedBy(2), Duration.ofMillis(CONSUMER_POLL_TIMEOUT_MS));
+                narrowBatch();
+            }
+            return records;
+        }
+
+        long lag = updateLag();
+        if (!adaptive)
+            return records;
+
+        pollTimeout = Duration.ofMillis(MIN_POLL_TIMEOUT_MS);
+        if (lag == 0) {
+            narrowBatch();
+            return records;
+        }
+
+        Map<TopicPartition, List<ConsumerRecord<K, V>>> batch = null;
+        while (count < batchTarget) {
+            ConsumerRecords<K, V> more = consumer.poll(Duration.ZERO);
+            if (more == null || more.isEmpty())
+                break;
+            stats.markPoll(more.count());
+            if (batch == null)
+                batch = append(new HashMap<>(), records);
+            append(batch, more);
+            count += more.count();
+        }
+        if (count >= batchTarget) {
+            batchTarget = Math.min(batchTarget * 2, Math.max(maxBatchRecords, maxPollRecords));
+            stats.setBatchTarget(batchTarget);
+        }
+        return batch != null ? new ConsumerRecords<>(batch) : records;
+    }
+
+    private void narrowBatch() {
+        batchTarget = Math.max(batchTarget / 2, maxPollRecords);
+        stats.setBatchTarget(batchTarget);
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private Map<TopicPartition, List<ConsumerRecord<K, V>>> append(
+            Map<TopicPartition, List<ConsumerRecord<K, V>>> batch,
+            ConsumerRecords<K, V> records) {
+        for (TopicPartition topicPartition : records.partitions())
+            batch.computeIfAbsent(topicPartition, tp -> new ArrayList<>()).addAll(records.records(topicPartition));
+        return batch;
+    }
+
+    /**
+     * @return records behind the end of the assigned partitions, as known from
+     *         the last fetch
+     */
+    private long updateLag() {
+        long lag = 0;
+        for (TopicPartition topicPartition : consumer.assignment()) {
+            OptionalLong partitionLag = consumer.currentLag(topicPartition);
+            if (partitionLag != null && partitionLag.isPresent())
+                lag += partitionLag.getAsLong();
+        }
+        stats.setLag(lag);
+        return lag;
+    }
+
+    private void process(ConsumerRecords<K, V> records) throws MessageProcessingException {
+        if (commitMode == CommitMode.AUTO) {
+            processor.process(records);
+            return;
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> commitOffsets = new HashMap<>();
+        try {
+            processor.process(records).forEach(
+                    (topicPartition, offset) -> commitOffsets.put(topicPartition, new OffsetAndMetadata(offset + 1)));
+        } catch (MessageProcessingException e) {
+            e.getProcessedOffsets().forEach(
+                    (topicPartition, offset) -> commitOffsets.put(topicPartition, new OffsetAndMetadata(offset + 1)));
+            e.getFailedOffsets().forEach((topicPartition, offset) -> commitOffsets.put(topicPartition,
+                    new OffsetAndMetadata(redeliverFrom(topicPartition, offset))));
+            commit(commitOffsets);
+            throw e;
+        }
+        failedOffsets.keySet().removeAll(commitOffsets.keySet());
+        commit(commitOffsets);
+    }
+
+    /**
+     * Rewinds the partition to the record that failed, or past it once it has
+     * been delivered the maximum number of times.
+     * 
+     * @return the offset to consume next
+     */
+    private long redeliverFrom(TopicPartition topicPartition, long failedOffset) {
+        Long lastFailedOffset = failedOffsets.get(topicPartition);
+        int attempts = lastFailedOffset != null && lastFailedOffset == failedOffset
+                ? deliveryAttempts.get(topicPartition) + 1
+                : 1;
+
+        long nextOffset = failedOffset;
+        if (attempts >= maxDeliveryAttempts) {
+            logger.error("{} skipping record {} of {} after {} attempts", name, failedOffset, topicPartition, attempts);
+            failedOffsets.remove(topicPartition);
+            nextOffset++;
+        } else {
+            failedOffsets.put(topicPartition, failedOffset);
+            deliveryAttempts.put(topicPartition, attempts);
+        }
+        consumer.seek(topicPartition, nextOffset);
+        return nextOffset;
+    }
+
+    private void commit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        if (offsets.isEmpty())
+            return;
+
+        if (commitMode == CommitMode.SYNC) {
+            consumer.commitSync(offsets);
+        } else {
+            consumer.commitAsync(offsets, (committed, e) -> {
+                if (e != null)
+                    logger.warn("{} failed to commit offsets {}", name, committed, e);
+            });
+        }
+    }
+
     public void close() {
         isRunning = false;
     }
@@ -192,6 +415,46 @@ public class MessageConsumer<K, V> {
         this.consumer = consumer;
     }
 
+    public CommitMode getCommitMode() {
+        return commitMode;
+    }
+
+    public int getMaxDeliveryAttempts() {
+        return maxDeliveryAttempts;
+    }
+
+    public void setMaxDeliveryAttempts(int maxDeliveryAttempts) {
+        this.maxDeliveryAttempts = maxDeliveryAttempts;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Widens the batches while the consumer lags and narrows them once it has
+     * caught up.
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public int getMaxBatchRecords() {
+        return maxBatchRecords;
+    }
+
+    public void setMaxBatchRecords(int maxBatchRecords) {
+        this.maxBatchRecords = maxBatchRecords;
+    }
+
+    public int getBatchTarget() {
+        return batchTarget;
+    }
+
+    public MessageConsumerStats getStats() {
+        return stats;
+    }
+
     public String getName() {
         return name;
     }
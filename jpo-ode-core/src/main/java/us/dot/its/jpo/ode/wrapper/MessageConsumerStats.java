@@ -0,0 +1,83 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+import us.dot.its.jpo.ode.context.AppContext;
+
+/**
+ * Poll counters of a {@link MessageConsumer}, registered in the shared ODE
+ * metric registry under <code>kafka.consumer.&lt;consumer name&gt;.*</code>.
+ * The lag is the number of records behind the end of the assigned partitions
+ * after the last poll.
+ */
+public class MessageConsumerStats {
+
+   private final Histogram pollRecords;
+   private final Histogram batchRecords;
+   private final Meter consumed;
+   private volatile long lag = 0;
+   private volatile int batchTarget = 0;
+
+   public MessageConsumerStats(String consumerName) {
+      MetricRegistry registry = SharedMetricRegistries.getOrCreate(AppContext.METRICS_REGISTRY_NAME);
+      String prefix = MetricRegistry.name("kafka", "consumer", consumerName);
+      this.pollRecords = registry.histogram(MetricRegistry.name(prefix, "pollRecords"));
+      this.batchRecords = registry.histogram(MetricRegistry.name(prefix, "batchRecords"));
+      this.consumed = registry.meter(MetricRegistry.name(prefix, "consumed"));
+      // a consumer started again under the same name replaces the gauges
+      replace(registry, MetricRegistry.name(prefix, "lag"), (Gauge<Long>) this::getLag);
+      replace(registry, MetricRegistry.name(prefix, "batchTarget"), (Gauge<Integer>) this::getBatchTarget);
+   }
+
+   private static void replace(MetricRegistry registry, String name, Gauge<?> gauge) {
+      registry.remove(name);
+      registry.register(name, gauge);
+   }
+
+   /**
+    * Records returned by one poll.
+    */
+   public void markPoll(int records) {
+      pollRecords.update(records);
+   }
+
+   /**
+    * Records handed to the processor at once, from one or more polls.
+    */
+   public void markBatch(int records) {
+      batchRecords.update(records);
+      consumed.mark(records);
+   }
+
+   public void setLag(long lag) {
+      this.lag = lag;
+   }
+
+   public void setBatchTarget(int batchTarget) {
+      this.batchTarget = batchTarget;
+   }
+
+   public long getLag() {
+      return lag;
+   }
+
+   public int getBatchTarget() {
+      return batchTarget;
+   }
+
+   public double getMeanPollRecords() {
+      return pollRecords.getSnapshot().getMean();
+   }
+
+   public double getMeanBatchRecords() {
+      return batchRecords.getSnapshot().getMean();
+   }
+
+   public long getConsumed() {
+      return consumed.getCount();
+   }
+}
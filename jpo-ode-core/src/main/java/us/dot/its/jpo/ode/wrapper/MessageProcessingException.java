@@ -0,0 +1,40 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Thrown when records of a batch fail to process. Once a record of a partition
+ * fails, the following records of that partition are not processed so they
+ * can be consumed again in order, while the other partitions are processed to
+ * the end of the batch.
+ */
+public class MessageProcessingException extends Exception {
+
+   private static final long serialVersionUID = 1L;
+
+   private final transient Map<TopicPartition, Long> processedOffsets;
+   private final transient Map<TopicPartition, Long> failedOffsets;
+
+   public MessageProcessingException(String message, Throwable cause, Map<TopicPartition, Long> processedOffsets,
+         Map<TopicPartition, Long> failedOffsets) {
+      super(message, cause);
+      this.processedOffsets = processedOffsets;
+      this.failedOffsets = failedOffsets;
+   }
+
+   /**
+    * @return the last offset processed in each partition
+    */
+   public Map<TopicPartition, Long> getProcessedOffsets() {
+      return processedOffsets;
+   }
+
+   /**
+    * @return the offset of the first record that failed in each partition
+    */
+   public Map<TopicPartition, Long> getFailedOffsets() {
+      return failedOffsets;
+   }
+}
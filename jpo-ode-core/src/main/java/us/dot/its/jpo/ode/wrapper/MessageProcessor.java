@@ -33,31 +33,101 @@ import org.apache.kafka.common.TopicPartition;
  */
 public abstract class MessageProcessor<K, V> implements Callable<Object> {
 
-   private ConsumerRecord<K, V> record;
+   // the record being processed on each thread, so the processor itself holds
+   // no per-record state and can be called from several workers
+   private final ThreadLocal<ConsumerRecord<K, V>> record = new ThreadLocal<>();
+   private OrderedWorkerPool workerPool;
+   private TypedWorkerPools<K, V, ?> typedWorkerPools;
 
-   public Map<TopicPartition, Long> process(ConsumerRecords<K, V> consumerRecords) throws Exception {
+   /**
+    * @return the last offset processed in each partition
+    * @throws MessageProcessingException with the progress made, when records
+    *            fail to process
+    */
+   public Map<TopicPartition, Long> process(ConsumerRecords<K, V> consumerRecords) throws MessageProcessingException {
+      if (consumerRecords.count() < 2)
+         return processInOrder(consumerRecords);
+      TypedWorkerPools<K, V, ?> typedWorkers = typedWorkerPools;
+      if (typedWorkers != null)
+         return typedWorkers.process(this, consumerRecords);
+      OrderedWorkerPool workers = workerPool;
+      if (workers == null)
+         return processInOrder(consumerRecords);
+      return workers.process(this, consumerRecords);
+   }
+
+   Map<TopicPartition, Long> processInOrder(Iterable<ConsumerRecord<K, V>> consumerRecords)
+         throws MessageProcessingException {
 
       Map<TopicPartition, Long> processedOffsets = new HashMap<TopicPartition, Long>();
-      for (ConsumerRecord<K, V> recordMetadata : consumerRecords) {
-         record = recordMetadata;
+      Map<TopicPartition, Long> failedOffsets = new HashMap<TopicPartition, Long>();
+      Exception failure = null;
+      try {
+         for (ConsumerRecord<K, V> recordMetadata : consumerRecords) {
+            TopicPartition topicPartition = new TopicPartition(recordMetadata.topic(), recordMetadata.partition());
+            if (failedOffsets.containsKey(topicPartition))
+               continue; // consumed again after the failed record
 
-         TopicPartition topicPartition = new TopicPartition(recordMetadata.topic(), recordMetadata.partition());
-         try {
-            call();
-            processedOffsets.put(topicPartition, recordMetadata.offset());
-         } catch (Exception e) {
-            throw new Exception("Error processing message", e);
+            record.set(recordMetadata);
+            try {
+               call();
+               processedOffsets.put(topicPartition, recordMetadata.offset());
+            } catch (Exception e) {
+               if (failure == null)
+                  failure = e;
+               failedOffsets.put(topicPartition, recordMetadata.offset());
+            }
          }
+      } finally {
+         record.remove();
       }
+      if (failure != null)
+         throw new MessageProcessingException("Error processing message", failure, processedOffsets, failedOffsets);
       return processedOffsets;
    }
-   
+
+   /**
+    * Processes the records of each poll on the given number of threads, keeping
+    * the order of the records of a partition or with the same key. One thread
+    * processes the records on the consumer thread.
+    */
+   public MessageProcessor<K, V> setConcurrency(int threads, OrderedWorkerPool.Ordering ordering) {
+      OrderedWorkerPool previous = workerPool;
+      workerPool = threads > 1 ? new OrderedWorkerPool(getClass().getSimpleName(), threads, ordering) : null;
+      if (previous != null)
+         previous.shutdown();
+      return this;
+   }
+
+   /**
+    * Processes the records of each poll on worker pools of their types, in
+    * place of the threads set by {@link #setConcurrency}.
+    */
+   public MessageProcessor<K, V> setTypedWorkerPools(TypedWorkerPools<K, V, ?> typedWorkerPools) {
+      TypedWorkerPools<K, V, ?> previous = this.typedWorkerPools;
+      this.typedWorkerPools = typedWorkerPools;
+      if (previous != null && previous != typedWorkerPools)
+         previous.shutdown();
+      return this;
+   }
+
+   public TypedWorkerPools<K, V, ?> getTypedWorkerPools() {
+      return typedWorkerPools;
+   }
+
+   public OrderedWorkerPool getWorkerPool() {
+      return workerPool;
+   }
+
+   /**
+    * @return the record being processed by the calling thread
+    */
    public ConsumerRecord<K, V> getRecord() {
-      return record;
+      return record.get();
    }
 
    public MessageProcessor<K, V> setRecord(ConsumerRecord<K, V> newRecord) {
-       this.record = newRecord;
+       this.record.set(newRecord);
        return this;
    }
 
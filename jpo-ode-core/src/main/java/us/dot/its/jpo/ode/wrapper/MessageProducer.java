@@ -21,7 +21,6 @@ import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -79,53 +78,60 @@ public class MessageProducer<K, V> {
             Set<String> disabledTopics) {
         Properties props = setDefaultProperties();
 
-        if (brokers != null) {
-            props.put("bootstrap.servers", brokers);
-        } else {
-            logger.error("Bootstrap servers setting is null");
-        }
-
         props.put("key.serializer", SERIALIZATION_STRING_SERIALIZER);
         props.put("value.serializer", valueSerializerFQN);
 
-        if (partitionerClass != null) {
-            props.put("partitioner.class", partitionerClass);
-        }
-
-        String kafkaType = System.getenv("KAFKA_TYPE");
-        if (kafkaType != null && kafkaType.equals("CONFLUENT")) {
-            addConfluentProperties(props);
-        }
-        
-        producer = new KafkaProducer<>(props);
+        producer = createProducer(brokers, partitionerClass, props);
 
         this.disabledTopicsSet = disabledTopics;
 
         logger.info("Producer Created with default properties");
     }
 
+    /**
+     * Wraps an already created producer, such as a MockProducer standing in for
+     * Kafka.
+     */
+    public MessageProducer(Producer<K, V> producer, Set<String> disabledTopics) {
+        this.producer = producer;
+        this.disabledTopicsSet = disabledTopics;
+    }
+
     public MessageProducer(
             String brokers,
             String type,
             String partitionerClass,
             Properties props,
             Set<String> enabledTopics) {
-        props.put("bootstrap.servers", brokers);
+        producer = createProducer(brokers, partitionerClass, props);
+
+        this.disabledTopicsSet = enabledTopics;
+
+        logger.info("Producer Created");
+    }
+
+    /**
+     * Creates a Kafka producer with the given properties, connecting to the
+     * brokers the way every MessageProducer does, including Confluent Cloud
+     * authentication when KAFKA_TYPE is CONFLUENT.
+     */
+    public static <K, V> Producer<K, V> createProducer(String brokers, String partitionerClass, Properties props) {
+        if (brokers != null) {
+            props.put("bootstrap.servers", brokers);
+        } else {
+            logger.error("Bootstrap servers setting is null");
+        }
 
         if (partitionerClass != null) {
             props.put("partitioner.class", partitionerClass);
         }
-        
+
         String kafkaType = System.getenv("KAFKA_TYPE");
         if (kafkaType != null && kafkaType.equals("CONFLUENT")) {
             addConfluentProperties(props);
         }
-        
-        producer = new KafkaProducer<>(props);
-
-        this.disabledTopicsSet = enabledTopics;
 
-        logger.info("Producer Created");
+        return new KafkaProducer<>(props);
     }
 
     private Properties setDefaultProperties() {
@@ -146,7 +152,7 @@ public class MessageProducer<K, V> {
         return props;
     }
 
-    private Properties addConfluentProperties(Properties props) {
+    private static Properties addConfluentProperties(Properties props) {
         props.put("ssl.endpoint.identification.algorithm", "https");
         props.put("security.protocol", "SASL_SSL");
         props.put("sasl.mechanism", "PLAIN");
@@ -175,22 +181,35 @@ public class MessageProducer<K, V> {
             else
                 data = new ProducerRecord<>(topic, key, value);
 
-            producer.send(
-                    data,
-                    new Callback() {
-                        @Override
-                        public void onCompletion(RecordMetadata returnMetadata, Exception e) {
-                            if (null != e) {
-                                logger.error("Error sending record.", e);
-                            } else {
-                                logger.debug(
-                                        "Completed publish to topic: {}, offset: {}, partition: {}",
-                                        returnMetadata.topic(),
-                                        returnMetadata.offset(),
-                                        returnMetadata.partition());
-                            }
-                        }
-                    });
+            MessageProducerStats stats = MessageProducerStats.forTopic(topic);
+            long start = System.nanoTime();
+            send(data, stats, (returnMetadata, e) -> {
+                if (null != e) {
+                    stats.markError();
+                    logger.error("Error sending record.", e);
+                } else {
+                    stats.markAcked(start);
+                    logger.debug(
+                            "Completed publish to topic: {}, offset: {}, partition: {}",
+                            returnMetadata.topic(),
+                            returnMetadata.offset(),
+                            returnMetadata.partition());
+                }
+            });
+        }
+    }
+
+    /**
+     * Counts the record as sent, and as failed if the producer rejects it before
+     * it is even queued.
+     */
+    private void send(ProducerRecord<K, V> data, MessageProducerStats stats, Callback callback) {
+        stats.markSent();
+        try {
+            producer.send(data, callback);
+        } catch (RuntimeException e) {
+            stats.markError();
+            throw e;
         }
     }
 
@@ -209,17 +228,16 @@ public class MessageProducer<K, V> {
     }
 
     public void send(ProducerRecord<K, V> producerRecord) {
-        producer.send(
-                producerRecord,
-                new Callback() {
-                    @Override
-                    public void onCompletion(RecordMetadata returnMetadata, Exception e) {
-                        if (null != e) {
-                            logger.error("Error sending record.", e);
-                        } else {
-                            logger.debug("Record metadata: {}", returnMetadata);
-                        }
-                    }
-                });
+        MessageProducerStats stats = MessageProducerStats.forTopic(producerRecord.topic());
+        long start = System.nanoTime();
+        send(producerRecord, stats, (returnMetadata, e) -> {
+            if (null != e) {
+                stats.markError();
+                logger.error("Error sending record.", e);
+            } else {
+                stats.markAcked(start);
+                logger.debug("Record metadata: {}", returnMetadata);
+            }
+        });
     }
 }
@@ -0,0 +1,170 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+import us.dot.its.jpo.ode.context.AppContext;
+
+/**
+ * Per-topic publish counters shared by every {@link MessageProducer}, registered
+ * in the shared ODE metric registry under
+ * <code>kafka.producer.&lt;topic&gt;.*</code> and over JMX. The ack latency is
+ * the time from the send to the broker acknowledgement, sampled in a reservoir
+ * of fixed size biased towards the last five minutes, so its memory does not
+ * grow with the publish rate.
+ */
+public class MessageProducerStats implements MessageProducerStatsMBean {
+
+   private static final Logger logger = LoggerFactory.getLogger(MessageProducerStats.class);
+
+   // the latency attributes of one JMX scrape are read from the same snapshot
+   private static final long SNAPSHOT_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+   private static final double NANOS_PER_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+   private static final Map<String, MessageProducerStats> statsByTopic = new ConcurrentHashMap<>();
+
+   private final String topic;
+   private final Meter sent;
+   private final Meter errors;
+   private final Timer ackLatency;
+   private volatile Snapshot latencySnapshot;
+   private volatile long latencySnapshotNanos;
+
+   public static MessageProducerStats forTopic(String topic) {
+      return statsByTopic.computeIfAbsent(topic, MessageProducerStats::new);
+   }
+
+   public static Map<String, MessageProducerStats> getAll() {
+      return Collections.unmodifiableMap(statsByTopic);
+   }
+
+   private MessageProducerStats(String topic) {
+      this.topic = topic;
+      MetricRegistry registry = SharedMetricRegistries.getOrCreate(AppContext.METRICS_REGISTRY_NAME);
+      String prefix = MetricRegistry.name("kafka", "producer", topic);
+      this.sent = registry.meter(MetricRegistry.name(prefix, "sent"));
+      this.errors = registry.meter(MetricRegistry.name(prefix, "errors"));
+      this.ackLatency = registry.timer(MetricRegistry.name(prefix, "ackLatency"),
+            () -> new Timer(new ExponentiallyDecayingReservoir()));
+      registerMBean();
+   }
+
+   private void registerMBean() {
+      MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+      try {
+         ObjectName name = new ObjectName("us.dot.its.jpo.ode:type=MessageProducer,topic=" + ObjectName.quote(topic));
+         if (!mbs.isRegistered(name))
+            mbs.registerMBean(this, name);
+      } catch (JMException e) {
+         logger.warn("Producer metrics of topic {} not registered over JMX", topic, e);
+      }
+   }
+
+   public void markSent() {
+      sent.mark();
+   }
+
+   public void markError() {
+      errors.mark();
+   }
+
+   /**
+    * @param startNanos {@link System#nanoTime()} of the send
+    */
+   public void markAcked(long startNanos) {
+      ackLatency.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+   }
+
+   @Override
+   public String getTopic() {
+      return topic;
+   }
+
+   @Override
+   public long getSent() {
+      return sent.getCount();
+   }
+
+   @Override
+   public long getAcked() {
+      return ackLatency.getCount();
+   }
+
+   @Override
+   public long getErrors() {
+      return errors.getCount();
+   }
+
+   @Override
+   public double getSendRate() {
+      return sent.getOneMinuteRate();
+   }
+
+   @Override
+   public double getErrorRate() {
+      return errors.getOneMinuteRate();
+   }
+
+   /**
+    * @return the ack latency snapshot taken within the last second, or a new
+    *         one
+    */
+   private Snapshot latencySnapshot() {
+      long now = System.nanoTime();
+      Snapshot snapshot = latencySnapshot;
+      if (snapshot == null || now - latencySnapshotNanos > SNAPSHOT_MAX_AGE_NANOS) {
+         snapshot = ackLatency.getSnapshot();
+         latencySnapshot = snapshot;
+         latencySnapshotNanos = now;
+      }
+      return snapshot;
+   }
+
+   @Override
+   public double getAckLatencyMean() {
+      return latencySnapshot().getMean() / NANOS_PER_MS;
+   }
+
+   @Override
+   public double getAckLatencyP50() {
+      return latencySnapshot().getMedian() / NANOS_PER_MS;
+   }
+
+   @Override
+   public double getAckLatencyP99() {
+      return latencySnapshot().get99thPercentile() / NANOS_PER_MS;
+   }
+
+   @Override
+   public double getAckLatencyP999() {
+      return latencySnapshot().get999thPercentile() / NANOS_PER_MS;
+   }
+
+   @Override
+   public double getAckLatencyMax() {
+      return latencySnapshot().getMax() / NANOS_PER_MS;
+   }
+
+   @Override
+   public String toString() {
+      return String.format("%s: sent=%d acked=%d errors=%d ackLatency p50=%.1fms p99=%.1fms", topic, getSent(),
+            getAcked(), getErrors(), getAckLatencyP50(), getAckLatencyP99());
+   }
+}
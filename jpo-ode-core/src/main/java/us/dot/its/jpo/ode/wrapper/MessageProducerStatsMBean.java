@@ -0,0 +1,30 @@
+package us.dot.its.jpo.ode.wrapper;
+
+/**
+ * Publish counters and acknowledgement latencies of a topic, in milliseconds,
+ * exposed over JMX as <code>us.dot.its.jpo.ode:type=MessageProducer,topic=*</code>.
+ */
+public interface MessageProducerStatsMBean {
+
+   String getTopic();
+
+   long getSent();
+
+   long getAcked();
+
+   long getErrors();
+
+   double getSendRate();
+
+   double getErrorRate();
+
+   double getAckLatencyMean();
+
+   double getAckLatencyP50();
+
+   double getAckLatencyP99();
+
+   double getAckLatencyP999();
+
+   double getAckLatencyMax();
+}
@@ -0,0 +1,187 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+
+import us.dot.its.jpo.ode.util.ExecutorFactory;
+
+/**
+ * Processes the records of each poll on a fixed number of single-threaded
+ * lanes. Records are assigned to lanes by partition or by key so that records
+ * of the same partition, or with the same key, are processed in the order they
+ * were consumed. A batch completes before the consumer polls again, so offsets
+ * are only committed for records that have been processed.
+ */
+public class OrderedWorkerPool {
+
+   public enum Ordering {
+      /** Records of a partition are processed in order */
+      PARTITION,
+      /**
+       * Records with the same key are processed in order, records without a key
+       * in the order of their partition
+       */
+      KEY
+   }
+
+   private final ExecutorService[] lanes;
+   private final Ordering ordering;
+
+   public OrderedWorkerPool(String name, int threads, Ordering ordering) {
+      if (threads < 1)
+         throw new IllegalArgumentException("Worker threads must be at least 1: " + threads);
+
+      this.ordering = ordering;
+      this.lanes = new ExecutorService[threads];
+      ThreadFactory threadFactory = ExecutorFactory.threadFactory(name + "-worker");
+      for (int i = 0; i < threads; i++)
+         lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+   }
+
+   /**
+    * Records handed to the lanes, being processed.
+    */
+   public static final class Batch<K, V> {
+      private final List<List<ConsumerRecord<K, V>>> laneRecords;
+      private final List<Future<Map<TopicPartition, Long>>> results;
+
+      private Batch(List<List<ConsumerRecord<K, V>>> laneRecords, List<Future<Map<TopicPartition, Long>>> results) {
+         this.laneRecords = laneRecords;
+         this.results = results;
+      }
+   }
+
+   /**
+    * Processes the records on the lanes and waits for all of them.
+    *
+    * @return the last offset processed in each partition
+    * @throws MessageProcessingException with the progress of all lanes, once
+    *            they are done
+    */
+   public <K, V> Map<TopicPartition, Long> process(MessageProcessor<K, V> processor,
+         ConsumerRecords<K, V> consumerRecords) throws MessageProcessingException {
+      return await(List.of(submit(processor, consumerRecords)));
+   }
+
+   /**
+    * Hands the records to the lanes without waiting for them.
+    */
+   public <K, V> Batch<K, V> submit(MessageProcessor<K, V> processor, Iterable<ConsumerRecord<K, V>> consumerRecords) {
+      List<List<ConsumerRecord<K, V>>> batches = new ArrayList<>(lanes.length);
+      for (int i = 0; i < lanes.length; i++)
+         batches.add(new ArrayList<>());
+      for (ConsumerRecord<K, V> consumerRecord : consumerRecords)
+         batches.get(laneOf(consumerRecord)).add(consumerRecord);
+
+      List<Future<Map<TopicPartition, Long>>> results = new ArrayList<>(lanes.length);
+      for (int i = 0; i < lanes.length; i++) {
+         List<ConsumerRecord<K, V>> batch = batches.get(i);
+         results.add(batch.isEmpty() ? null : lanes[i].submit(() -> processor.processInOrder(batch)));
+      }
+      return new Batch<>(batches, results);
+   }
+
+   /**
+    * Processes the records on the calling thread, as a batch of one lane to wait
+    * for with the others.
+    */
+   static <K, V> Batch<K, V> processOnCallingThread(MessageProcessor<K, V> processor,
+         List<ConsumerRecord<K, V>> consumerRecords) {
+      FutureTask<Map<TopicPartition, Long>> result = new FutureTask<>(
+            () -> processor.processInOrder(consumerRecords));
+      result.run();
+      return new Batch<>(List.of(consumerRecords), List.of(result));
+   }
+
+   /**
+    * Waits for the lanes of all the batches.
+    *
+    * @return the last offset processed in each partition
+    * @throws MessageProcessingException with the progress of all lanes, once
+    *            they are done
+    */
+   public static Map<TopicPartition, Long> await(List<? extends Batch<?, ?>> batches)
+         throws MessageProcessingException {
+      Map<TopicPartition, Long> processedOffsets = new HashMap<>();
+      Map<TopicPartition, Long> failedOffsets = new HashMap<>();
+      Throwable failure = null;
+      for (Batch<?, ?> batch : batches) {
+         Throwable batchFailure = await(batch, processedOffsets, failedOffsets);
+         if (failure == null)
+            failure = batchFailure;
+      }
+      if (failure != null)
+         throw new MessageProcessingException("Error processing message", failure, processedOffsets, failedOffsets);
+      return processedOffsets;
+   }
+
+   /**
+    * @return the first failure of the lanes of the batch, or null
+    */
+   private static Throwable await(Batch<?, ?> batch, Map<TopicPartition, Long> processedOffsets,
+         Map<TopicPartition, Long> failedOffsets) throws MessageProcessingException {
+      Throwable failure = null;
+      for (int i = 0; i < batch.results.size(); i++) {
+         if (batch.results.get(i) == null)
+            continue;
+         try {
+            batch.results.get(i).get()
+                  .forEach((topicPartition, offset) -> processedOffsets.merge(topicPartition, offset, Math::max));
+         } catch (ExecutionException e) {
+            if (e.getCause() instanceof MessageProcessingException) {
+               MessageProcessingException laneFailure = (MessageProcessingException) e.getCause();
+               laneFailure.getProcessedOffsets()
+                     .forEach((topicPartition, offset) -> processedOffsets.merge(topicPartition, offset, Math::max));
+               laneFailure.getFailedOffsets()
+                     .forEach((topicPartition, offset) -> failedOffsets.merge(topicPartition, offset, Math::min));
+               if (failure == null)
+                  failure = laneFailure.getCause();
+            } else {
+               // no progress is known for the lane, so all of its records failed
+               for (ConsumerRecord<?, ?> consumerRecord : batch.laneRecords.get(i))
+                  failedOffsets.merge(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+                        consumerRecord.offset(), Math::min);
+               if (failure == null)
+                  failure = e.getCause();
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessageProcessingException("Interrupted processing messages", e, processedOffsets,
+                  failedOffsets);
+         }
+      }
+      return failure;
+   }
+
+   int laneOf(ConsumerRecord<?, ?> consumerRecord) {
+      if (ordering == Ordering.KEY && consumerRecord.key() != null)
+         return Math.floorMod(consumerRecord.key().hashCode(), lanes.length);
+      return Math.floorMod(Objects.hash(consumerRecord.topic(), consumerRecord.partition()), lanes.length);
+   }
+
+   public int getThreads() {
+      return lanes.length;
+   }
+
+   public Ordering getOrdering() {
+      return ordering;
+   }
+
+   public void shutdown() {
+      for (ExecutorService lane : lanes)
+         lane.shutdown();
+   }
+}
@@ -0,0 +1,95 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Processes the records of each poll on a worker pool of their type, so that
+ * records of a type that takes long to process do not hold up the records of
+ * the other types behind them. Each pool keeps the order of the records with
+ * the same key. The pools are handed their records in the order they were
+ * added, and records of a type without a pool are processed on the consumer
+ * thread once all pools have theirs.
+ * <p>
+ * As with the {@link OrderedWorkerPool}, a batch completes before the consumer
+ * polls again, so offsets are only committed for records that have been
+ * processed.
+ *
+ * @param <T> type of the records, e.g. the message type
+ */
+public class TypedWorkerPools<K, V, T> {
+
+   private final String name;
+   private final Function<ConsumerRecord<K, V>, T> typeOf;
+   private final Map<T, OrderedWorkerPool> pools = new LinkedHashMap<>();
+
+   /**
+    * @param typeOf type of a record, or null for the records to process on the
+    *               consumer thread
+    */
+   public TypedWorkerPools(String name, Function<ConsumerRecord<K, V>, T> typeOf) {
+      this.name = name;
+      this.typeOf = typeOf;
+   }
+
+   /**
+    * Adds the pool of a type, handed its records after the pools added before.
+    */
+   public TypedWorkerPools<K, V, T> add(T type, int threads) {
+      OrderedWorkerPool previous = pools.put(type,
+            new OrderedWorkerPool(name + "-" + type, threads, OrderedWorkerPool.Ordering.KEY));
+      if (previous != null)
+         previous.shutdown();
+      return this;
+   }
+
+   /**
+    * Processes the records on the pools of their types and waits for all of
+    * them.
+    *
+    * @return the last offset processed in each partition
+    * @throws MessageProcessingException with the progress of all pools, once
+    *            they are done
+    */
+   public Map<TopicPartition, Long> process(MessageProcessor<K, V> processor, ConsumerRecords<K, V> consumerRecords)
+         throws MessageProcessingException {
+      Map<T, List<ConsumerRecord<K, V>>> byType = new LinkedHashMap<>();
+      for (T type : pools.keySet())
+         byType.put(type, new ArrayList<>());
+      List<ConsumerRecord<K, V>> untyped = new ArrayList<>();
+      for (ConsumerRecord<K, V> consumerRecord : consumerRecords) {
+         T type = typeOf.apply(consumerRecord);
+         List<ConsumerRecord<K, V>> records = type != null ? byType.get(type) : null;
+         (records != null ? records : untyped).add(consumerRecord);
+      }
+
+      List<OrderedWorkerPool.Batch<K, V>> batches = new ArrayList<>(pools.size() + 1);
+      byType.forEach((type, records) -> {
+         if (!records.isEmpty())
+            batches.add(pools.get(type).submit(processor, records));
+      });
+      if (!untyped.isEmpty())
+         batches.add(OrderedWorkerPool.processOnCallingThread(processor, untyped));
+      return OrderedWorkerPool.await(batches);
+   }
+
+   /**
+    * @return the pool of the type, or null if its records are processed on the
+    *         consumer thread
+    */
+   public OrderedWorkerPool getPool(T type) {
+      return pools.get(type);
+   }
+
+   public void shutdown() {
+      for (OrderedWorkerPool pool : pools.values())
+         pool.shutdown();
+   }
+}
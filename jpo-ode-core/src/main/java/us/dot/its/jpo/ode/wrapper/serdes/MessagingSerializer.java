@@ -23,10 +23,19 @@ import us.dot.its.jpo.ode.util.SerializationUtils;
 
 public class MessagingSerializer<T> implements Serializer<T> {
 
+    /**
+     * Producer property, false to write the versioned format once all readers
+     * of the topics read it. The legacy format is written by default.
+     */
+    public static final String LEGACY_FORMAT_CONFIG = "ode.serialization.legacy.format";
+
     SerializationUtils<T> serializer = new SerializationUtils<T>();
 
     @Override
     public void configure(Map<String, ?> configs, boolean isKey) {
+        Object legacyFormat = configs.get(LEGACY_FORMAT_CONFIG);
+        if (legacyFormat != null)
+            serializer = new SerializationUtils<T>(Boolean.parseBoolean(legacyFormat.toString()));
     }
 
     @Override
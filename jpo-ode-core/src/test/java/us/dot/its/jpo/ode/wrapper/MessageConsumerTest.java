@@ -0,0 +1,238 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+public class MessageConsumerTest {
+
+   private static final String TOPIC = "topic.Asn1DecoderOutput";
+   private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+   private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+   @Mocked
+   KafkaConsumer<String, String> mockKafkaConsumer;
+
+   /**
+    * Fails the record at the given offset of partition 0 and closes the consumer
+    * after the given number of batches.
+    */
+   private static class FailingProcessor extends AbstractSubscriberProcessor<String, String> {
+      final List<Long> partition0Offsets = new ArrayList<>();
+      final List<Integer> batchSizes = new ArrayList<>();
+      final long failedOffset;
+      final int batches;
+      int polls = 0;
+      MessageConsumer<String, String> consumer;
+
+      FailingProcessor(long failedOffset, int batches) {
+         this.failedOffset = failedOffset;
+         this.batches = batches;
+      }
+
+      @Override
+      public Map<TopicPartition, Long> process(ConsumerRecords<String, String> consumerRecords)
+            throws MessageProcessingException {
+         batchSizes.add(consumerRecords.count());
+         try {
+            return super.process(consumerRecords);
+         } finally {
+            if (++polls == batches)
+               consumer.close();
+         }
+      }
+
+      @Override
+      protected Object process(String consumedData) {
+         if (getRecord().partition() == 0) {
+            partition0Offsets.add(getRecord().offset());
+            if (getRecord().offset() == failedOffset)
+               throw new IllegalStateException("bad record");
+         }
+         return consumedData;
+      }
+   }
+
+   private static ConsumerRecords<String, String> batch() {
+      Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new HashMap<>();
+      for (TopicPartition topicPartition : new TopicPartition[] { PARTITION_0, PARTITION_1 }) {
+         List<ConsumerRecord<String, String>> partitionRecords = new ArrayList<>();
+         for (long offset = 0; offset < 5; offset++)
+            partitionRecords.add(new ConsumerRecord<>(TOPIC, topicPartition.partition(), offset, null, "value"));
+         records.put(topicPartition, partitionRecords);
+      }
+      return new ConsumerRecords<>(records);
+   }
+
+   private static MessageConsumer<String, String> consumer(FailingProcessor processor,
+         MessageConsumer.CommitMode commitMode) {
+      return consumer(processor, commitMode, new Properties());
+   }
+
+   private static MessageConsumer<String, String> consumer(FailingProcessor processor,
+         MessageConsumer.CommitMode commitMode, Properties props) {
+      props.put("value.deserializer", MessageConsumer.SERIALIZATION_STRING_DESERIALIZER);
+      MessageConsumer<String, String> consumer = new MessageConsumer<>("localhost:9092", "MessageConsumerTest",
+            processor, props, commitMode);
+      assertEquals(commitMode == MessageConsumer.CommitMode.AUTO ? "true" : "false", props.get("enable.auto.commit"));
+      assertEquals(MessageConsumer.SERIALIZATION_STRING_DESERIALIZER, props.get("key.deserializer"));
+      processor.consumer = consumer;
+      return consumer;
+   }
+
+   @Test
+   public void testSyncCommitsProcessedOffsets() {
+      FailingProcessor processor = new FailingProcessor(-1, 1);
+      MessageConsumer<String, String> consumer = consumer(processor, MessageConsumer.CommitMode.SYNC);
+      new Expectations() {
+         {
+            mockKafkaConsumer.poll((Duration) any);
+            result = batch();
+         }
+      };
+
+      consumer.subscribe(TOPIC);
+
+      new Verifications() {
+         {
+            Map<TopicPartition, OffsetAndMetadata> offsets;
+            mockKafkaConsumer.commitSync(offsets = withCapture());
+            times = 1;
+            assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(5), PARTITION_1, new OffsetAndMetadata(5)),
+                  offsets);
+            mockKafkaConsumer.seek((TopicPartition) any, anyLong);
+            times = 0;
+         }
+      };
+   }
+
+   @Test
+   public void testFailedRecordDeliveredAgainThenSkipped() {
+      FailingProcessor processor = new FailingProcessor(2, 3);
+      MessageConsumer<String, String> consumer = consumer(processor, MessageConsumer.CommitMode.ASYNC);
+      new Expectations() {
+         {
+            mockKafkaConsumer.poll((Duration) any);
+            result = batch();
+         }
+      };
+
+      consumer.subscribe(TOPIC);
+
+      // the records after the failed one are left for the next poll
+      assertEquals(List.of(0L, 1L, 2L, 0L, 1L, 2L, 0L, 1L, 2L), processor.partition0Offsets);
+      new Verifications() {
+         {
+            List<Map<TopicPartition, OffsetAndMetadata>> commits = new ArrayList<>();
+            mockKafkaConsumer.commitAsync(withCapture(commits), withNotNull());
+            times = 3;
+            assertEquals(new OffsetAndMetadata(2), commits.get(0).get(PARTITION_0));
+            assertEquals(new OffsetAndMetadata(5), commits.get(0).get(PARTITION_1));
+            assertEquals(new OffsetAndMetadata(3), commits.get(2).get(PARTITION_0));
+
+            mockKafkaConsumer.seek(PARTITION_0, 2);
+            times = 2;
+            mockKafkaConsumer.seek(PARTITION_0, 3);
+            times = 1;
+            mockKafkaConsumer.commitSync((Map<TopicPartition, OffsetAndMetadata>) any);
+            times = 0;
+         }
+      };
+   }
+
+   @Test
+   public void testAutoCommitLeavesOffsetsToKafka() {
+      FailingProcessor processor = new FailingProcessor(2, 1);
+      MessageConsumer<String, String> consumer = consumer(processor, MessageConsumer.CommitMode.AUTO);
+      new Expectations() {
+         {
+            mockKafkaConsumer.poll((Duration) any);
+            result = batch();
+         }
+      };
+
+      consumer.subscribe(TOPIC);
+
+      new Verifications() {
+         {
+            mockKafkaConsumer.commitSync((Map<TopicPartition, OffsetAndMetadata>) any);
+            times = 0;
+            mockKafkaConsumer.seek((TopicPartition) any, anyLong);
+            times = 0;
+         }
+      };
+   }
+
+   @Test
+   public void testAdaptiveBatchesWidenUnderLag() {
+      FailingProcessor processor = new FailingProcessor(-1, 4);
+      Properties props = new Properties();
+      props.put("max.poll.records", "10");
+      MessageConsumer<String, String> consumer = consumer(processor, MessageConsumer.CommitMode.SYNC, props);
+      consumer.setName("AdaptiveMessageConsumerTest");
+      consumer.setAdaptive(true);
+      consumer.setMaxBatchRecords(40);
+      new Expectations() {
+         {
+            mockKafkaConsumer.poll((Duration) any);
+            result = batch();
+            mockKafkaConsumer.assignment();
+            result = Set.of(PARTITION_0, PARTITION_1);
+            mockKafkaConsumer.currentLag((TopicPartition) any);
+            result = OptionalLong.of(100);
+         }
+      };
+
+      consumer.subscribe(TOPIC);
+
+      // each poll returns 10 records, accumulated up to the doubling target
+      assertEquals(List.of(10, 20, 40, 40), processor.batchSizes);
+      assertEquals(40, consumer.getBatchTarget());
+      assertEquals(200, consumer.getStats().getLag());
+      assertEquals(110, consumer.getStats().getConsumed());
+      assertEquals(10.0, consumer.getStats().getMeanPollRecords(), 0.001);
+   }
+
+   @Test
+   public void testAdaptiveBatchesNarrowWhenCaughtUp() {
+      FailingProcessor processor = new FailingProcessor(-1, 2);
+      Properties props = new Properties();
+      props.put("max.poll.records", "10");
+      MessageConsumer<String, String> consumer = consumer(processor, MessageConsumer.CommitMode.AUTO, props);
+      consumer.setAdaptive(true);
+      new Expectations() {
+         {
+            mockKafkaConsumer.poll((Duration) any);
+            result = batch();
+            mockKafkaConsumer.assignment();
+            result = Set.of(PARTITION_0, PARTITION_1);
+            mockKafkaConsumer.currentLag((TopicPartition) any);
+            result = OptionalLong.of(0);
+         }
+      };
+
+      consumer.subscribe(TOPIC);
+
+      assertEquals(List.of(10, 10), processor.batchSizes);
+      assertEquals(10, consumer.getBatchTarget());
+      assertEquals(0, consumer.getStats().getLag());
+   }
+}
@@ -0,0 +1,210 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+public class MessageProcessorTest {
+
+   private static final String TOPIC = "topic.OdeRawEncodedBSMJson";
+
+   /**
+    * Records the processing order of each key and partition and the threads the
+    * records were processed on.
+    */
+   private static class RecordingProcessor extends AbstractSubscriberProcessor<String, String> {
+      final Map<Object, List<Long>> offsetsByKey = Collections.synchronizedMap(new HashMap<>());
+      final Map<Object, List<Long>> offsetsByPartition = Collections.synchronizedMap(new HashMap<>());
+      final Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+
+      @Override
+      protected Object process(String consumedData) {
+         ConsumerRecord<String, String> record = getRecord();
+         assertEquals(record.topic() + "-" + record.partition() + "-" + record.offset(), consumedData);
+         offsetsByKey.computeIfAbsent(record.key(), k -> Collections.synchronizedList(new ArrayList<>()))
+               .add(record.offset());
+         offsetsByPartition.computeIfAbsent(record.partition(), k -> Collections.synchronizedList(new ArrayList<>()))
+               .add(record.offset());
+         threads.add(Thread.currentThread().getName());
+         return consumedData;
+      }
+   }
+
+   private static ConsumerRecords<String, String> records(int partitions, int perPartition, int keys) {
+      Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new HashMap<>();
+      for (int partition = 0; partition < partitions; partition++) {
+         List<ConsumerRecord<String, String>> partitionRecords = new ArrayList<>();
+         for (long offset = 0; offset < perPartition; offset++) {
+            String key = keys > 0 ? "rsu-" + offset % keys : null;
+            partitionRecords.add(new ConsumerRecord<>(TOPIC, partition, offset, key,
+                  TOPIC + "-" + partition + "-" + offset));
+         }
+         records.put(new TopicPartition(TOPIC, partition), partitionRecords);
+      }
+      return new ConsumerRecords<>(records);
+   }
+
+   private static void assertAscending(List<Long> offsets) {
+      for (int i = 1; i < offsets.size(); i++)
+         assertTrue("out of order: " + offsets, offsets.get(i - 1) < offsets.get(i));
+   }
+
+   @Test
+   public void testSingleThreadProcessesOnConsumerThread() throws Exception {
+      RecordingProcessor processor = new RecordingProcessor();
+
+      Map<TopicPartition, Long> offsets = processor.process(records(2, 10, 0));
+
+      assertEquals(Set.of(Thread.currentThread().getName()), processor.threads);
+      assertEquals(Long.valueOf(9), offsets.get(new TopicPartition(TOPIC, 1)));
+      assertEquals(20, processor.messagesConsumed.get());
+      assertNull(processor.getRecord());
+   }
+
+   @Test
+   public void testPartitionOrderingKeepsPartitionsInOrder() throws Exception {
+      RecordingProcessor processor = new RecordingProcessor();
+      processor.setConcurrency(4, OrderedWorkerPool.Ordering.PARTITION);
+
+      Map<TopicPartition, Long> offsets = processor.process(records(8, 50, 5));
+
+      assertEquals(400, processor.messagesConsumed.get());
+      assertEquals(8, offsets.size());
+      for (int partition = 0; partition < 8; partition++) {
+         assertEquals(Long.valueOf(49), offsets.get(new TopicPartition(TOPIC, partition)));
+         assertAscending(processor.offsetsByPartition.get(partition));
+      }
+      assertTrue(processor.threads.size() > 1);
+      assertTrue(processor.threads.stream().allMatch(name -> name.startsWith("RecordingProcessor-worker-")));
+      processor.getWorkerPool().shutdown();
+   }
+
+   @Test
+   public void testKeyOrderingKeepsKeysInOrder() throws Exception {
+      RecordingProcessor processor = new RecordingProcessor();
+      processor.setConcurrency(3, OrderedWorkerPool.Ordering.KEY);
+
+      Map<TopicPartition, Long> offsets = processor.process(records(1, 90, 6));
+
+      assertEquals(Long.valueOf(89), offsets.get(new TopicPartition(TOPIC, 0)));
+      assertEquals(6, processor.offsetsByKey.size());
+      processor.offsetsByKey.values().forEach(MessageProcessorTest::assertAscending);
+      assertTrue(processor.threads.size() > 1);
+      processor.getWorkerPool().shutdown();
+   }
+
+   @Test
+   public void testRecordsWithoutKeyKeepPartitionOrder() throws Exception {
+      RecordingProcessor processor = new RecordingProcessor();
+      processor.setConcurrency(3, OrderedWorkerPool.Ordering.KEY);
+
+      processor.process(records(8, 30, 0));
+
+      assertEquals(240, processor.messagesConsumed.get());
+      for (int partition = 0; partition < 8; partition++)
+         assertAscending(processor.offsetsByPartition.get(partition));
+      assertTrue(processor.threads.size() > 1);
+      processor.getWorkerPool().shutdown();
+   }
+
+   @Test
+   public void testErrorOnWorkerFailsBatch() {
+      RecordingProcessor processor = new RecordingProcessor() {
+         @Override
+         protected Object process(String consumedData) {
+            if (getRecord().partition() == 1 && getRecord().offset() == 5)
+               throw new IllegalStateException("bad record");
+            return super.process(consumedData);
+         }
+      };
+      processor.setConcurrency(2, OrderedWorkerPool.Ordering.PARTITION);
+
+      try {
+         processor.process(records(4, 10, 0));
+         fail("Expected Exception");
+      } catch (MessageProcessingException e) {
+         assertEquals("Error processing message", e.getMessage());
+         assertTrue(e.getCause() instanceof IllegalStateException);
+         assertEquals(Map.of(new TopicPartition(TOPIC, 1), 5L), e.getFailedOffsets());
+         assertEquals(Long.valueOf(4), e.getProcessedOffsets().get(new TopicPartition(TOPIC, 1)));
+         assertEquals(Long.valueOf(9), e.getProcessedOffsets().get(new TopicPartition(TOPIC, 3)));
+      }
+      processor.getWorkerPool().shutdown();
+   }
+
+   /**
+    * Type of the records keyed rsu-0 and rsu-3 is null, of rsu-1 and rsu-4 "A"
+    * and of rsu-2 and rsu-5 "B", with six keys.
+    */
+   private static TypedWorkerPools<String, String, String> typedPools() {
+      return new TypedWorkerPools<String, String, String>("Typed", record -> {
+         int key = Integer.parseInt(record.key().substring("rsu-".length()));
+         return key % 3 == 0 ? null : key % 3 == 1 ? "A" : "B";
+      }).add("A", 2).add("B", 2);
+   }
+
+   @Test
+   public void testTypedWorkerPoolsProcessTypesOnTheirPools() throws Exception {
+      Map<String, Set<String>> threadsByType = Collections.synchronizedMap(new HashMap<>());
+      RecordingProcessor processor = new RecordingProcessor() {
+         @Override
+         protected Object process(String consumedData) {
+            String key = getRecord().key();
+            threadsByType.computeIfAbsent(key, k -> Collections.synchronizedSet(new HashSet<>()))
+                  .add(Thread.currentThread().getName());
+            return super.process(consumedData);
+         }
+      };
+      processor.setTypedWorkerPools(typedPools());
+
+      Map<TopicPartition, Long> offsets = processor.process(records(1, 60, 6));
+
+      assertEquals(60, processor.messagesConsumed.get());
+      assertEquals(Long.valueOf(59), offsets.get(new TopicPartition(TOPIC, 0)));
+      processor.offsetsByKey.values().forEach(MessageProcessorTest::assertAscending);
+      String consumerThread = Thread.currentThread().getName();
+      for (String key : List.of("rsu-0", "rsu-3"))
+         assertEquals(Set.of(consumerThread), threadsByType.get(key));
+      for (String key : List.of("rsu-1", "rsu-4"))
+         assertTrue(threadsByType.get(key).stream().allMatch(name -> name.startsWith("Typed-A-worker-")));
+      for (String key : List.of("rsu-2", "rsu-5"))
+         assertTrue(threadsByType.get(key).stream().allMatch(name -> name.startsWith("Typed-B-worker-")));
+      processor.getTypedWorkerPools().shutdown();
+   }
+
+   @Test
+   public void testErrorOnTypedWorkerFailsBatch() {
+      RecordingProcessor processor = new RecordingProcessor() {
+         @Override
+         protected Object process(String consumedData) {
+            if (getRecord().offset() == 8)
+               throw new IllegalStateException("bad record");
+            return super.process(consumedData);
+         }
+      };
+      processor.setTypedWorkerPools(typedPools());
+
+      try {
+         processor.process(records(1, 30, 6));
+         fail("Expected Exception");
+      } catch (MessageProcessingException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException);
+         assertEquals(Map.of(new TopicPartition(TOPIC, 0), 8L), e.getFailedOffsets());
+      }
+      processor.getTypedWorkerPools().shutdown();
+   }
+}
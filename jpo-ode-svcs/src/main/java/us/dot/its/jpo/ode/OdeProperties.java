@@ -21,8 +21,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -41,9 +44,15 @@ import org.thymeleaf.util.StringUtils;
 
 import us.dot.its.jpo.ode.context.AppContext;
 import us.dot.its.jpo.ode.eventlog.EventLogger;
+import us.dot.its.jpo.ode.kafka.KafkaConsumerSettings;
+import us.dot.its.jpo.ode.kafka.KafkaProducerSettings;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.model.OdeMsgMetadata;
 import us.dot.its.jpo.ode.plugin.OdePlugin;
+import us.dot.its.jpo.ode.udp.UdpPublishQueue.OverflowPolicy;
+import us.dot.its.jpo.ode.udp.controller.UdpReceiverRegistration;
 import us.dot.its.jpo.ode.util.CommonUtils;
+import us.dot.its.jpo.ode.util.ExecutorFactory;
 
 @ConfigurationProperties("ode")
 @PropertySource("classpath:application.properties")
@@ -63,9 +72,15 @@ public class OdeProperties implements EnvironmentAware {
    private String kafkaBrokers = null;
    private static final String DEFAULT_KAFKA_PORT = "9092";
    private String kafkaProducerType = AppContext.DEFAULT_KAFKA_PRODUCER_TYPE;
+   private Map<ProducerPipeline, KafkaProducerSettings> kafkaProducers = new EnumMap<>(ProducerPipeline.class); // producer tuning per pipeline, e.g. ode.kafkaProducers.decoded.lingerMs
+   private Map<String, KafkaConsumerSettings> kafkaConsumers = new HashMap<>(); // consumer threads and commits per processor, e.g. ode.kafkaConsumers.Asn1DecodedDataRouter.threads
+   private boolean kafkaPojoLegacyFormat = true; // POJO topic records in the headerless format of earlier releases, false once all readers are upgraded
+   private boolean kafkaConsumerGroupPerPipeline = false; // each consumer in a group of its own so rebalances do not pause the other pipelines
+   private Map<String, Integer> decodedDataWorkers = new HashMap<>(); // decoded message worker threads per message type, e.g. ode.decodedDataWorkers.BSM, none to route on the consumer threads
    private Boolean verboseJson = false;
+   private boolean virtualThreads = false; // run the consumers, exporters, importers and receivers on virtual threads
    private int importProcessorBufferSize = OdePlugin.INPUT_STREAM_BUFFER_SIZE;
-   private String hostId;
+   private String hostId; // defaults to the host name, set to a stable id for static consumer group membership
    private List<Path> uploadLocations = new ArrayList<>();
 
    /*
@@ -106,6 +121,23 @@ public class OdeProperties implements EnvironmentAware {
     */
    private int trustRetries = 2; // if trust handshake fails, how many times to retry
    private int messagesUntilTrustReestablished = 10; // renew trust session every x messages
+   private int udpReceiverThreads = 1; // reader threads per UDP receiver port
+   private int udpSocketReceiveBufferSize = 0; // kernel SO_RCVBUF in bytes, 0 keeps the OS default
+   private boolean udpPerTypeReceiversEnabled = true; // one port per message type (bsmReceiverPort, timReceiverPort, ...)
+   private int[] udpUnifiedReceiverPorts = {}; // ports accepting any supported message type, empty disables
+   private int udpUnifiedReceiverBufferSize = 2048;
+   private int udpUnifiedReceiverThreads = 0; // reader threads per unified port, 0 uses udpReceiverThreads
+   private List<UdpReceiverRegistration> udpReceivers = new ArrayList<>(); // receivers to start, empty starts the per-type and unified receivers above
+   private int udpPublishQueueCapacity = 8192; // messages queued between readers and publishers, 0 publishes on the reader thread
+   private OverflowPolicy udpPublishQueueOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+   private int udpPublishWorkerThreads = 2; // publisher threads per UDP receiver
+   private int udpRateLimitPerSource = 0; // messages per second accepted from one origin IP, 0 disables
+   private int udpRateLimitBurst = 0; // messages an idle origin IP may send at once, 0 allows one second worth
+   private int udpRateLimitMaxSources = 10000; // origin IPs rate limited on their own per receiver, the others share one limit
+   private long udpDuplicateWindowMillis = 0; // identical payloads from one origin IP within the window are dropped, 0 disables
+   private int udpDuplicateCacheSize = 16384; // payload digests remembered per receiver
+   private boolean udpDirectDecodeEnabled = false; // receivers publish straight to the decoder input topic instead of the raw encoded topics
+   private boolean udpDirectDecodeMirrorRawTopic = false; // in direct decode mode, also publish to the raw encoded topics for auditing
 
    /*
     * Kafka Topics
@@ -214,18 +246,21 @@ public class OdeProperties implements EnvironmentAware {
       logger.info("artifactId: {}", buildProperties.getArtifact());
       logger.info("version: {}", version);
       OdeMsgMetadata.setStaticSchemaVersion(OUTPUT_SCHEMA_VERSION);
+      ExecutorFactory.setVirtualThreads(virtualThreads);
 
       uploadLocations.add(Paths.get(uploadLocationRoot));
 
-      String hostname;
-      try {
-         hostname = InetAddress.getLocalHost().getHostName();
-      } catch (UnknownHostException e) {
-         // Let's just use a random hostname
-         hostname = UUID.randomUUID().toString();
-         logger.error("Unknown host error: {}, using random", e);
+      if (hostId == null) {
+         String hostname;
+         try {
+            hostname = InetAddress.getLocalHost().getHostName();
+         } catch (UnknownHostException e) {
+            // Let's just use a random hostname
+            hostname = UUID.randomUUID().toString();
+            logger.error("Unknown host error: {}, using random", e);
+         }
+         hostId = hostname;
       }
-      hostId = hostname;
       logger.info("Host ID: {}", hostId);
       EventLogger.logger.info("Initializing services on host {}", hostId);
 
@@ -283,6 +318,10 @@ public class OdeProperties implements EnvironmentAware {
       return hostId;
    }
 
+   public void setHostId(String hostId) {
+      this.hostId = hostId;
+   }
+
    public String getPluginsLocations() {
       return pluginsLocations;
    }
@@ -307,6 +346,46 @@ public class OdeProperties implements EnvironmentAware {
       this.kafkaProducerType = kafkaProducerType;
    }
 
+   public Map<ProducerPipeline, KafkaProducerSettings> getKafkaProducers() {
+      return kafkaProducers;
+   }
+
+   public void setKafkaProducers(Map<ProducerPipeline, KafkaProducerSettings> kafkaProducers) {
+      this.kafkaProducers = kafkaProducers;
+   }
+
+   public Map<String, KafkaConsumerSettings> getKafkaConsumers() {
+      return kafkaConsumers;
+   }
+
+   public void setKafkaConsumers(Map<String, KafkaConsumerSettings> kafkaConsumers) {
+      this.kafkaConsumers = kafkaConsumers;
+   }
+
+   public Map<String, Integer> getDecodedDataWorkers() {
+      return decodedDataWorkers;
+   }
+
+   public void setDecodedDataWorkers(Map<String, Integer> decodedDataWorkers) {
+      this.decodedDataWorkers = decodedDataWorkers;
+   }
+
+   public boolean isKafkaPojoLegacyFormat() {
+      return kafkaPojoLegacyFormat;
+   }
+
+   public void setKafkaPojoLegacyFormat(boolean kafkaPojoLegacyFormat) {
+      this.kafkaPojoLegacyFormat = kafkaPojoLegacyFormat;
+   }
+
+   public boolean isKafkaConsumerGroupPerPipeline() {
+      return kafkaConsumerGroupPerPipeline;
+   }
+
+   public void setKafkaConsumerGroupPerPipeline(boolean kafkaConsumerGroupPerPipeline) {
+      this.kafkaConsumerGroupPerPipeline = kafkaConsumerGroupPerPipeline;
+   }
+
    public Environment getEnv() {
       return env;
    }
@@ -380,6 +459,14 @@ public class OdeProperties implements EnvironmentAware {
       this.verboseJson = verboseJson;
    }
 
+   public boolean isVirtualThreads() {
+      return virtualThreads;
+   }
+
+   public void setVirtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+   }
+
    public int getBsmReceiverPort() {
       return bsmReceiverPort;
    }
@@ -492,6 +579,142 @@ public class OdeProperties implements EnvironmentAware {
       this.psmBufferSize = psmBufferSize;
    }
 
+   public int getUdpReceiverThreads() {
+      return udpReceiverThreads;
+   }
+
+   public void setUdpReceiverThreads(int udpReceiverThreads) {
+      this.udpReceiverThreads = udpReceiverThreads;
+   }
+
+   public int getUdpSocketReceiveBufferSize() {
+      return udpSocketReceiveBufferSize;
+   }
+
+   public void setUdpSocketReceiveBufferSize(int udpSocketReceiveBufferSize) {
+      this.udpSocketReceiveBufferSize = udpSocketReceiveBufferSize;
+   }
+
+   public boolean isUdpPerTypeReceiversEnabled() {
+      return udpPerTypeReceiversEnabled;
+   }
+
+   public void setUdpPerTypeReceiversEnabled(boolean udpPerTypeReceiversEnabled) {
+      this.udpPerTypeReceiversEnabled = udpPerTypeReceiversEnabled;
+   }
+
+   public int[] getUdpUnifiedReceiverPorts() {
+      return udpUnifiedReceiverPorts;
+   }
+
+   public void setUdpUnifiedReceiverPorts(int[] udpUnifiedReceiverPorts) {
+      this.udpUnifiedReceiverPorts = udpUnifiedReceiverPorts;
+   }
+
+   public int getUdpUnifiedReceiverBufferSize() {
+      return udpUnifiedReceiverBufferSize;
+   }
+
+   public void setUdpUnifiedReceiverBufferSize(int udpUnifiedReceiverBufferSize) {
+      this.udpUnifiedReceiverBufferSize = udpUnifiedReceiverBufferSize;
+   }
+
+   public int getUdpUnifiedReceiverThreads() {
+      return udpUnifiedReceiverThreads;
+   }
+
+   public void setUdpUnifiedReceiverThreads(int udpUnifiedReceiverThreads) {
+      this.udpUnifiedReceiverThreads = udpUnifiedReceiverThreads;
+   }
+
+   public List<UdpReceiverRegistration> getUdpReceivers() {
+      return udpReceivers;
+   }
+
+   public void setUdpReceivers(List<UdpReceiverRegistration> udpReceivers) {
+      this.udpReceivers = udpReceivers;
+   }
+
+   public int getUdpPublishQueueCapacity() {
+      return udpPublishQueueCapacity;
+   }
+
+   public void setUdpPublishQueueCapacity(int udpPublishQueueCapacity) {
+      this.udpPublishQueueCapacity = udpPublishQueueCapacity;
+   }
+
+   public OverflowPolicy getUdpPublishQueueOverflowPolicy() {
+      return udpPublishQueueOverflowPolicy;
+   }
+
+   public void setUdpPublishQueueOverflowPolicy(OverflowPolicy udpPublishQueueOverflowPolicy) {
+      this.udpPublishQueueOverflowPolicy = udpPublishQueueOverflowPolicy;
+   }
+
+   public int getUdpPublishWorkerThreads() {
+      return udpPublishWorkerThreads;
+   }
+
+   public void setUdpPublishWorkerThreads(int udpPublishWorkerThreads) {
+      this.udpPublishWorkerThreads = udpPublishWorkerThreads;
+   }
+
+   public int getUdpRateLimitPerSource() {
+      return udpRateLimitPerSource;
+   }
+
+   public void setUdpRateLimitPerSource(int udpRateLimitPerSource) {
+      this.udpRateLimitPerSource = udpRateLimitPerSource;
+   }
+
+   public int getUdpRateLimitBurst() {
+      return udpRateLimitBurst;
+   }
+
+   public void setUdpRateLimitBurst(int udpRateLimitBurst) {
+      this.udpRateLimitBurst = udpRateLimitBurst;
+   }
+
+   public int getUdpRateLimitMaxSources() {
+      return udpRateLimitMaxSources;
+   }
+
+   public void setUdpRateLimitMaxSources(int udpRateLimitMaxSources) {
+      this.udpRateLimitMaxSources = udpRateLimitMaxSources;
+   }
+
+   public long getUdpDuplicateWindowMillis() {
+      return udpDuplicateWindowMillis;
+   }
+
+   public void setUdpDuplicateWindowMillis(long udpDuplicateWindowMillis) {
+      this.udpDuplicateWindowMillis = udpDuplicateWindowMillis;
+   }
+
+   public int getUdpDuplicateCacheSize() {
+      return udpDuplicateCacheSize;
+   }
+
+   public void setUdpDuplicateCacheSize(int udpDuplicateCacheSize) {
+      this.udpDuplicateCacheSize = udpDuplicateCacheSize;
+   }
+
+   public boolean isUdpDirectDecodeEnabled() {
+      return udpDirectDecodeEnabled;
+   }
+
+   public void setUdpDirectDecodeEnabled(boolean udpDirectDecodeEnabled) {
+      this.udpDirectDecodeEnabled = udpDirectDecodeEnabled;
+   }
+
+   public boolean isUdpDirectDecodeMirrorRawTopic() {
+      return udpDirectDecodeMirrorRawTopic;
+   }
+
+   public void setUdpDirectDecodeMirrorRawTopic(boolean udpDirectDecodeMirrorRawTopic) {
+      this.udpDirectDecodeMirrorRawTopic = udpDirectDecodeMirrorRawTopic;
+   }
+
    public String getDdsCasUrl() {
       return ddsCasUrl;
    }
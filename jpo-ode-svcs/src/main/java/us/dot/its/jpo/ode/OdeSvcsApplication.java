@@ -34,12 +34,16 @@ import org.snmp4j.security.AuthHMAC384SHA512;
 import org.snmp4j.security.PrivAES128;
 
 import org.snmp4j.security.SecurityProtocols;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.udp.controller.UdpServicesController;
+
 @SpringBootApplication
 @EnableConfigurationProperties(OdeProperties.class)
 public class OdeSvcsApplication {
@@ -47,6 +51,10 @@ public class OdeSvcsApplication {
    static final int DEFAULT_NO_THREADS = 10;
    static final String DEFAULT_SCHEMA = "default";
 
+   // injected so it is destroyed after the cleanup stopping its receivers
+   @Autowired
+   private UdpServicesController udpServicesController;
+
    public static void main(String[] args) throws MalformedObjectNameException, InterruptedException,
          InstanceAlreadyExistsException, MBeanRegistrationException, NotCompliantMBeanException {
       SpringApplication.run(OdeSvcsApplication.class, args);
@@ -73,7 +81,9 @@ public class OdeSvcsApplication {
 
    @PreDestroy
    public void cleanup() {
-      // Unused
+      // stop the receivers first so the messages they queued are published
+      udpServicesController.stop();
+      MessageProducerRegistry.closeAll();
    }
 
 }
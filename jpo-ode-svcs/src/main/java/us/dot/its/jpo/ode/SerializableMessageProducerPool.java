@@ -17,9 +17,20 @@ package us.dot.its.jpo.ode;
 
 import java.util.Properties;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+import us.dot.its.jpo.ode.context.AppContext;
 import us.dot.its.jpo.ode.util.SerializableObjectPool;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
 
+/**
+ * Pool of message producers shared by the threads publishing to Kafka. Its
+ * hits, misses, creations, expirations and size are reported under
+ * <code>kafka.producerPool.&lt;producer type&gt;.*</code> in the shared ODE
+ * metric registry.
+ */
 public class SerializableMessageProducerPool<K, V> extends SerializableObjectPool<MessageProducer<K, V>> {
 
    private static final long serialVersionUID = -2293786403623236678L;
@@ -39,6 +50,22 @@ public class SerializableMessageProducerPool<K, V> extends SerializableObjectPoo
       this.type = odeProperties.getKafkaProducerType();
       this.partitionerClass = odeProperties.getProperty("kafka.partitionerClass");
       init();
+      registerMetrics();
+   }
+
+   private void registerMetrics() {
+      MetricRegistry registry = SharedMetricRegistries.getOrCreate(AppContext.METRICS_REGISTRY_NAME);
+      String prefix = MetricRegistry.name("kafka", "producerPool", type);
+      register(registry, MetricRegistry.name(prefix, "hits"), (Gauge<Long>) this::getHits);
+      register(registry, MetricRegistry.name(prefix, "misses"), (Gauge<Long>) this::getMisses);
+      register(registry, MetricRegistry.name(prefix, "creations"), (Gauge<Long>) this::getCreations);
+      register(registry, MetricRegistry.name(prefix, "expirations"), (Gauge<Long>) this::getExpirations);
+      register(registry, MetricRegistry.name(prefix, "size"), (Gauge<Integer>) this::getSize);
+   }
+
+   private static void register(MetricRegistry registry, String name, Gauge<?> gauge) {
+      registry.remove(name);
+      registry.register(name, gauge);
    }
 
    public SerializableMessageProducerPool<K, V> init() {
@@ -19,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
 
 public class ByteArrayPublisher extends MessagePublisher {
@@ -28,9 +30,7 @@ public class ByteArrayPublisher extends MessagePublisher {
 
    public ByteArrayPublisher(OdeProperties odeProps) {
       super(odeProps);
-      this.bytesProducer = MessageProducer.defaultByteArrayMessageProducer(
-         odeProperties.getKafkaBrokers(), odeProperties.getKafkaProducerType(), 
-         odeProperties.getKafkaTopicsDisabledSet());
+      this.bytesProducer = MessageProducerRegistry.byteArrayProducer(odeProperties, ProducerPipeline.INGEST);
 
    }
 
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright 2018 572682
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package us.dot.its.jpo.ode.coder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import us.dot.its.jpo.ode.context.AppContext;
+import us.dot.its.jpo.ode.plugin.j2735.J2735DSRCmsgID;
+
+/**
+ * Where the parts of the asn1_codec decoder output are found, for each J2735
+ * message type the ODE routes. The decoder output of every type has the same
+ * layout:
+ *
+ * <pre>
+ * OdeAsn1Data
+ *    metadata
+ *    payload
+ *       data
+ *          MessageFrame
+ *             messageId
+ *             value
+ *                &lt;message element&gt;
+ * </pre>
+ *
+ * The paths are compiled once, so reading a part is a walk down the tree
+ * rather than a search of it. Trees that do not have the layout are still
+ * searched for the part, as before.
+ */
+public enum DecodedMessageBinding {
+
+   BSM(J2735DSRCmsgID.BasicSafetyMessage, "BasicSafetyMessage"),
+   TIM(J2735DSRCmsgID.TravelerInformation, "TravelerInformation"),
+   SPAT(J2735DSRCmsgID.SPATMessage, "SPAT"),
+   MAP(J2735DSRCmsgID.MAPMessage, "MapData"),
+   SSM(J2735DSRCmsgID.SSMMessage, "SignalStatusMessage"),
+   SRM(J2735DSRCmsgID.SRMMessage, "SignalRequestMessage"),
+   PSM(J2735DSRCmsgID.PersonalSafetyMessage, "PersonalSafetyMessage");
+
+   private static final String MESSAGE_FRAME_PATH = "/" + AppContext.ODE_ASN1_DATA + "/" + AppContext.PAYLOAD_STRING
+         + "/" + AppContext.DATA_STRING + "/MessageFrame";
+
+   private static final JsonPointer METADATA = JsonPointer
+         .compile("/" + AppContext.ODE_ASN1_DATA + "/" + AppContext.METADATA_STRING);
+
+   private static final Map<Integer, DecodedMessageBinding> byMessageId = new HashMap<>();
+
+   static {
+      for (DecodedMessageBinding binding : values()) {
+         byMessageId.put(binding.messageId, binding);
+      }
+   }
+
+   private final int messageId;
+   private final String messageElement;
+   private final JsonPointer message;
+
+   private DecodedMessageBinding(J2735DSRCmsgID msgId, String messageElement) {
+      this.messageId = msgId.getMsgID();
+      this.messageElement = messageElement;
+      this.message = JsonPointer.compile(MESSAGE_FRAME_PATH + "/value/" + messageElement);
+   }
+
+   /**
+    * @return the binding of the message type, or null if the ODE does not route
+    *         messages of the type
+    */
+   public static DecodedMessageBinding forMessageId(int messageId) {
+      return byMessageId.get(messageId);
+   }
+
+   public int getMessageId() {
+      return messageId;
+   }
+
+   public String getMessageElement() {
+      return messageElement;
+   }
+
+   /**
+    * @param consumed decoder output parsed, with the <code>OdeAsn1Data</code>
+    *                 element at the root
+    */
+   public static JsonNode metadata(JsonNode consumed) {
+      return find(consumed, METADATA, AppContext.METADATA_STRING);
+   }
+
+   /**
+    * @param consumed decoder output parsed, with the <code>OdeAsn1Data</code>
+    *                 element at the root
+    * @return the J2735 message, e.g. the BasicSafetyMessage of a BSM
+    */
+   public JsonNode message(JsonNode consumed) {
+      return find(consumed, message, messageElement);
+   }
+
+   private static JsonNode find(JsonNode consumed, JsonPointer pointer, String fieldName) {
+      JsonNode node = consumed.at(pointer);
+      return node.isMissingNode() ? consumed.findValue(fieldName) : node;
+   }
+}
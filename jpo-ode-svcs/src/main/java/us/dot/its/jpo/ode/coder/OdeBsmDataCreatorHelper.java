@@ -34,16 +34,21 @@ public class OdeBsmDataCreatorHelper {
 
 
    public static OdeBsmData createOdeBsmData(String consumedData) throws XmlUtilsException {
-      ObjectNode consumed = XmlUtils.toObjectNode(consumedData);
+      return createOdeBsmData(XmlUtils.toObjectNode(consumedData));
+   }
 
-      JsonNode metadataNode = consumed.findValue(AppContext.METADATA_STRING);
+   /**
+    * Builds the BSM from the decoder output already parsed into a tree. The
+    * encodings are removed from the metadata of the tree.
+    */
+   public static OdeBsmData createOdeBsmData(ObjectNode consumed) {
+      JsonNode metadataNode = DecodedMessageBinding.metadata(consumed);
       if (metadataNode instanceof ObjectNode) {
          ObjectNode object = (ObjectNode) metadataNode;
          object.remove(AppContext.ENCODINGS_STRING);
       }
       
-      OdeBsmMetadata metadata = (OdeBsmMetadata) JsonUtils.fromJson(
-         metadataNode.toString(), OdeBsmMetadata.class);
+      OdeBsmMetadata metadata = (OdeBsmMetadata) JsonUtils.fromJson(metadataNode, OdeBsmMetadata.class);
 
       /*
        *  ODE-755 and ODE-765 Starting with schemaVersion=5 receivedMessageDetails 
@@ -54,7 +59,7 @@ public class OdeBsmDataCreatorHelper {
       }
       
       OdeBsmPayload payload = new OdeBsmPayload(
-         BsmBuilder.genericBsm(consumed.findValue("BasicSafetyMessage")));
+         BsmBuilder.genericBsm(DecodedMessageBinding.BSM.message(consumed)));
       return new OdeBsmData(metadata, payload );
    }
 }
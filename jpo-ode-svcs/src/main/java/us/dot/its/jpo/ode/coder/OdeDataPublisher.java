@@ -19,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.model.OdeData;
 import us.dot.its.jpo.ode.model.OdeObject;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
@@ -30,10 +32,7 @@ public class OdeDataPublisher extends MessagePublisher {
 
    public OdeDataPublisher(OdeProperties odeProps, String serializer) {
       super(odeProps);
-      this.objectProducer = new MessageProducer<>(odeProperties.getKafkaBrokers(), 
-            odeProperties.getKafkaProducerType(),
-            null, serializer, 
-            odeProperties.getKafkaTopicsDisabledSet());
+      this.objectProducer = MessageProducerRegistry.producer(odeProperties, ProducerPipeline.INGEST, serializer);
    }
 
    public void publish(OdeData msg, String topic) {
@@ -24,9 +24,15 @@ public class OdeMapDataCreatorHelper {
 	}
 
 	public static OdeMapData createOdeMapData(String consumedData) throws XmlUtilsException {
-		ObjectNode consumed = XmlUtils.toObjectNode(consumedData);
+		return createOdeMapData(XmlUtils.toObjectNode(consumedData));
+	}
 
-		JsonNode metadataNode = consumed.findValue(AppContext.METADATA_STRING);
+	/**
+	 * Builds the MAP from the decoder output already parsed into a tree. The
+	 * encodings are removed from the metadata of the tree.
+	 */
+	public static OdeMapData createOdeMapData(ObjectNode consumed) {
+		JsonNode metadataNode = DecodedMessageBinding.metadata(consumed);
 		if (metadataNode instanceof ObjectNode) {
 			ObjectNode object = (ObjectNode) metadataNode;
 			object.remove(AppContext.ENCODINGS_STRING);
@@ -47,13 +53,13 @@ public class OdeMapDataCreatorHelper {
 			}
 		}
 
-		OdeMapMetadata metadata = (OdeMapMetadata) JsonUtils.fromJson(metadataNode.toString(), OdeMapMetadata.class);
+		OdeMapMetadata metadata = (OdeMapMetadata) JsonUtils.fromJson(metadataNode, OdeMapMetadata.class);
 
 		if (metadata.getSchemaVersion() <= 4) {
 			metadata.setReceivedMessageDetails(null);
 		}
 
-		OdeMapPayload payload = new OdeMapPayload(MAPBuilder.genericMAP(consumed.findValue("MapData")));
+		OdeMapPayload payload = new OdeMapPayload(MAPBuilder.genericMAP(DecodedMessageBinding.MAP.message(consumed)));
 		return new OdeMapData(metadata, payload);
 	}
 }
@@ -24,9 +24,15 @@ public class OdePsmDataCreatorHelper {
 	}
 
 	public static OdePsmData createOdePsmData(String consumedData) throws XmlUtilsException {
-		ObjectNode consumed = XmlUtils.toObjectNode(consumedData);
+		return createOdePsmData(XmlUtils.toObjectNode(consumedData));
+	}
 
-		JsonNode metadataNode = consumed.findValue(AppContext.METADATA_STRING);
+	/**
+	 * Builds the PSM from the decoder output already parsed into a tree. The
+	 * encodings are removed from the metadata of the tree.
+	 */
+	public static OdePsmData createOdePsmData(ObjectNode consumed) {
+		JsonNode metadataNode = DecodedMessageBinding.metadata(consumed);
 		if (metadataNode instanceof ObjectNode) {
 			ObjectNode object = (ObjectNode) metadataNode;
 			object.remove(AppContext.ENCODINGS_STRING);
@@ -47,13 +53,13 @@ public class OdePsmDataCreatorHelper {
 			}
 		}
 
-		OdePsmMetadata metadata = (OdePsmMetadata) JsonUtils.fromJson(metadataNode.toString(), OdePsmMetadata.class);
+		OdePsmMetadata metadata = (OdePsmMetadata) JsonUtils.fromJson(metadataNode, OdePsmMetadata.class);
 
 		if (metadata.getSchemaVersion() <= 4) {
 			metadata.setReceivedMessageDetails(null);
 		}
 
-		OdePsmPayload payload = new OdePsmPayload(PSMBuilder.genericPSM(consumed.findValue("PersonalSafetyMessage")));
+		OdePsmPayload payload = new OdePsmPayload(PSMBuilder.genericPSM(DecodedMessageBinding.PSM.message(consumed)));
 		return new OdePsmData(metadata, payload);
 	}
 }
@@ -24,9 +24,15 @@ public class OdeSpatDataCreatorHelper {
 	}
 
 	public static OdeSpatData createOdeSpatData(String consumedData) throws XmlUtilsException {
-		ObjectNode consumed = XmlUtils.toObjectNode(consumedData);
+		return createOdeSpatData(XmlUtils.toObjectNode(consumedData));
+	}
 
-		JsonNode metadataNode = consumed.findValue(AppContext.METADATA_STRING);
+	/**
+	 * Builds the SPAT from the decoder output already parsed into a tree. The
+	 * encodings are removed from the metadata of the tree.
+	 */
+	public static OdeSpatData createOdeSpatData(ObjectNode consumed) {
+		JsonNode metadataNode = DecodedMessageBinding.metadata(consumed);
 		if (metadataNode instanceof ObjectNode) {
 			ObjectNode object = (ObjectNode) metadataNode;
 			object.remove(AppContext.ENCODINGS_STRING);
@@ -46,7 +52,7 @@ public class OdeSpatDataCreatorHelper {
 			}
 		}
 		
-		OdeSpatMetadata metadata = (OdeSpatMetadata) JsonUtils.fromJson(metadataNode.toString(), OdeSpatMetadata.class);
+		OdeSpatMetadata metadata = (OdeSpatMetadata) JsonUtils.fromJson(metadataNode, OdeSpatMetadata.class);
 		
 		if(metadataNode.findValue("certPresent") != null) {
 			boolean isCertPresent = metadataNode.findValue("certPresent").asBoolean();
@@ -57,7 +63,7 @@ public class OdeSpatDataCreatorHelper {
 			metadata.setReceivedMessageDetails(null);
 		}
 
-		OdeSpatPayload payload = new OdeSpatPayload(SPATBuilder.genericSPAT(consumed.findValue("SPAT")));
+		OdeSpatPayload payload = new OdeSpatPayload(SPATBuilder.genericSPAT(DecodedMessageBinding.SPAT.message(consumed)));
 		return new OdeSpatData(metadata, payload);
 	}
 }
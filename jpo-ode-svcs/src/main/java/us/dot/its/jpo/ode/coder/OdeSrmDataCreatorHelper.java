@@ -24,9 +24,15 @@ public class OdeSrmDataCreatorHelper {
     }
 
     public static OdeSrmData createOdeSrmData(String consumedData) throws XmlUtilsException {
-        ObjectNode consumed = XmlUtils.toObjectNode(consumedData);
+        return createOdeSrmData(XmlUtils.toObjectNode(consumedData));
+    }
 
-        JsonNode metadataNode = consumed.findValue(AppContext.METADATA_STRING);
+    /**
+     * Builds the SRM from the decoder output already parsed into a tree. The
+     * encodings are removed from the metadata of the tree.
+     */
+    public static OdeSrmData createOdeSrmData(ObjectNode consumed) {
+        JsonNode metadataNode = DecodedMessageBinding.metadata(consumed);
         if (metadataNode instanceof ObjectNode) {
             ObjectNode object = (ObjectNode) metadataNode;
             object.remove(AppContext.ENCODINGS_STRING);
@@ -47,13 +53,13 @@ public class OdeSrmDataCreatorHelper {
             }
         }
         
-        OdeSrmMetadata metadata = (OdeSrmMetadata) JsonUtils.fromJson(metadataNode.toString(), OdeSrmMetadata.class);
+        OdeSrmMetadata metadata = (OdeSrmMetadata) JsonUtils.fromJson(metadataNode, OdeSrmMetadata.class);
 
         if (metadata.getSchemaVersion() <= 4) {
             metadata.setReceivedMessageDetails(null);
         }
 
-        OdeSrmPayload payload = new OdeSrmPayload(SRMBuilder.genericSRM(consumed.findValue("SignalRequestMessage")));
+        OdeSrmPayload payload = new OdeSrmPayload(SRMBuilder.genericSRM(DecodedMessageBinding.SRM.message(consumed)));
         return new OdeSrmData(metadata, payload);
     }
 }
@@ -24,9 +24,15 @@ public class OdeSsmDataCreatorHelper {
     }
 
     public static OdeSsmData createOdeSsmData(String consumedData) throws XmlUtilsException {
-        ObjectNode consumed = XmlUtils.toObjectNode(consumedData);
+        return createOdeSsmData(XmlUtils.toObjectNode(consumedData));
+    }
 
-        JsonNode metadataNode = consumed.findValue(AppContext.METADATA_STRING);
+    /**
+     * Builds the SSM from the decoder output already parsed into a tree. The
+     * encodings are removed from the metadata of the tree.
+     */
+    public static OdeSsmData createOdeSsmData(ObjectNode consumed) {
+        JsonNode metadataNode = DecodedMessageBinding.metadata(consumed);
         if (metadataNode instanceof ObjectNode) {
             ObjectNode object = (ObjectNode) metadataNode;
             object.remove(AppContext.ENCODINGS_STRING);
@@ -47,13 +53,13 @@ public class OdeSsmDataCreatorHelper {
             }
         }
         
-        OdeSsmMetadata metadata = (OdeSsmMetadata) JsonUtils.fromJson(metadataNode.toString(), OdeSsmMetadata.class);
+        OdeSsmMetadata metadata = (OdeSsmMetadata) JsonUtils.fromJson(metadataNode, OdeSsmMetadata.class);
 
         if (metadata.getSchemaVersion() <= 4) {
             metadata.setReceivedMessageDetails(null);
         }
 
-        OdeSsmPayload payload = new OdeSsmPayload(SSMBuilder.genericSSM(consumed.findValue("SignalStatusMessage")));
+        OdeSsmPayload payload = new OdeSsmPayload(SSMBuilder.genericSSM(DecodedMessageBinding.SSM.message(consumed)));
         return new OdeSsmData(metadata, payload);
     }
 }
@@ -19,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.model.OdeData;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
 
@@ -29,10 +31,7 @@ public class OdeStringPublisher extends MessagePublisher {
 
    public OdeStringPublisher(OdeProperties odeProps) {
       super(odeProps);
-      this.stringProducer = MessageProducer.defaultStringMessageProducer(
-         odeProperties.getKafkaBrokers(),
-         odeProperties.getKafkaProducerType(), 
-         odeProperties.getKafkaTopicsDisabledSet());
+      this.stringProducer = MessageProducerRegistry.stringProducer(odeProperties, ProducerPipeline.INGEST);
 
    }
 
@@ -15,10 +15,14 @@
  ******************************************************************************/
 package us.dot.its.jpo.ode.coder;
 
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
 
 public class StringPublisher extends MessagePublisher {
@@ -28,15 +32,25 @@ public class StringPublisher extends MessagePublisher {
 
    public StringPublisher(OdeProperties odeProps) {
       super(odeProps);
-      this.stringProducer = MessageProducer.defaultStringMessageProducer(
-         odeProperties.getKafkaBrokers(), odeProperties.getKafkaProducerType(), 
-         odeProperties.getKafkaTopicsDisabledSet());
+      this.stringProducer = MessageProducerRegistry.stringProducer(odeProperties, ProducerPipeline.INGEST);
 
    }
 
+   public StringPublisher(OdeProperties odeProps, MessageProducer<String, String> stringProducer) {
+      super(odeProps);
+      this.stringProducer = stringProducer;
+   }
+
    public void publish(String msg, String topic) {
     logger.debug("Publishing String data to {}", topic);
     stringProducer.send(topic, null, msg);
    }
 
+   public void publish(String msg, String topic, Iterable<Header> headers) {
+      if (odeProperties.getKafkaTopicsDisabledSet().contains(topic))
+         return;
+      logger.debug("Publishing String data with headers to {}", topic);
+      stringProducer.send(new ProducerRecord<>(topic, null, null, null, msg, headers));
+   }
+
 }
@@ -48,6 +48,7 @@ import us.dot.its.jpo.ode.model.SerialId;
 import us.dot.its.jpo.ode.util.JsonUtils;
 import us.dot.its.jpo.ode.util.XmlUtils;
 import us.dot.its.jpo.ode.uper.UperUtil;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
 
 public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
 
@@ -162,23 +163,34 @@ public class LogFileToAsn1CodecPublisher implements Asn1CodecPublisher {
 				publisher.publish(JsonUtils.toJson(odeData, false),
 					publisher.getOdeProperties().getKafkaTopicOdeRawEncodedSPATJson());
 			} else {
-				// Determine the message type (MAP, TIM, SSM, SRM, or PSM)
-				String messageType = UperUtil.determineMessageType(msgPayload);
-				if (messageType == "MAP") {
-					publisher.publish(JsonUtils.toJson(odeData, false),
-						publisher.getOdeProperties().getKafkaTopicOdeRawEncodedMAPJson());
-				} else if (messageType == "TIM") {
-					publisher.publish(JsonUtils.toJson(odeData, false),
-						publisher.getOdeProperties().getKafkaTopicOdeRawEncodedTIMJson());
-				} else if (messageType == "SSM") {
-					publisher.publish(JsonUtils.toJson(odeData, false),
-						publisher.getOdeProperties().getKafkaTopicOdeRawEncodedSSMJson());
-				} else if (messageType == "SRM") {
-					publisher.publish(JsonUtils.toJson(odeData, false),
-						publisher.getOdeProperties().getKafkaTopicOdeRawEncodedSRMJson());
-				} else if (messageType == "PSM") {
-					publisher.publish(JsonUtils.toJson(odeData, false),
-						publisher.getOdeProperties().getKafkaTopicOdeRawEncodedPSMJson());
+				// Route by the messageId behind the 1609.3/1609.2 headers
+				SupportedMessageTypes messageType = UperUtil.getMessageType(msgPayload);
+				String topic = null;
+				if (messageType != null) {
+					switch (messageType) {
+					case MAP:
+						topic = publisher.getOdeProperties().getKafkaTopicOdeRawEncodedMAPJson();
+						break;
+					case TIM:
+						topic = publisher.getOdeProperties().getKafkaTopicOdeRawEncodedTIMJson();
+						break;
+					case SSM:
+						topic = publisher.getOdeProperties().getKafkaTopicOdeRawEncodedSSMJson();
+						break;
+					case SRM:
+						topic = publisher.getOdeProperties().getKafkaTopicOdeRawEncodedSRMJson();
+						break;
+					case PSM:
+						topic = publisher.getOdeProperties().getKafkaTopicOdeRawEncodedPSMJson();
+						break;
+					default:
+						break;
+					}
+				}
+				if (topic != null) {
+					publisher.publish(JsonUtils.toJson(odeData, false), topic);
+				} else {
+					logger.debug("Not publishing log record of message type {}", messageType);
 				}
 			}
 
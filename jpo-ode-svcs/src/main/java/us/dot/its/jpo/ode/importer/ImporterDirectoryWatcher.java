@@ -17,7 +17,6 @@ package us.dot.its.jpo.ode.importer;
 
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -25,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.util.ExecutorFactory;
 
 public class ImporterDirectoryWatcher implements Runnable {
    
@@ -67,7 +67,7 @@ public class ImporterDirectoryWatcher implements Runnable {
 
       this.importerProcessor = new ImporterProcessor(odeProperties, fileType);
       
-      executor = Executors.newScheduledThreadPool(1);
+      executor = ExecutorFactory.newSingleThreadScheduledExecutor("ImporterDirectoryWatcher");
    }
 
    @Override
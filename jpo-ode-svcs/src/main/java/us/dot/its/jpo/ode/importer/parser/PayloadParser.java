@@ -20,15 +20,19 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.HashMap;
 
+import us.dot.its.jpo.ode.uper.Ieee1609Envelope;
 import us.dot.its.jpo.ode.uper.UperUtil;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
 
 import us.dot.its.jpo.ode.util.CodecUtils;
 
 public class PayloadParser extends LogFileParser {
 
-   private static HashMap<String, String> msgStartFlags = new HashMap<String, String>();
+   private static final byte[][] msgStartFlags = {
+         UperUtil.getStartFlagBytes(SupportedMessageTypes.BSM),
+         UperUtil.getStartFlagBytes(SupportedMessageTypes.TIM),
+         UperUtil.getStartFlagBytes(SupportedMessageTypes.MAP) };
 
    public static final int PAYLOAD_LENGTH = 2;
    
@@ -38,9 +42,6 @@ public class PayloadParser extends LogFileParser {
 
    public PayloadParser() {
       super();
-      msgStartFlags.put("BSM", "0014");
-      msgStartFlags.put("TIM", "001f");
-      msgStartFlags.put("MAP", "0012");
    }
 
    @Override
@@ -62,7 +63,13 @@ public class PayloadParser extends LogFileParser {
             status = parseStep(bis, getPayloadLength());
             if (status != ParserStatus.COMPLETE)
                return status;
-            setPayload(UperUtil.stripDot3Header(Arrays.copyOf(readBuffer, getPayloadLength()), msgStartFlags));
+            Ieee1609Envelope envelope = Ieee1609Envelope.parse(readBuffer, 0, getPayloadLength());
+            if (envelope != null) {
+               setPayload(Arrays.copyOfRange(readBuffer, envelope.getPayloadOffset(),
+                     envelope.getPayloadOffset() + envelope.getPayloadLength()));
+            } else {
+               setPayload(UperUtil.stripDot3Header(Arrays.copyOf(readBuffer, getPayloadLength()), msgStartFlags));
+            }
          }
          
          resetStep();
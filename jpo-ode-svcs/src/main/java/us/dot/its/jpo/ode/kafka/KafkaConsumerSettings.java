@@ -0,0 +1,203 @@
+package us.dot.its.jpo.ode.kafka;
+
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.wrapper.MessageConsumer;
+import us.dot.its.jpo.ode.wrapper.MessageProcessor;
+import us.dot.its.jpo.ode.wrapper.OrderedWorkerPool;
+
+/**
+ * Kafka consumer settings of a message processor, bound from
+ * <code>ode.kafkaConsumers.&lt;processor class name&gt;.*</code>, e.g.
+ * <code>ode.kafkaConsumers.Asn1DecodedDataRouter.threads</code>. Processors
+ * without settings process their records one at a time on the consumer
+ * thread, with the offsets committed automatically. The SYNC and ASYNC commit
+ * modes commit the offsets of the processed records after each poll, consuming
+ * records that failed again up to <code>maxDeliveryAttempts</code> times.
+ * <p>
+ * The fetch settings left unset keep the Kafka defaults. With
+ * <code>adaptive</code> set, the consumer accumulates polls into batches of up
+ * to <code>maxBatchRecords</code> while it lags behind its partitions and
+ * processes each poll right away once it has caught up. Adaptive batching
+ * requires the SYNC or ASYNC commit mode.
+ * <p>
+ * <code>groupId</code> moves the consumers of the processor to a group of their
+ * own. <code>staticMembership</code> gives each consumer a group instance id
+ * stable across restarts of the host, and <code>cooperativeSticky</code>
+ * rebalances incrementally, moving only the partitions that change owner.
+ */
+public class KafkaConsumerSettings {
+
+   private int threads = 1;
+   private OrderedWorkerPool.Ordering ordering = OrderedWorkerPool.Ordering.PARTITION;
+   private MessageConsumer.CommitMode commitMode = MessageConsumer.CommitMode.AUTO;
+   private int maxDeliveryAttempts = MessageConsumer.DEFAULT_MAX_DELIVERY_ATTEMPTS;
+   private Integer fetchMinBytes;
+   private Integer fetchMaxWaitMs;
+   private Integer maxPollRecords;
+   private Integer maxPartitionFetchBytes;
+   private boolean adaptive = false;
+   private Integer maxBatchRecords;
+   private String groupId;
+   private boolean staticMembership = false;
+   private boolean cooperativeSticky = false;
+
+   /**
+    * Settings configured for the class of the processor, or the defaults.
+    */
+   public static KafkaConsumerSettings forProcessor(OdeProperties odeProps, MessageProcessor<?, ?> processor) {
+      KafkaConsumerSettings settings = odeProps.getKafkaConsumers().get(processor.getClass().getSimpleName());
+      return settings != null ? settings : new KafkaConsumerSettings();
+   }
+
+   /**
+    * Sets the number of threads processing the records of each poll.
+    */
+   public <K, V> MessageProcessor<K, V> applyTo(MessageProcessor<K, V> processor) {
+      return processor.setConcurrency(threads, ordering);
+   }
+
+   /**
+    * Adds the fetch settings and assignment strategy to the consumer properties.
+    *
+    * @throws IllegalArgumentException if <code>adaptive</code> is set with the
+    *            AUTO commit mode, whose commits on the polls accumulating a
+    *            batch would cover records not processed yet
+    */
+   public Properties applyTo(Properties props) {
+      if (adaptive && commitMode == MessageConsumer.CommitMode.AUTO)
+         throw new IllegalArgumentException(
+               "Adaptive batching requires the SYNC or ASYNC commit mode; set commitMode or adaptive=false");
+      putIfSet(props, ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+      putIfSet(props, ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
+      putIfSet(props, ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+      putIfSet(props, ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, maxPartitionFetchBytes);
+      if (cooperativeSticky)
+         props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+      return props;
+   }
+
+   /**
+    * Sets how the consumer commits its offsets and batches its polls.
+    */
+   public <K, V> MessageConsumer<K, V> applyTo(MessageConsumer<K, V> consumer) {
+      consumer.setMaxDeliveryAttempts(maxDeliveryAttempts);
+      consumer.setAdaptive(adaptive);
+      if (maxBatchRecords != null)
+         consumer.setMaxBatchRecords(maxBatchRecords);
+      return consumer;
+   }
+
+   private static void putIfSet(Properties props, String key, Integer value) {
+      if (value != null)
+         props.put(key, value.toString());
+   }
+
+   public int getThreads() {
+      return threads;
+   }
+
+   public void setThreads(int threads) {
+      this.threads = threads;
+   }
+
+   public OrderedWorkerPool.Ordering getOrdering() {
+      return ordering;
+   }
+
+   public void setOrdering(OrderedWorkerPool.Ordering ordering) {
+      this.ordering = ordering;
+   }
+
+   public MessageConsumer.CommitMode getCommitMode() {
+      return commitMode;
+   }
+
+   public void setCommitMode(MessageConsumer.CommitMode commitMode) {
+      this.commitMode = commitMode;
+   }
+
+   public int getMaxDeliveryAttempts() {
+      return maxDeliveryAttempts;
+   }
+
+   public void setMaxDeliveryAttempts(int maxDeliveryAttempts) {
+      this.maxDeliveryAttempts = maxDeliveryAttempts;
+   }
+
+   public Integer getFetchMinBytes() {
+      return fetchMinBytes;
+   }
+
+   public void setFetchMinBytes(Integer fetchMinBytes) {
+      this.fetchMinBytes = fetchMinBytes;
+   }
+
+   public Integer getFetchMaxWaitMs() {
+      return fetchMaxWaitMs;
+   }
+
+   public void setFetchMaxWaitMs(Integer fetchMaxWaitMs) {
+      this.fetchMaxWaitMs = fetchMaxWaitMs;
+   }
+
+   public Integer getMaxPollRecords() {
+      return maxPollRecords;
+   }
+
+   public void setMaxPollRecords(Integer maxPollRecords) {
+      this.maxPollRecords = maxPollRecords;
+   }
+
+   public Integer getMaxPartitionFetchBytes() {
+      return maxPartitionFetchBytes;
+   }
+
+   public void setMaxPartitionFetchBytes(Integer maxPartitionFetchBytes) {
+      this.maxPartitionFetchBytes = maxPartitionFetchBytes;
+   }
+
+   public boolean isAdaptive() {
+      return adaptive;
+   }
+
+   public void setAdaptive(boolean adaptive) {
+      this.adaptive = adaptive;
+   }
+
+   public Integer getMaxBatchRecords() {
+      return maxBatchRecords;
+   }
+
+   public void setMaxBatchRecords(Integer maxBatchRecords) {
+      this.maxBatchRecords = maxBatchRecords;
+   }
+
+   public String getGroupId() {
+      return groupId;
+   }
+
+   public void setGroupId(String groupId) {
+      this.groupId = groupId;
+   }
+
+   public boolean isStaticMembership() {
+      return staticMembership;
+   }
+
+   public void setStaticMembership(boolean staticMembership) {
+      this.staticMembership = staticMembership;
+   }
+
+   public boolean isCooperativeSticky() {
+      return cooperativeSticky;
+   }
+
+   public void setCooperativeSticky(boolean cooperativeSticky) {
+      this.cooperativeSticky = cooperativeSticky;
+   }
+}
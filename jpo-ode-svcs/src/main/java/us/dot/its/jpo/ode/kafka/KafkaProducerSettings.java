@@ -0,0 +1,108 @@
+package us.dot.its.jpo.ode.kafka;
+
+import java.util.Properties;
+
+/**
+ * Kafka producer settings of a {@link ProducerPipeline}, bound from
+ * <code>ode.kafkaProducers.&lt;pipeline&gt;.*</code>. The settings that are set
+ * override those of the {@link ProducerProfile}, which defaults to the profile
+ * of the pipeline.
+ */
+public class KafkaProducerSettings {
+
+   private ProducerProfile profile;
+   private Integer batchSize;
+   private Integer lingerMs;
+   private String compressionType;
+   private String acks;
+   private Long bufferMemory;
+   private Boolean enableIdempotence;
+
+   /**
+    * Overrides the producer properties with the settings that are set. A
+    * producer made idempotent here gets the acks, retries and requests in
+    * flight idempotence requires, as with the {@link ProducerProfile#DURABLE}
+    * profile.
+    *
+    * @throws IllegalArgumentException if acks is set to other than all for an
+    *            idempotent producer
+    */
+   public Properties applyTo(Properties props) {
+      if (batchSize != null)
+         props.put("batch.size", batchSize);
+      if (lingerMs != null)
+         props.put("linger.ms", lingerMs);
+      if (compressionType != null)
+         props.put("compression.type", compressionType);
+      if (acks != null)
+         props.put("acks", acks);
+      if (bufferMemory != null)
+         props.put("buffer.memory", bufferMemory);
+      if (enableIdempotence != null)
+         props.put("enable.idempotence", enableIdempotence);
+      if (Boolean.TRUE.equals(props.get("enable.idempotence"))) {
+         if (acks != null && !"all".equals(acks) && !"-1".equals(acks))
+            throw new IllegalArgumentException(
+                  "An idempotent Kafka producer requires acks=all, not acks=" + acks
+                        + "; unset acks or set enableIdempotence=false");
+         ProducerProfile.applyIdempotence(props);
+      }
+      return props;
+   }
+
+   public ProducerProfile getProfile() {
+      return profile;
+   }
+
+   public void setProfile(ProducerProfile profile) {
+      this.profile = profile;
+   }
+
+   public Integer getBatchSize() {
+      return batchSize;
+   }
+
+   public void setBatchSize(Integer batchSize) {
+      this.batchSize = batchSize;
+   }
+
+   public Integer getLingerMs() {
+      return lingerMs;
+   }
+
+   public void setLingerMs(Integer lingerMs) {
+      this.lingerMs = lingerMs;
+   }
+
+   public String getCompressionType() {
+      return compressionType;
+   }
+
+   public void setCompressionType(String compressionType) {
+      this.compressionType = compressionType;
+   }
+
+   public String getAcks() {
+      return acks;
+   }
+
+   public void setAcks(String acks) {
+      this.acks = acks;
+   }
+
+   public Long getBufferMemory() {
+      return bufferMemory;
+   }
+
+   public void setBufferMemory(Long bufferMemory) {
+      this.bufferMemory = bufferMemory;
+   }
+
+   public Boolean getEnableIdempotence() {
+      return enableIdempotence;
+   }
+
+   public void setEnableIdempotence(Boolean enableIdempotence) {
+      this.enableIdempotence = enableIdempotence;
+   }
+}
@@ -0,0 +1,84 @@
+package us.dot.its.jpo.ode.kafka;
+
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.wrapper.MessageConsumer;
+import us.dot.its.jpo.ode.wrapper.MessageProcessor;
+
+/**
+ * Creates the consumers of the message processors with the
+ * {@link KafkaConsumerSettings} of the processor class: the threads processing
+ * each poll, how the consumed offsets are committed, how the records are
+ * fetched and batched and how the consumer joins its group.
+ * <p>
+ * With <code>ode.kafkaConsumerGroupPerPipeline</code> set, each consumer joins
+ * a group of its own, <code>&lt;group id&gt;.&lt;consumer name&gt;</code>, so
+ * that a rebalance of one pipeline does not pause the consumers of the others.
+ */
+public class MessageConsumerFactory {
+
+   private MessageConsumerFactory() {
+   }
+
+   public static MessageConsumer<String, String> stringConsumer(OdeProperties odeProps, String groupId, String name,
+         MessageProcessor<String, String> processor) {
+      return consumer(odeProps, groupId, name, processor, MessageConsumer.SERIALIZATION_STRING_DESERIALIZER);
+   }
+
+   /**
+    * @param groupId              group shared by the consumers of the caller
+    * @param name                 name of the consumer, unique within the
+    *                             application
+    * @param valueDeserializerFQN class name of the value deserializer
+    */
+   public static <V> MessageConsumer<String, V> consumer(OdeProperties odeProps, String groupId, String name,
+         MessageProcessor<String, V> processor, String valueDeserializerFQN) {
+      KafkaConsumerSettings settings = KafkaConsumerSettings.forProcessor(odeProps, processor);
+      Properties props = settings.applyTo(consumerProperties(valueDeserializerFQN));
+      settings.applyTo(processor);
+
+      String consumerGroupId = groupId(odeProps, settings, groupId, name);
+      if (settings.isStaticMembership())
+         props.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, groupInstanceId(odeProps, consumerGroupId, name));
+
+      MessageConsumer<String, V> consumer = new MessageConsumer<>(odeProps.getKafkaBrokers(), consumerGroupId,
+            processor, props, settings.getCommitMode());
+      consumer.setName(name);
+      return settings.applyTo(consumer);
+   }
+
+   /**
+    * The group id configured for the processor, else the group of the pipeline
+    * or of the caller.
+    */
+   static String groupId(OdeProperties odeProps, KafkaConsumerSettings settings, String groupId, String name) {
+      if (settings.getGroupId() != null)
+         return settings.getGroupId();
+      return odeProps.isKafkaConsumerGroupPerPipeline() ? groupId + "." + name : groupId;
+   }
+
+   /**
+    * Static member id, stable across restarts of the host so that a restart
+    * within the session timeout does not rebalance the group.
+    */
+   static String groupInstanceId(OdeProperties odeProps, String groupId, String name) {
+      String instanceId = groupId.endsWith("." + name) ? groupId : groupId + "." + name;
+      return instanceId + "-" + odeProps.getHostId();
+   }
+
+   /**
+    * The {@link MessageConsumer} defaults.
+    */
+   static Properties consumerProperties(String valueDeserializerFQN) {
+      Properties props = new Properties();
+      props.put("enable.auto.commit", MessageConsumer.DEFAULT_CONSUMER_ENABLE_AUTO_COMMIT);
+      props.put("auto.commit.interval.ms", MessageConsumer.DEFAULT_CONSUMER_AUTO_COMMIT_INTERVAL_MS);
+      props.put("session.timeout.ms", MessageConsumer.DEFAULT_CONSUMER_SESSION_TIMEOUT_MS);
+      props.put("key.deserializer", MessageConsumer.SERIALIZATION_STRING_DESERIALIZER);
+      props.put("value.deserializer", valueDeserializerFQN);
+      return props;
+   }
+}
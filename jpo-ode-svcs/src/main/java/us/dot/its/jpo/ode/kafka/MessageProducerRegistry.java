@@ -0,0 +1,139 @@
+package us.dot.its.jpo.ode.kafka;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.serdes.MessagingSerializer;
+
+/**
+ * Process-wide Kafka producers shared by every publisher of a
+ * {@link ProducerPipeline} with the same value serializer. Kafka producers are
+ * thread safe, so one producer per pipeline and serializer replaces the one
+ * per publisher, each with its own I/O thread, buffer memory and broker
+ * connections.
+ * <p>
+ * The {@link MessageProducer}s handed out wrap the shared producer and ignore
+ * {@link MessageProducer#close()}; {@link #closeAll()} closes the shared
+ * producers on shutdown.
+ */
+public class MessageProducerRegistry {
+
+   private static final Logger logger = LoggerFactory.getLogger(MessageProducerRegistry.class);
+
+   private static final Map<Key, Producer<String, ?>> producers = new ConcurrentHashMap<>();
+
+   private MessageProducerRegistry() {
+   }
+
+   public static MessageProducer<String, String> stringProducer(OdeProperties odeProps, ProducerPipeline pipeline) {
+      return producer(odeProps, pipeline, MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+   }
+
+   public static MessageProducer<String, byte[]> byteArrayProducer(OdeProperties odeProps,
+         ProducerPipeline pipeline) {
+      return producer(odeProps, pipeline, MessageProducer.SERIALIZATION_BYTE_ARRAY_SERIALIZER);
+   }
+
+   /**
+    * @param valueSerializerFQN class name of the value serializer
+    */
+   @SuppressWarnings("unchecked")
+   public static <V> MessageProducer<String, V> producer(OdeProperties odeProps, ProducerPipeline pipeline,
+         String valueSerializerFQN) {
+      Key key = new Key(odeProps.getKafkaBrokers(), pipeline, valueSerializerFQN);
+      Producer<String, V> producer = (Producer<String, V>) producers.computeIfAbsent(key, k -> {
+         logger.info("Creating shared {} producer with {}", pipeline, valueSerializerFQN);
+         return MessageProducer.createProducer(odeProps.getKafkaBrokers(), null,
+               producerProperties(odeProps, pipeline, valueSerializerFQN));
+      });
+      return new SharedMessageProducer<>(producer, odeProps.getKafkaTopicsDisabledSet());
+   }
+
+   /**
+    * The {@link MessageProducer} defaults overridden by the profile and the
+    * settings of the pipeline.
+    */
+   public static Properties producerProperties(OdeProperties odeProps, ProducerPipeline pipeline,
+         String valueSerializerFQN) {
+      Properties props = new Properties();
+      props.put("acks", MessageProducer.DEFAULT_PRODUCER_ACKS);
+      props.put("retries", MessageProducer.DEFAULT_PRODUCER_RETRIES);
+      props.put("batch.size", MessageProducer.DEFAULT_PRODUCER_BATCH_SIZE_BYTES);
+      props.put("linger.ms", MessageProducer.DEFAULT_PRODUCER_LINGER_MS);
+      props.put("buffer.memory", MessageProducer.DEFAULT_PRODUCER_BUFFER_MEMORY_BYTES);
+      props.put("key.serializer", MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+      props.put("value.serializer", valueSerializerFQN);
+      props.put(MessagingSerializer.LEGACY_FORMAT_CONFIG, odeProps.isKafkaPojoLegacyFormat());
+
+      Map<ProducerPipeline, KafkaProducerSettings> allSettings = odeProps.getKafkaProducers();
+      KafkaProducerSettings settings = allSettings != null ? allSettings.get(pipeline) : null;
+      ProducerProfile profile = settings != null && settings.getProfile() != null ? settings.getProfile()
+            : pipeline.getDefaultProfile();
+      profile.applyTo(props);
+      if (settings != null)
+         settings.applyTo(props);
+      return props;
+   }
+
+   /**
+    * Flushes and closes every shared producer.
+    */
+   public static void closeAll() {
+      producers.values().removeIf(producer -> {
+         producer.close();
+         return true;
+      });
+   }
+
+   /**
+    * Publisher of a shared producer, which only the registry closes.
+    */
+   private static final class SharedMessageProducer<K, V> extends MessageProducer<K, V> {
+
+      SharedMessageProducer(Producer<K, V> producer, Set<String> disabledTopics) {
+         super(producer, disabledTopics);
+      }
+
+      @Override
+      public void close() {
+         logger.debug("Not closing the shared producer, it is closed on shutdown");
+      }
+   }
+
+   private static final class Key {
+      private final String brokers;
+      private final ProducerPipeline pipeline;
+      private final String valueSerializer;
+
+      Key(String brokers, ProducerPipeline pipeline, String valueSerializer) {
+         this.brokers = brokers;
+         this.pipeline = pipeline;
+         this.valueSerializer = valueSerializer;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o)
+            return true;
+         if (!(o instanceof Key))
+            return false;
+         Key other = (Key) o;
+         return Objects.equals(brokers, other.brokers) && pipeline == other.pipeline
+               && Objects.equals(valueSerializer, other.valueSerializer);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(brokers, pipeline, valueSerializer);
+      }
+   }
+}
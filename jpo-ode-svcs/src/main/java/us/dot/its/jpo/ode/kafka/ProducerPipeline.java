@@ -0,0 +1,26 @@
+package us.dot.its.jpo.ode.kafka;
+
+/**
+ * Groups of publishers sharing Kafka producers and their tuning.
+ */
+public enum ProducerPipeline {
+   /** Raw and encoded messages received over UDP or uploaded in log files */
+   INGEST(ProducerProfile.THROUGHPUT),
+   /** Decoded messages routed to the JSON and POJO topics */
+   DECODED(ProducerProfile.THROUGHPUT),
+   /** TIM deposits and encoder requests */
+   DEPOSIT(ProducerProfile.DURABLE);
+
+   private final ProducerProfile defaultProfile;
+
+   private ProducerPipeline(ProducerProfile defaultProfile) {
+      this.defaultProfile = defaultProfile;
+   }
+
+   /**
+    * Profile of the pipeline unless another is configured.
+    */
+   public ProducerProfile getDefaultProfile() {
+      return defaultProfile;
+   }
+}
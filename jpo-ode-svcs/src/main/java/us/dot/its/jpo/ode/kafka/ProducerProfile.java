@@ -0,0 +1,83 @@
+package us.dot.its.jpo.ode.kafka;
+
+import java.util.Properties;
+
+import us.dot.its.jpo.ode.wrapper.MessageProducer;
+
+/**
+ * Kafka producer tuning of a {@link ProducerPipeline}, selected with
+ * <code>ode.kafkaProducers.&lt;pipeline&gt;.profile</code>. The JSON and XML
+ * the ODE publishes are verbose and repetitive, so batching more of them
+ * together and compressing the batches cuts the bytes sent to the brokers
+ * several times over; ProducerProfileBenchmark measures it on recorded
+ * messages.
+ */
+public enum ProducerProfile {
+   /** The {@link MessageProducer} defaults: small uncompressed batches */
+   DEFAULT(MessageProducer.DEFAULT_PRODUCER_BATCH_SIZE_BYTES, MessageProducer.DEFAULT_PRODUCER_LINGER_MS, "none",
+         MessageProducer.DEFAULT_PRODUCER_ACKS, false),
+   /** Large lz4 compressed batches, waiting a little for them to fill */
+   THROUGHPUT(256 * 1024, 20, "lz4", MessageProducer.DEFAULT_PRODUCER_ACKS, false),
+   /** Records sent as soon as possible, acknowledged by the partition leader */
+   LATENCY(MessageProducer.DEFAULT_PRODUCER_BATCH_SIZE_BYTES, 0, "lz4", "1", false),
+   /** Idempotent producer retrying until delivered, with zstd compressed batches */
+   DURABLE(128 * 1024, 10, "zstd", "all", true);
+
+   private final int batchSize;
+   private final int lingerMs;
+   private final String compressionType;
+   private final String acks;
+   private final boolean idempotent;
+
+   private ProducerProfile(int batchSize, int lingerMs, String compressionType, String acks, boolean idempotent) {
+      this.batchSize = batchSize;
+      this.lingerMs = lingerMs;
+      this.compressionType = compressionType;
+      this.acks = acks;
+      this.idempotent = idempotent;
+   }
+
+   public Properties applyTo(Properties props) {
+      props.put("batch.size", batchSize);
+      props.put("linger.ms", lingerMs);
+      props.put("compression.type", compressionType);
+      props.put("acks", acks);
+      props.put("enable.idempotence", idempotent);
+      if (idempotent)
+         applyIdempotence(props);
+      else
+         props.put("retries", MessageProducer.DEFAULT_PRODUCER_RETRIES);
+      return props;
+   }
+
+   /**
+    * Sets what the idempotent producer requires: acknowledgement by all in-sync
+    * replicas and retries, ordering being kept with up to 5 requests in flight.
+    */
+   static Properties applyIdempotence(Properties props) {
+      props.put("acks", "all");
+      props.put("retries", Integer.MAX_VALUE);
+      props.put("max.in.flight.requests.per.connection", 5);
+      return props;
+   }
+
+   public int getBatchSize() {
+      return batchSize;
+   }
+
+   public int getLingerMs() {
+      return lingerMs;
+   }
+
+   public String getCompressionType() {
+      return compressionType;
+   }
+
+   public String getAcks() {
+      return acks;
+   }
+
+   public boolean isIdempotent() {
+      return idempotent;
+   }
+}
@@ -31,10 +31,12 @@ import us.dot.its.jpo.ode.plugin.ServiceRequest;
 import us.dot.its.jpo.ode.plugin.RoadSideUnit.RSU;
 import us.dot.its.jpo.ode.snmp.SnmpSession;
 import us.dot.its.jpo.ode.traveler.TimTransmogrifier;
+import us.dot.its.jpo.ode.util.ExecutorFactory;
 
-public class RsuDepositor extends Thread {
+public class RsuDepositor implements Runnable {
 	private Logger logger = LoggerFactory.getLogger(this.getClass());
 	private volatile boolean running = true;
+	private Thread thread;
 	private OdeProperties odeProperties; 
 	private ArrayList<RsuDepositorEntry> depositorEntries = new ArrayList<RsuDepositorEntry>();
 	
@@ -63,6 +65,14 @@ public class RsuDepositor extends Thread {
 		this.odeProperties = odeProperties;
 	}
 	
+	public synchronized void start() {
+		thread = ExecutorFactory.start("RsuDepositor", this);
+	}
+
+	public synchronized boolean isAlive() {
+		return thread != null && thread.isAlive();
+	}
+
 	public void shutdown() {
 		running = false;
 	}
@@ -38,6 +38,8 @@ import us.dot.its.jpo.ode.dds.DdsDepositor;
 import us.dot.its.jpo.ode.dds.DdsRequestManager.DdsRequestManagerException;
 import us.dot.its.jpo.ode.dds.DdsStatusMessage;
 import us.dot.its.jpo.ode.eventlog.EventLogger;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.model.Asn1Encoding.EncodingRule;
 import us.dot.its.jpo.ode.model.OdeAsdPayload;
 import us.dot.its.jpo.ode.model.OdeMsgMetadata;
@@ -93,8 +95,8 @@ public class Asn1CommandManager {
          this.depositor = new DdsDepositor<>(odeProperties);
          this.rsuDepositor = new RsuDepositor(odeProperties);
          this.rsuDepositor.start();
-         this.stringMessageProducer = MessageProducer.defaultStringMessageProducer(odeProperties.getKafkaBrokers(),
-               odeProperties.getKafkaProducerType(), odeProperties.getKafkaTopicsDisabledSet());
+         this.stringMessageProducer = MessageProducerRegistry.stringProducer(odeProperties,
+               ProducerPipeline.DEPOSIT);
          this.setDepositTopic(odeProperties.getKafkaTopicSdwDepositorInput());
       } catch (Exception e) {
          String msg = "Error starting SDW depositor";
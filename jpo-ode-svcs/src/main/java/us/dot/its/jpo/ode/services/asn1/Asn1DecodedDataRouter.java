@@ -15,30 +15,58 @@
  ******************************************************************************/
 package us.dot.its.jpo.ode.services.asn1;
 
-import org.json.JSONObject;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.coder.DecodedMessageBinding;
 import us.dot.its.jpo.ode.coder.OdeBsmDataCreatorHelper;
 import us.dot.its.jpo.ode.coder.OdeMapDataCreatorHelper;
 import us.dot.its.jpo.ode.coder.OdeSpatDataCreatorHelper;
 import us.dot.its.jpo.ode.coder.OdeSsmDataCreatorHelper;
 import us.dot.its.jpo.ode.coder.OdeSrmDataCreatorHelper;
 import us.dot.its.jpo.ode.coder.OdePsmDataCreatorHelper;
-import us.dot.its.jpo.ode.context.AppContext;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.model.OdeAsn1Data;
 import us.dot.its.jpo.ode.model.OdeBsmData;
 import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
-import us.dot.its.jpo.ode.plugin.j2735.J2735DSRCmsgID;
 import us.dot.its.jpo.ode.traveler.TimTransmogrifier;
 import us.dot.its.jpo.ode.util.XmlUtils;
 import us.dot.its.jpo.ode.wrapper.AbstractSubscriberProcessor;
+import us.dot.its.jpo.ode.wrapper.MessageProcessingException;
 import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.TypedWorkerPools;
 import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmSerializer;
 
 public class Asn1DecodedDataRouter extends AbstractSubscriberProcessor<String, String> {
 
+	// message types in the order their workers are handed the records of a poll
+	private static final List<DecodedMessageBinding> WORKER_PRIORITY = List.of(DecodedMessageBinding.BSM,
+			DecodedMessageBinding.PSM, DecodedMessageBinding.SPAT, DecodedMessageBinding.SRM, DecodedMessageBinding.SSM,
+			DecodedMessageBinding.TIM, DecodedMessageBinding.MAP);
+	// the small high-rate messages safety applications wait for, given a lane
+	// more by default
+	private static final Set<DecodedMessageBinding> HIGH_PRIORITY = EnumSet.of(DecodedMessageBinding.BSM,
+			DecodedMessageBinding.PSM, DecodedMessageBinding.SPAT);
+
+	// headers scanned to pick the worker pool of a record, taken by its worker
+	// so the decoder output is scanned once
+	private final Map<ConsumerRecord<String, String>, DecodedDataHeader> scannedHeaders = new ConcurrentHashMap<>();
+
 	private Logger logger = LoggerFactory.getLogger(this.getClass());
 
 	private OdeProperties odeProperties;
@@ -53,104 +81,228 @@ public class Asn1DecodedDataRouter extends AbstractSubscriberProcessor<String, S
 	public Asn1DecodedDataRouter(OdeProperties odeProps) {
 		super();
 		this.odeProperties = odeProps;
-		this.bsmProducer = new MessageProducer<>(odeProps.getKafkaBrokers(), odeProps.getKafkaProducerType(), null,
-				OdeBsmSerializer.class.getName(), odeProperties.getKafkaTopicsDisabledSet());
-		this.timProducer = MessageProducer.defaultStringMessageProducer(odeProps.getKafkaBrokers(),
-				odeProps.getKafkaProducerType(), odeProperties.getKafkaTopicsDisabledSet());
-		this.spatProducer = MessageProducer.defaultStringMessageProducer(odeProps.getKafkaBrokers(),
-				odeProps.getKafkaProducerType(), odeProperties.getKafkaTopicsDisabledSet());
-		this.mapProducer = MessageProducer.defaultStringMessageProducer(odeProps.getKafkaBrokers(),
-				odeProps.getKafkaProducerType(), odeProperties.getKafkaTopicsDisabledSet());
-		this.ssmProducer = MessageProducer.defaultStringMessageProducer(odeProps.getKafkaBrokers(),
-				odeProps.getKafkaProducerType(), odeProperties.getKafkaTopicsDisabledSet());
-		this.srmProducer = MessageProducer.defaultStringMessageProducer(odeProps.getKafkaBrokers(),
-				odeProps.getKafkaProducerType(), odeProperties.getKafkaTopicsDisabledSet());
-		this.psmProducer = MessageProducer.defaultStringMessageProducer(odeProps.getKafkaBrokers(),
-				odeProps.getKafkaProducerType(), odeProperties.getKafkaTopicsDisabledSet());
+		this.bsmProducer = MessageProducerRegistry.producer(odeProps, ProducerPipeline.DECODED,
+				OdeBsmSerializer.class.getName());
+		this.timProducer = MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.DECODED);
+		this.spatProducer = MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.DECODED);
+		this.mapProducer = MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.DECODED);
+		this.ssmProducer = MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.DECODED);
+		this.srmProducer = MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.DECODED);
+		this.psmProducer = MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.DECODED);
+		Map<String, Integer> workers = odeProps.getDecodedDataWorkers();
+		if (!workers.isEmpty()) {
+			for (String type : workers.keySet()) {
+				if (WORKER_PRIORITY.stream().noneMatch(binding -> binding.name().equals(type)))
+					logger.warn("Ignoring the workers of unknown decoded message type {}", type);
+			}
+			logger.info("Routing decoded messages on worker pools per message type {}", workers);
+			setTypedWorkerPools(workerPools(workers, this::bindingOf));
+		}
+	}
+
+	/**
+	 * Worker pools of the message types, the small high-rate messages safety
+	 * applications wait for first. Types without configured threads get one,
+	 * or two for those high-rate messages.
+	 */
+	static TypedWorkerPools<String, String, DecodedMessageBinding> workerPools(Map<String, Integer> threads,
+			Function<ConsumerRecord<String, String>, DecodedMessageBinding> typeOf) {
+		TypedWorkerPools<String, String, DecodedMessageBinding> pools = new TypedWorkerPools<>(
+				Asn1DecodedDataRouter.class.getSimpleName(), typeOf);
+		for (DecodedMessageBinding binding : WORKER_PRIORITY) {
+			int defaultThreads = HIGH_PRIORITY.contains(binding) ? 2 : 1;
+			pools.add(binding, threads.getOrDefault(binding.name(), defaultThreads));
+		}
+		return pools;
+	}
+
+	/**
+	 * Scans the header of the record for its worker to take.
+	 *
+	 * @return the binding of the message type of the record, or null if its
+	 *         type is not routed
+	 */
+	DecodedMessageBinding bindingOf(ConsumerRecord<String, String> consumerRecord) {
+		DecodedDataHeader header = consumerRecord.value() != null ? DecodedDataHeader.scan(consumerRecord.value())
+				: null;
+		if (header == null)
+			return null;
+		scannedHeaders.put(consumerRecord, header);
+		return DecodedMessageBinding.forMessageId(header.getMessageId());
+	}
+
+	@Override
+	public Map<TopicPartition, Long> process(ConsumerRecords<String, String> consumerRecords)
+			throws MessageProcessingException {
+		try {
+			return super.process(consumerRecords);
+		} finally {
+			// left by the records not processed, after a failure
+			if (!scannedHeaders.isEmpty()) {
+				for (ConsumerRecord<String, String> consumerRecord : consumerRecords)
+					scannedHeaders.remove(consumerRecord);
+			}
+		}
 	}
 
 	@Override
 	public Object process(String consumedData) {
 		try {
-			JSONObject consumed = XmlUtils.toJSONObject(consumedData).getJSONObject(OdeAsn1Data.class.getSimpleName());
-			int messageId = consumed.getJSONObject(AppContext.PAYLOAD_STRING).getJSONObject(AppContext.DATA_STRING)
-					.getJSONObject("MessageFrame").getInt("messageId");
-
-			RecordType recordType = RecordType
-					.valueOf(consumed.getJSONObject(AppContext.METADATA_STRING).getString("recordType"));
-
-			if (messageId == J2735DSRCmsgID.BasicSafetyMessage.getMsgID()) {
-				// ODE-518/ODE-604 Demultiplex the messages to appropriate topics based on the
-				// "recordType"
-				OdeBsmData odeBsmData = OdeBsmDataCreatorHelper.createOdeBsmData(consumedData);
-				if (recordType == RecordType.bsmLogDuringEvent) {
-					bsmProducer.send(odeProperties.getKafkaTopicOdeBsmDuringEventPojo(), getRecord().key(), odeBsmData);
-				} else if (recordType == RecordType.rxMsg) {
-					bsmProducer.send(odeProperties.getKafkaTopicOdeBsmRxPojo(), getRecord().key(), odeBsmData);
-				} else if (recordType == RecordType.bsmTx) {
-					bsmProducer.send(odeProperties.getKafkaTopicOdeBsmTxPojo(), getRecord().key(), odeBsmData);
-				}
-				// Send all BSMs also to OdeBsmPojo
-				bsmProducer.send(odeProperties.getKafkaTopicOdeBsmPojo(), getRecord().key(), odeBsmData);
-				logger.debug("Submitted to BSM Pojo topic");
-			} else if (messageId == J2735DSRCmsgID.TravelerInformation.getMsgID()) {
-				String odeTimData = TimTransmogrifier.createOdeTimData(consumed).toString();
-				if (recordType == RecordType.dnMsg) {
-					timProducer.send(odeProperties.getKafkaTopicOdeDNMsgJson(), getRecord().key(), odeTimData);
-				} else if (recordType == RecordType.rxMsg) {
-					timProducer.send(odeProperties.getKafkaTopicOdeTimRxJson(), getRecord().key(), odeTimData);
-				}
-				// Send all TIMs also to OdeTimJson
-				timProducer.send(odeProperties.getKafkaTopicOdeTimJson(), getRecord().key(), odeTimData);
-				logger.debug("Submitted to TIM Pojo topic");
-			} else if (messageId == J2735DSRCmsgID.SPATMessage.getMsgID()) {
-				String odeSpatData = OdeSpatDataCreatorHelper.createOdeSpatData(consumedData).toString();
-				if (recordType == RecordType.dnMsg) {
-					spatProducer.send(odeProperties.getKafkaTopicOdeDNMsgJson(), getRecord().key(), odeSpatData);
-				} else if (recordType == RecordType.rxMsg) {
-					spatProducer.send(odeProperties.getKafkaTopicOdeSpatRxJson(), getRecord().key(), odeSpatData);
-				} else if (recordType == RecordType.spatTx) {
-					spatProducer.send(odeProperties.getKafkaTopicOdeSpatTxPojo(), getRecord().key(), odeSpatData);
-				}
-				// Send all SPATs also to OdeSpatJson
-				spatProducer.send(odeProperties.getKafkaTopicOdeSpatJson(), getRecord().key(), odeSpatData);
-				logger.debug("Submitted to SPAT Pojo topic");
-			} else if (messageId == J2735DSRCmsgID.MAPMessage.getMsgID()) {
-				String odeMapData = OdeMapDataCreatorHelper.createOdeMapData(consumedData).toString();
-				if (recordType == RecordType.mapTx) {
-					mapProducer.send(odeProperties.getKafkaTopicOdeMapTxPojo(), getRecord().key(), odeMapData);
-				}
-				// Send all Map also to OdeMapJson
-				mapProducer.send(odeProperties.getKafkaTopicOdeMapJson(), getRecord().key(), odeMapData);
-				logger.debug("Submitted to MAP Pojo topic");
-			} else if (messageId == J2735DSRCmsgID.SSMMessage.getMsgID()) {
-				String odeSsmData = OdeSsmDataCreatorHelper.createOdeSsmData(consumedData).toString();
-				if (recordType == RecordType.ssmTx) {
-					ssmProducer.send(odeProperties.getKafkaTopicOdeSsmPojo(), getRecord().key(), odeSsmData);
-				}
-				// Send all SSMs also to OdeSsmJson
-				ssmProducer.send(odeProperties.getKafkaTopicOdeSsmJson(), getRecord().key(), odeSsmData);
-				logger.debug("Submitted to SSM Pojo topic");
-			} else if (messageId == J2735DSRCmsgID.SRMMessage.getMsgID()) {
-				String odeSrmData = OdeSrmDataCreatorHelper.createOdeSrmData(consumedData).toString();
-				if (recordType == RecordType.srmTx) {
-					srmProducer.send(odeProperties.getKafkaTopicOdeSrmTxPojo(), getRecord().key(), odeSrmData);
+			ConsumerRecord<String, String> consumerRecord = getRecord();
+			DecodedDataHeader header = consumerRecord != null ? scannedHeaders.remove(consumerRecord) : null;
+			if (header == null)
+				header = DecodedDataHeader.scan(consumedData);
+			if (header == null || header.getRecordType() == null) {
+				logger.error("Decoded data has no messageId or known recordType: {}", consumedData);
+				return null;
+			}
+			DecodedMessageBinding binding = DecodedMessageBinding.forMessageId(header.getMessageId());
+			if (binding == null) {
+				logger.debug("Message ID {} is not routed", header.getMessageId());
+				return null;
+			}
+
+			// dropped before any parsing when none of its topics are enabled
+			List<String> topics = topics(odeProperties, binding, header.getRecordType());
+			topics.removeAll(odeProperties.getKafkaTopicsDisabledSet());
+			if (topics.isEmpty()) {
+				logger.debug("All topics of {} {} are disabled", binding, header.getRecordType());
+				return null;
+			}
+
+			// the one parse of the decoder output, shared by the builders
+			ObjectNode consumed = XmlUtils.toObjectNode(consumedData);
+			String key = consumerRecord.key();
+
+			if (binding == DecodedMessageBinding.BSM) {
+				OdeBsmData odeBsmData = OdeBsmDataCreatorHelper.createOdeBsmData(consumed);
+				for (String topic : topics) {
+					bsmProducer.send(topic, key, odeBsmData);
 				}
-				// Send all SRMs also to OdeSrmJson
-				srmProducer.send(odeProperties.getKafkaTopicOdeSrmJson(), getRecord().key(), odeSrmData);
-				logger.debug("Submitted to SRM Pojo topic");
-			} else if (messageId == J2735DSRCmsgID.PersonalSafetyMessage.getMsgID()) {
-				String odePsmData = OdePsmDataCreatorHelper.createOdePsmData(consumedData).toString();
-				if (recordType == RecordType.psmTx) {
-					psmProducer.send(odeProperties.getKafkaTopicOdePsmTxPojo(), getRecord().key(), odePsmData);
+			} else {
+				String odeData = createOdeData(binding, consumed);
+				MessageProducer<String, String> producer = stringProducer(binding);
+				for (String topic : topics) {
+					producer.send(topic, key, odeData);
 				}
-				// Send all PSMs also to OdePsmJson
-				psmProducer.send(odeProperties.getKafkaTopicOdePsmJson(), getRecord().key(), odePsmData);
-				logger.debug("Submitted to PSM Pojo topic");
 			}
+			logger.debug("Submitted {} to {}", binding, topics);
 		} catch (Exception e) {
 			logger.error("Failed to route received data: " + consumedData, e);
 		}
 		return null;
 	}
+
+	/**
+	 * The topics a decoded message is published to, by message type and record
+	 * type, enabled or not.
+	 */
+	static List<String> topics(OdeProperties odeProperties, DecodedMessageBinding binding, RecordType recordType) {
+		List<String> topics = new ArrayList<>(2);
+		switch (binding) {
+		case BSM:
+			// ODE-518/ODE-604 Demultiplex the messages to appropriate topics based on the
+			// "recordType"
+			if (recordType == RecordType.bsmLogDuringEvent) {
+				topics.add(odeProperties.getKafkaTopicOdeBsmDuringEventPojo());
+			} else if (recordType == RecordType.rxMsg) {
+				topics.add(odeProperties.getKafkaTopicOdeBsmRxPojo());
+			} else if (recordType == RecordType.bsmTx) {
+				topics.add(odeProperties.getKafkaTopicOdeBsmTxPojo());
+			}
+			// Send all BSMs also to OdeBsmPojo
+			topics.add(odeProperties.getKafkaTopicOdeBsmPojo());
+			break;
+		case TIM:
+			if (recordType == RecordType.dnMsg) {
+				topics.add(odeProperties.getKafkaTopicOdeDNMsgJson());
+			} else if (recordType == RecordType.rxMsg) {
+				topics.add(odeProperties.getKafkaTopicOdeTimRxJson());
+			}
+			// Send all TIMs also to OdeTimJson
+			topics.add(odeProperties.getKafkaTopicOdeTimJson());
+			break;
+		case SPAT:
+			if (recordType == RecordType.dnMsg) {
+				topics.add(odeProperties.getKafkaTopicOdeDNMsgJson());
+			} else if (recordType == RecordType.rxMsg) {
+				topics.add(odeProperties.getKafkaTopicOdeSpatRxJson());
+			} else if (recordType == RecordType.spatTx) {
+				topics.add(odeProperties.getKafkaTopicOdeSpatTxPojo());
+			}
+			// Send all SPATs also to OdeSpatJson
+			topics.add(odeProperties.getKafkaTopicOdeSpatJson());
+			break;
+		case MAP:
+			if (recordType == RecordType.mapTx) {
+				topics.add(odeProperties.getKafkaTopicOdeMapTxPojo());
+			}
+			// Send all Map also to OdeMapJson
+			topics.add(odeProperties.getKafkaTopicOdeMapJson());
+			break;
+		case SSM:
+			if (recordType == RecordType.ssmTx) {
+				topics.add(odeProperties.getKafkaTopicOdeSsmPojo());
+			}
+			// Send all SSMs also to OdeSsmJson
+			topics.add(odeProperties.getKafkaTopicOdeSsmJson());
+			break;
+		case SRM:
+			if (recordType == RecordType.srmTx) {
+				topics.add(odeProperties.getKafkaTopicOdeSrmTxPojo());
+			}
+			// Send all SRMs also to OdeSrmJson
+			topics.add(odeProperties.getKafkaTopicOdeSrmJson());
+			break;
+		case PSM:
+			if (recordType == RecordType.psmTx) {
+				topics.add(odeProperties.getKafkaTopicOdePsmTxPojo());
+			}
+			// Send all PSMs also to OdePsmJson
+			topics.add(odeProperties.getKafkaTopicOdePsmJson());
+			break;
+		}
+		return topics;
+	}
+
+	/**
+	 * The JSON published for the messages other than BSMs, which go to their POJO
+	 * topics.
+	 */
+	static String createOdeData(DecodedMessageBinding binding, ObjectNode consumed) {
+		switch (binding) {
+		case TIM:
+			return TimTransmogrifier.createOdeTimData((ObjectNode) consumed.get(OdeAsn1Data.class.getSimpleName()))
+					.toString();
+		case SPAT:
+			return OdeSpatDataCreatorHelper.createOdeSpatData(consumed).toString();
+		case MAP:
+			return OdeMapDataCreatorHelper.createOdeMapData(consumed).toString();
+		case SSM:
+			return OdeSsmDataCreatorHelper.createOdeSsmData(consumed).toString();
+		case SRM:
+			return OdeSrmDataCreatorHelper.createOdeSrmData(consumed).toString();
+		case PSM:
+			return OdePsmDataCreatorHelper.createOdePsmData(consumed).toString();
+		default:
+			throw new IllegalArgumentException(binding + " is not published as JSON");
+		}
+	}
+
+	private MessageProducer<String, String> stringProducer(DecodedMessageBinding binding) {
+		switch (binding) {
+		case TIM:
+			return timProducer;
+		case SPAT:
+			return spatProducer;
+		case MAP:
+			return mapProducer;
+		case SSM:
+			return ssmProducer;
+		case SRM:
+			return srmProducer;
+		default:
+			return psmProducer;
+		}
+	}
 }
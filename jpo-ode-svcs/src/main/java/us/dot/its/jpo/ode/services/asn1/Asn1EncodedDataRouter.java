@@ -27,6 +27,8 @@ import org.slf4j.LoggerFactory;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.context.AppContext;
 import us.dot.its.jpo.ode.eventlog.EventLogger;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.model.OdeAsn1Data;
 import us.dot.its.jpo.ode.plugin.ServiceRequest;
 import us.dot.its.jpo.ode.services.asn1.Asn1CommandManager.Asn1CommandManagerException;
@@ -69,8 +71,7 @@ public class Asn1EncodedDataRouter extends AbstractSubscriberProcessor<String, S
 
       this.odeProperties = odeProperties;
 
-      this.stringMsgProducer = MessageProducer.defaultStringMessageProducer(odeProperties.getKafkaBrokers(),
-            odeProperties.getKafkaProducerType(), this.odeProperties.getKafkaTopicsDisabledSet());
+      this.stringMsgProducer = MessageProducerRegistry.stringProducer(odeProperties, ProducerPipeline.DEPOSIT);
 
       this.asn1CommandManager = new Asn1CommandManager(odeProperties);
 
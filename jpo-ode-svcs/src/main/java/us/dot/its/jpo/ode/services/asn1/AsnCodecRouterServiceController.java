@@ -21,6 +21,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.kafka.MessageConsumerFactory;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
 
 /**
@@ -43,10 +44,8 @@ public class AsnCodecRouterServiceController {
 
       Asn1DecodedDataRouter decoderRouter = new Asn1DecodedDataRouter(odeProps);
 
-      MessageConsumer<String, String> asn1DecoderConsumer = MessageConsumer.defaultStringMessageConsumer(
-         odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), decoderRouter);
-
-      asn1DecoderConsumer.setName("Asn1DecoderConsumer");
+      MessageConsumer<String, String> asn1DecoderConsumer = MessageConsumerFactory.stringConsumer(
+         odeProps, this.getClass().getSimpleName(), "Asn1DecoderConsumer", decoderRouter);
       decoderRouter.start(asn1DecoderConsumer, odeProps.getKafkaTopicAsn1DecoderOutput());
 
       // asn1_codec Encoder Routing
@@ -54,10 +53,8 @@ public class AsnCodecRouterServiceController {
 
       Asn1EncodedDataRouter encoderRouter = new Asn1EncodedDataRouter(odeProps);
 
-      MessageConsumer<String, String> encoderConsumer = MessageConsumer.defaultStringMessageConsumer(
-         odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), encoderRouter);
-
-      encoderConsumer.setName("Asn1EncoderConsumer");
+      MessageConsumer<String, String> encoderConsumer = MessageConsumerFactory.stringConsumer(
+         odeProps, this.getClass().getSimpleName(), "Asn1EncoderConsumer", encoderRouter);
       encoderRouter.start(encoderConsumer, odeProps.getKafkaTopicAsn1EncoderOutput());
    }
 }
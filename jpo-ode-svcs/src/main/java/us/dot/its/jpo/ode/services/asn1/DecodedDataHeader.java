@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2018 572682
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package us.dot.its.jpo.ode.services.asn1;
+
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+
+/**
+ * The messageId and metadata recordType of an asn1_codec decoder output, all
+ * the router needs to know where the message goes. They are scanned from the
+ * raw XML in one pass that stops once both are found, without parsing the
+ * document or copying any of it.
+ */
+public final class DecodedDataHeader {
+
+	private static final String MESSAGE_ID = "messageId>";
+	private static final String RECORD_TYPE = "recordType>";
+
+	private static final RecordType[] RECORD_TYPES = RecordType.values();
+
+	private final int messageId;
+	private final RecordType recordType;
+
+	private DecodedDataHeader(int messageId, RecordType recordType) {
+		this.messageId = messageId;
+		this.recordType = recordType;
+	}
+
+	/**
+	 * @return the header of the decoder output, or null if it has no messageId
+	 *         or recordType element, or the messageId is not a number
+	 */
+	public static DecodedDataHeader scan(String xml) {
+		int messageId = -1;
+		RecordType recordType = null;
+		boolean recordTypeFound = false;
+
+		int i = xml.indexOf('<');
+		while (i >= 0 && (messageId < 0 || !recordTypeFound)) {
+			int start = i + 1;
+			if (messageId < 0 && xml.startsWith(MESSAGE_ID, start)) {
+				messageId = parseMessageId(xml, start + MESSAGE_ID.length());
+				if (messageId < 0)
+					return null;
+			} else if (!recordTypeFound && xml.startsWith(RECORD_TYPE, start)) {
+				recordType = parseRecordType(xml, start + RECORD_TYPE.length());
+				recordTypeFound = true;
+			}
+			i = xml.indexOf('<', start);
+		}
+
+		if (messageId < 0 || !recordTypeFound)
+			return null;
+		return new DecodedDataHeader(messageId, recordType);
+	}
+
+	/**
+	 * @return the number at the start of the element text, or -1 if there is none
+	 */
+	private static int parseMessageId(String xml, int from) {
+		int i = skipWhitespace(xml, from, xml.length());
+		int value = -1;
+		for (; i < xml.length() && Character.isDigit(xml.charAt(i)); i++) {
+			value = (value < 0 ? 0 : value * 10) + (xml.charAt(i) - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * @return the record type named by the element text, or null if none is
+	 */
+	private static RecordType parseRecordType(String xml, int from) {
+		int end = xml.indexOf('<', from);
+		if (end < 0)
+			return null;
+		int start = skipWhitespace(xml, from, end);
+		while (end > start && Character.isWhitespace(xml.charAt(end - 1)))
+			end--;
+		for (RecordType type : RECORD_TYPES) {
+			String name = type.name();
+			if (name.length() == end - start && xml.startsWith(name, start))
+				return type;
+		}
+		return null;
+	}
+
+	private static int skipWhitespace(String xml, int from, int end) {
+		int i = from;
+		while (i < end && Character.isWhitespace(xml.charAt(i)))
+			i++;
+		return i;
+	}
+
+	public int getMessageId() {
+		return messageId;
+	}
+
+	/**
+	 * @return the record type, or null if the recordType element names none
+	 */
+	public RecordType getRecordType() {
+		return recordType;
+	}
+}
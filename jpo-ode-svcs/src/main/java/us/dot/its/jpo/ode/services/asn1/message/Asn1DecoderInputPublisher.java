@@ -0,0 +1,99 @@
+package us.dot.its.jpo.ode.services.asn1.message;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import us.dot.its.jpo.ode.coder.StringPublisher;
+import us.dot.its.jpo.ode.model.Asn1Encoding;
+import us.dot.its.jpo.ode.model.Asn1Encoding.EncodingRule;
+import us.dot.its.jpo.ode.model.OdeAsn1Data;
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeData;
+import us.dot.its.jpo.ode.model.OdeLogMetadata;
+import us.dot.its.jpo.ode.uper.UperUtil;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+import us.dot.its.jpo.ode.util.XmlUtils;
+
+/**
+ * Publishes encoded messages as XML to the ASN.1 codec decoder input topic.
+ * Used by the consumers of the raw encoded JSON topics and, in direct decode
+ * mode, by the UDP receivers themselves so the messages they build skip the
+ * raw encoded topic and its JSON round trip.
+ */
+public class Asn1DecoderInputPublisher {
+
+   /**
+    * Kafka header marking a record a UDP receiver mirrored to a raw encoded
+    * topic after sending it to the decoder itself. The raw topic consumers skip
+    * these records so the message is not decoded twice.
+    */
+   public static final String DIRECT_DECODE_HEADER = "odeDirectDecode";
+   public static final List<Header> DIRECT_DECODE_HEADERS = List
+         .of(new RecordHeader(DIRECT_DECODE_HEADER, "true".getBytes(StandardCharsets.UTF_8)));
+
+   private static final Logger logger = LoggerFactory.getLogger(Asn1DecoderInputPublisher.class);
+
+   // the mapper is thread safe once configured
+   private static final XmlUtils xmlUtils = new XmlUtils();
+
+   private final StringPublisher codecPublisher;
+   private final String decoderInputTopic;
+
+   /**
+    * Publishes to the decoder input topic configured in the properties of the
+    * publisher.
+    */
+   public Asn1DecoderInputPublisher(StringPublisher codecPublisher) {
+      this(codecPublisher, null);
+   }
+
+   public Asn1DecoderInputPublisher(StringPublisher codecPublisher, String decoderInputTopic) {
+      this.codecPublisher = codecPublisher;
+      this.decoderInputTopic = decoderInputTopic;
+   }
+
+   public void publish(OdeData odeData) {
+      try {
+         String xml = xmlUtils.toXml(odeData);
+         logger.debug("Sending encoded message payload XML to ASN1 codec {}", xml);
+         codecPublisher.publish(xml, decoderInputTopic != null ? decoderInputTopic
+               : codecPublisher.getOdeProperties().getKafkaTopicAsn1DecoderInput());
+      } catch (JsonProcessingException e) {
+         logger.error("Error sending encoded message payload XML to ASN1 codec {}", e.getMessage());
+      }
+   }
+
+   /**
+    * Builds the decoder input of a message received over UDP exactly as the
+    * raw encoded JSON consumers do: the MessageFrame is encoded as the
+    * unsecuredData of the message and everything before its start flag,
+    * including a signed 1609.2 header, is dropped.
+    *
+    * @param metadata metadata of the message, which the encoding is added to
+    * @param payload  payload bytes of the message
+    * @return the decoder input, or null if the payload does not contain the
+    *         start flag of the message type
+    */
+   public static OdeAsn1Data toDecoderInput(OdeLogMetadata metadata, byte[] payload,
+         SupportedMessageTypes msgType) {
+      ByteBuffer found = UperUtil.findPayload(payload, 0, payload.length, msgType);
+      if (found == null)
+         return null;
+
+      // the payload found keeps a signed header preceding the start flag
+      int frameStart = UperUtil.indexOf(payload, found.position(), found.limit(),
+            UperUtil.getStartFlagBytes(msgType));
+      metadata.addEncoding(new Asn1Encoding("unsecuredData", "MessageFrame", EncodingRule.UPER));
+      return new OdeAsn1Data(metadata,
+            new OdeAsn1Payload(Arrays.copyOfRange(payload, frameStart, found.limit())));
+   }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.kafka.MessageConsumerFactory;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
 
 /***
@@ -26,61 +27,54 @@ public class AsnCodecMessageServiceController {
 		logger.info("Send encoded BSM to ASN.1 Decoder");
 		Asn1DecodeBSMJSON asn1DecodeBSMJSON = new Asn1DecodeBSMJSON(odeProps);
 
-		MessageConsumer<String, String> asn1RawBSMJSONConsumer = MessageConsumer.defaultStringMessageConsumer(
-				odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), asn1DecodeBSMJSON);
-		asn1RawBSMJSONConsumer.setName("asn1DecodeBSMJSON");
+		MessageConsumer<String, String> asn1RawBSMJSONConsumer = MessageConsumerFactory.stringConsumer(
+				odeProps, this.getClass().getSimpleName(), "asn1DecodeBSMJSON", asn1DecodeBSMJSON);
 		asn1DecodeBSMJSON.start(asn1RawBSMJSONConsumer, odeProps.getKafkaTopicOdeRawEncodedBSMJson());
 
 		// SPAT
 		logger.info("Send encoded SPAT to ASN.1 Decoder");
 		Asn1DecodeSPATJSON asn1DecodeSPATJSON = new Asn1DecodeSPATJSON(odeProps);
 
-		MessageConsumer<String, String> asn1RawSPATJSONConsumer = MessageConsumer.defaultStringMessageConsumer(
-				odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), asn1DecodeSPATJSON);
-		asn1RawSPATJSONConsumer.setName("asn1DecodeSPATJSON");
+		MessageConsumer<String, String> asn1RawSPATJSONConsumer = MessageConsumerFactory.stringConsumer(
+				odeProps, this.getClass().getSimpleName(), "asn1DecodeSPATJSON", asn1DecodeSPATJSON);
 		asn1DecodeSPATJSON.start(asn1RawSPATJSONConsumer, odeProps.getKafkaTopicOdeRawEncodedSPATJson());
 
 		// SSM
 		logger.info("Send encoded SSM to ASN.1 Decoder");
 		Asn1DecodeSSMJSON asn1DecodeSSMJSON = new Asn1DecodeSSMJSON(odeProps);
 
-		MessageConsumer<String, String> asn1RawSSMJSONConsumer = MessageConsumer.defaultStringMessageConsumer(
-				odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), asn1DecodeSSMJSON);
-		asn1RawSSMJSONConsumer.setName("asn1DecodeSSMJSON");
+		MessageConsumer<String, String> asn1RawSSMJSONConsumer = MessageConsumerFactory.stringConsumer(
+				odeProps, this.getClass().getSimpleName(), "asn1DecodeSSMJSON", asn1DecodeSSMJSON);
 		asn1DecodeSSMJSON.start(asn1RawSSMJSONConsumer, odeProps.getKafkaTopicOdeRawEncodedSSMJson());
 
 		// SRM
 		logger.info("Send encoded SRM to ASN.1 Decoder");
 		Asn1DecodeSRMJSON asn1DecodeSRMJSON = new Asn1DecodeSRMJSON(odeProps);
 
-		MessageConsumer<String, String> asn1RawSRMJSONConsumer = MessageConsumer.defaultStringMessageConsumer(
-				odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), asn1DecodeSRMJSON);
-		asn1RawSRMJSONConsumer.setName("asn1DecodeSRMJSON");
+		MessageConsumer<String, String> asn1RawSRMJSONConsumer = MessageConsumerFactory.stringConsumer(
+				odeProps, this.getClass().getSimpleName(), "asn1DecodeSRMJSON", asn1DecodeSRMJSON);
 		asn1DecodeSRMJSON.start(asn1RawSRMJSONConsumer, odeProps.getKafkaTopicOdeRawEncodedSRMJson());
 
 		// TIM
 		logger.info("Send encoded TIM to ASN.1 Decoder");
 		Asn1DecodeTIMJSON asn1DecodeTIMJSON = new Asn1DecodeTIMJSON(odeProps);
 
-		MessageConsumer<String, String> asn1RawTIMJSONConsumer = MessageConsumer.defaultStringMessageConsumer(
-				odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), asn1DecodeTIMJSON);
-		asn1RawTIMJSONConsumer.setName("asn1DecodeTIMJSON");
+		MessageConsumer<String, String> asn1RawTIMJSONConsumer = MessageConsumerFactory.stringConsumer(
+				odeProps, this.getClass().getSimpleName(), "asn1DecodeTIMJSON", asn1DecodeTIMJSON);
 		asn1DecodeTIMJSON.start(asn1RawTIMJSONConsumer, odeProps.getKafkaTopicOdeRawEncodedTIMJson());
 
 		//MAP
 		logger.info("Send encoded MAP to ASN.1 Decoder");
 		Asn1DecodeMAPJSON asn1DecodeMAPSON = new Asn1DecodeMAPJSON(odeProps);
-		MessageConsumer<String, String> asn1RawMAPJSONConsumer = MessageConsumer.defaultStringMessageConsumer(
-				   odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), asn1DecodeMAPSON);
-		asn1RawMAPJSONConsumer.setName("asn1DecodeMAPJSON");				      
+		MessageConsumer<String, String> asn1RawMAPJSONConsumer = MessageConsumerFactory.stringConsumer(
+				odeProps, this.getClass().getSimpleName(), "asn1DecodeMAPJSON", asn1DecodeMAPSON);
 		asn1DecodeMAPSON.start(asn1RawMAPJSONConsumer, odeProps.getKafkaTopicOdeRawEncodedMAPJson());
 
 		//PSM
 		logger.info("Send encoded PSM to ASN.1 Decoder");
 		Asn1DecodePSMJSON asn1DecodePSMSON = new Asn1DecodePSMJSON(odeProps);
-		MessageConsumer<String, String> asn1RawPSMJSONConsumer = MessageConsumer.defaultStringMessageConsumer(
-					odeProps.getKafkaBrokers(), this.getClass().getSimpleName(), asn1DecodePSMSON);
-		asn1RawPSMJSONConsumer.setName("asn1DecodePSMJSON");				      
+		MessageConsumer<String, String> asn1RawPSMJSONConsumer = MessageConsumerFactory.stringConsumer(
+				odeProps, this.getClass().getSimpleName(), "asn1DecodePSMJSON", asn1DecodePSMSON);
 		asn1DecodePSMSON.start(asn1RawPSMJSONConsumer, odeProps.getKafkaTopicOdeRawEncodedPSMJson());
 	}
 }
@@ -16,9 +16,10 @@
 package us.dot.its.jpo.ode.services.json;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.util.JsonUtils;
 import us.dot.its.jpo.ode.wrapper.AbstractSubPubTransformer;
-import us.dot.its.jpo.ode.wrapper.MessageProducer;
 
 /* 
  * The MessageProcessor value type is String 
@@ -28,10 +29,7 @@ public class ToJsonConverter<V> extends AbstractSubPubTransformer<String, V, Str
     private boolean verbose;
 
     public ToJsonConverter(OdeProperties odeProps, boolean verbose, String outTopic) {
-        super(MessageProducer.defaultStringMessageProducer(
-           odeProps.getKafkaBrokers(),
-           odeProps.getKafkaProducerType(), 
-           odeProps.getKafkaTopicsDisabledSet()), outTopic);
+        super(MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.DECODED), outTopic);
         this.verbose = verbose;
     }
 
@@ -21,6 +21,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.kafka.MessageConsumerFactory;
 import us.dot.its.jpo.ode.wrapper.MessageConsumer;
 import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmDeserializer;
 
@@ -49,10 +50,9 @@ public class ToJsonServiceController {
       logger.info("Starting JSON converter, converting records from topic {} and publishing to topic {} ", fromTopic,
             jsonConverter.getOutputTopic());
 
-      MessageConsumer<String, V> consumer = new MessageConsumer<>(odeProperties.getKafkaBrokers(),
-            this.getClass().getSimpleName(), jsonConverter, serializerFQN);
-
-      consumer.setName(this.getClass().getName() + fromTopic + "Consumer");
+      MessageConsumer<String, V> consumer = MessageConsumerFactory.consumer(odeProperties,
+            this.getClass().getSimpleName(), this.getClass().getName() + fromTopic + "Consumer", jsonConverter,
+            serializerFQN);
       jsonConverter.start(consumer, fromTopic);
    }
 }
@@ -20,7 +20,6 @@ import java.text.SimpleDateFormat;
 import java.time.format.DateTimeParseException;
 import java.util.Date;
 
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +35,8 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.context.AppContext;
+import us.dot.its.jpo.ode.kafka.MessageProducerRegistry;
+import us.dot.its.jpo.ode.kafka.ProducerPipeline;
 import us.dot.its.jpo.ode.model.OdeMsgMetadata.GeneratedBy;
 import us.dot.its.jpo.ode.model.OdeMsgPayload;
 import us.dot.its.jpo.ode.model.OdeObject;
@@ -96,10 +97,9 @@ public class TimDepositController {
       this.serialIdJ2735 = new SerialId();
       this.serialIdOde = new SerialId();
 
-      this.stringMsgProducer = MessageProducer.defaultStringMessageProducer(odeProperties.getKafkaBrokers(),
-            odeProperties.getKafkaProducerType(), odeProperties.getKafkaTopicsDisabledSet());
-      this.timProducer = new MessageProducer<>(odeProperties.getKafkaBrokers(), odeProperties.getKafkaProducerType(),
-            null, OdeTimSerializer.class.getName(), odeProperties.getKafkaTopicsDisabledSet());
+      this.stringMsgProducer = MessageProducerRegistry.stringProducer(odeProperties, ProducerPipeline.DEPOSIT);
+      this.timProducer = MessageProducerRegistry.producer(odeProperties, ProducerPipeline.DEPOSIT,
+            OdeTimSerializer.class.getName());
 
       this.dataSigningEnabledSDW = System.getenv("DATA_SIGNING_ENABLED_SDW") != null && !System.getenv("DATA_SIGNING_ENABLED_SDW").isEmpty()
       ? Boolean.parseBoolean(System.getenv("DATA_SIGNING_ENABLED_SDW"))
@@ -240,9 +240,9 @@ public class TimDepositController {
          xmlMsg = TimTransmogrifier.convertToXml(asd, encodableTid, timMetadata, serialIdJ2735);
          logger.debug("XML representation: {}", xmlMsg);
 
-         JSONObject jsonMsg = XmlUtils.toJSONObject(xmlMsg);
+         ObjectNode jsonMsg = XmlUtils.toObjectNode(xmlMsg);
 
-         String j2735Tim = TimTransmogrifier.createOdeTimData(jsonMsg.getJSONObject(AppContext.ODE_ASN1_DATA))
+         String j2735Tim = TimTransmogrifier.createOdeTimData((ObjectNode) jsonMsg.get(AppContext.ODE_ASN1_DATA))
                .toString();
 
          stringMsgProducer.send(odeProperties.getKafkaTopicAsn1EncoderInput(), null, xmlMsg);
@@ -247,4 +247,19 @@ public class TimTransmogrifier {
       return timData;
    }
 
+   /**
+    * Same as {@link #createOdeTimData(JSONObject)} for the
+    * <code>OdeAsn1Data</code> of the decoder output parsed into a Jackson tree.
+    */
+   public static ObjectNode createOdeTimData(ObjectNode timData) {
+
+      ObjectNode metadata = (ObjectNode) timData.get(AppContext.METADATA_STRING);
+      metadata.put("payloadType", OdeTimPayload.class.getName());
+      metadata.remove(AppContext.ENCODINGS_STRING);
+
+      ObjectNode payload = (ObjectNode) timData.get(AppContext.PAYLOAD_STRING);
+      payload.put(AppContext.DATA_TYPE_STRING, TravelerMessageFromHumanToAsnConverter.TRAVELER_INFORMATION);
+      return timData;
+   }
+
 }
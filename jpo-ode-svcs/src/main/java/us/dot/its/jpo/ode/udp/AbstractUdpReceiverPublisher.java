@@ -1,8 +1,19 @@
 package us.dot.its.jpo.ode.udp;
 
-import java.net.DatagramSocket;
+import java.io.IOException;
 import java.net.DatagramPacket;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.tomcat.util.buf.HexUtils;
 import org.slf4j.Logger;
@@ -10,9 +21,25 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.coder.StringPublisher;
+import us.dot.its.jpo.ode.model.OdeAsn1Data;
 import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeLogMetadata;
+import us.dot.its.jpo.ode.services.asn1.message.Asn1DecoderInputPublisher;
+import us.dot.its.jpo.ode.uper.Ieee1609Envelope;
 import us.dot.its.jpo.ode.uper.UperUtil;
+import us.dot.its.jpo.ode.util.IsoTimestampClock;
+import us.dot.its.jpo.ode.util.JsonUtils;
 
+/**
+ * Base class of the UDP receivers. Each instance owns a
+ * {@link DatagramChannel} bound to its port and may be run by several reader
+ * threads at once. When more than one reader is configured and the platform
+ * supports SO_REUSEPORT, every reader gets its own channel bound to the same
+ * port so the kernel spreads the datagrams across them; otherwise the readers
+ * share the primary channel. Stopping the receiver closes every channel it
+ * opened, which ends the readers blocked on them and frees the port.
+ */
 public abstract class AbstractUdpReceiverPublisher implements Runnable {
 
    public class UdpReceiverException extends Exception {
@@ -24,16 +51,24 @@ public abstract class AbstractUdpReceiverPublisher implements Runnable {
    }
 
    private static Logger logger = LoggerFactory.getLogger(AbstractUdpReceiverPublisher.class);
-   protected DatagramSocket socket;
-
-   protected String senderIp;
-   protected int senderPort;
+   protected DatagramChannel channel;
 
    protected OdeProperties odeProperties;
    protected int port;
    protected int bufferSize;
+   protected int readerThreads;
+   protected UdpReceiverStats stats;
+   protected UdpPublishQueue publishQueue;
+   protected UdpIngressFilter ingressFilter;
+   protected Map<UperUtil.SupportedMessageTypes, UdpMetadataTemplate> metadataTemplates;
+   // created by the subclass constructors for their publisher, required in
+   // direct decode mode
+   protected Asn1DecoderInputPublisher decoderInputPublisher;
 
-   private boolean stopped = false;
+   private boolean reusePort;
+   private final AtomicBoolean primaryChannelClaimed = new AtomicBoolean(false);
+   private final List<DatagramChannel> channels = new CopyOnWriteArrayList<>();
+   private volatile boolean stopped = false;
 
    public boolean isStopped() {
       return stopped;
@@ -41,40 +76,301 @@ public abstract class AbstractUdpReceiverPublisher implements Runnable {
 
    public void setStopped(boolean stopped) {
       this.stopped = stopped;
+      if (stopped) {
+         closeChannels();
+         if (publishQueue != null)
+            publishQueue.stop();
+      }
+   }
+
+   private void closeChannels() {
+      for (DatagramChannel ch : channels) {
+         try {
+            ch.close();
+         } catch (IOException e) {
+            logger.warn("Error closing UDP channel on port {}", port, e);
+         }
+      }
+      channels.clear();
    }
 
    @Autowired
    public AbstractUdpReceiverPublisher(OdeProperties odeProps, int port, int bufferSize) {
+      this(odeProps, port, bufferSize, odeProps.getUdpReceiverThreads());
+   }
+
+   public AbstractUdpReceiverPublisher(OdeProperties odeProps, int port, int bufferSize, int readerThreads) {
       this.odeProperties = odeProps;
       this.port = port;
       this.bufferSize = bufferSize;
+      this.readerThreads = Math.max(1, readerThreads);
+      this.stats = UdpReceiverStats.forPort(port);
+      this.metadataTemplates = UdpMetadataTemplate.forAllTypes(odeProps);
+      this.ingressFilter = UdpIngressFilter.create(odeProps, stats);
+      if (odeProps.getUdpPublishQueueCapacity() > 0) {
+         this.publishQueue = new UdpPublishQueue(odeProps.getUdpPublishQueueCapacity(),
+               odeProps.getUdpPublishQueueOverflowPolicy(), odeProps.getUdpPublishWorkerThreads(), stats);
+      }
 
       try {
-         socket = new DatagramSocket(this.port);
-         logger.info("Created UDP socket bound to port {}", this.port);
-      } catch (SocketException e) {
+         channel = openChannel();
+         logger.info("Created UDP channel bound to port {} for {} reader thread(s)", this.port, this.readerThreads);
+      } catch (IOException e) {
          logger.error("Error creating socket with port " + this.port, e);
       }
    }
 
-   public OdeAsn1Payload getPayloadHexString(DatagramPacket packet, UperUtil.SupportedMessageTypes msgType) {
-      String startFlag = UperUtil.getStartFlag(msgType);
-      // extract the actual packet from the buffer
-      byte[] payload = packet.getData();
-      if (payload == null)
+   private DatagramChannel openChannel() throws IOException {
+      DatagramChannel ch = DatagramChannel.open();
+      try {
+         configureAndBind(ch);
+      } catch (IOException e) {
+         ch.close();
+         throw e;
+      }
+      channels.add(ch);
+      return ch;
+   }
+
+   private void configureAndBind(DatagramChannel ch) throws IOException {
+      if (readerThreads > 1 && ch.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+         ch.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+         reusePort = true;
+      }
+      int receiveBufferSize = odeProperties.getUdpSocketReceiveBufferSize();
+      if (receiveBufferSize > 0) {
+         ch.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+      }
+      ch.bind(new InetSocketAddress(port));
+   }
+
+   /**
+    * The first reader uses the channel opened by the constructor. Additional
+    * readers open their own SO_REUSEPORT channel when possible and fall back to
+    * sharing the primary channel.
+    */
+   private DatagramChannel claimChannel() {
+      if (primaryChannelClaimed.compareAndSet(false, true) || !reusePort) {
+         return channel;
+      }
+      try {
+         DatagramChannel ch = openChannel();
+         if (isStopped()) // stopped while it was being opened
+            closeChannels();
+         return ch;
+      } catch (IOException e) {
+         logger.error("Error opening additional reader channel on port {}, sharing the primary channel", port, e);
+         return channel;
+      }
+   }
+
+   @Override
+   public void run() {
+      if (channel == null) {
+         logger.error("No UDP channel bound to port {}, receiver will not start", port);
+         return;
+      }
+      if (odeProperties.isUdpDirectDecodeEnabled() && decoderInputPublisher == null) {
+         logger.error("No decoder input publisher for port {} in direct decode mode, receiver will not start", port);
+         return;
+      }
+
+      DatagramChannel readChannel = claimChannel();
+      logger.debug("{} started on port {}", this.getClass().getSimpleName(), port);
+
+      ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+
+      do {
+         try {
+            buffer.clear();
+            SocketAddress sender = readChannel.receive(buffer);
+            if (sender == null)
+               continue;
+
+            stats.markReceived();
+            if (buffer.position() == 0) {
+               logger.debug("Dropping empty packet from {} on port {}", sender, port);
+               stats.markDropped();
+               continue;
+            }
+            if (!buffer.hasRemaining()) {
+               stats.markOverrun();
+               logger.debug("Packet from {} filled the {} byte buffer on port {} and may be truncated", sender,
+                     bufferSize, port);
+            }
+
+            processPacket(new DatagramPacket(buffer.array(), buffer.position(), sender));
+         } catch (ClosedChannelException e) {
+            logger.info("UDP channel on port {} closed, stopping reader", port);
+            break;
+         } catch (Exception e) {
+            stats.markError();
+            logger.error("Error receiving packet", e);
+         }
+      } while (!isStopped());
+   }
+
+   /**
+    * Handles a single datagram. Called concurrently by every reader thread, so
+    * implementations must not keep per-packet state in fields.
+    */
+   protected abstract void processPacket(DatagramPacket packet) throws Exception;
+
+   /**
+    * Extracts the payload of the given message type from the received bytes of
+    * the packet, skipping the 1609.3 and unsecured 1609.2 headers. The packet is
+    * classified by the messageId found behind its headers, so packets of
+    * another type are dropped even if their headers happen to contain the start
+    * flag. Only the payload itself is copied.
+    * 
+    * @return the payload, or null if the packet does not carry a message of the
+    *         given type
+    */
+   public OdeAsn1Payload getPayload(DatagramPacket packet, UperUtil.SupportedMessageTypes msgType) {
+      byte[] payloadBytes = extractPayload(packet, msgType);
+      return payloadBytes != null ? new OdeAsn1Payload(payloadBytes) : null;
+   }
+
+   /**
+    * Same as {@link #getPayload(DatagramPacket, UperUtil.SupportedMessageTypes)}
+    * without wrapping the copied bytes.
+    */
+   protected byte[] extractPayload(DatagramPacket packet, UperUtil.SupportedMessageTypes msgType) {
+      Ieee1609Envelope envelope = Ieee1609Envelope.parse(packet.getData(), packet.getOffset(), packet.getLength());
+      if (envelope != null && envelope.getMessageId() != msgType.getMessageId()) {
+         logger.debug("Dropping message ID {} received on the {} port {}", envelope.getMessageId(), msgType, port);
+         stats.markDropped();
          return null;
-      // convert bytes to hex string and verify identity
-      String payloadHexString = HexUtils.toHexString(payload).toLowerCase();
-      if (payloadHexString.indexOf(startFlag) == -1)
+      }
+      return extractPayload(packet, envelope, msgType);
+   }
+
+   /**
+    * Copies the payload located by an already parsed envelope. Without an
+    * envelope the packet is searched for the start flag of the message type.
+    * Payloads rejected by the ingress filter, if one is configured, are
+    * dropped before they are copied.
+    */
+   protected byte[] extractPayload(DatagramPacket packet, Ieee1609Envelope envelope,
+         UperUtil.SupportedMessageTypes msgType) {
+      byte[] data = packet.getData();
+      int offset;
+      int length;
+      if (envelope != null) {
+         offset = envelope.getPayloadOffset();
+         length = envelope.getPayloadLength();
+      } else {
+         ByteBuffer payload = UperUtil.findPayload(data, packet.getOffset(), packet.getLength(), msgType);
+         if (payload == null) {
+            stats.markDropped();
+            return null;
+         }
+         offset = payload.position();
+         length = payload.remaining();
+      }
+
+      if (ingressFilter != null && !ingressFilter.accept(packet.getAddress(), data, offset, length)) {
+         logger.debug("Ingress filter dropped {} from {} on port {}", msgType, packet.getAddress(), port);
          return null;
-      
-      logger.debug("Full {} packet: {}", msgType, payloadHexString);
-      payloadHexString = UperUtil.stripDot3Header(payloadHexString, startFlag);
-      logger.debug("Stripped {} packet: {}", msgType, payloadHexString);
+      }
+
+      byte[] payloadBytes = Arrays.copyOfRange(data, offset, offset + length);
+      if (logger.isDebugEnabled()) {
+         logger.debug("Full {} packet: {}", msgType, HexUtils.toHexString(Arrays.copyOfRange(data,
+               packet.getOffset(), packet.getOffset() + packet.getLength())));
+         logger.debug("Stripped {} packet: {}", msgType, HexUtils.toHexString(payloadBytes));
+      }
+
+      return payloadBytes;
+   }
+
+   /**
+    * Starts the workers publishing the messages queued by the reader threads.
+    * Until they are started, or if the queue is disabled, messages are
+    * published on the reader thread.
+    */
+   public void startPublishWorkers(ThreadFactory threadFactory) {
+      if (publishQueue != null)
+         publishQueue.start(threadFactory);
+   }
+
+   /**
+    * Wraps the payload with the metadata of its message type and publishes it
+    * to the raw encoded topic of that type, through the publish queue when its
+    * workers are running. The received time is taken before the message is
+    * queued so it does not include the time spent waiting for a worker, and the
+    * payload is only encoded by the worker.
+    */
+   protected void publish(StringPublisher publisher, UperUtil.SupportedMessageTypes msgType,
+         byte[] payload, String senderIp) {
+      UdpMetadataTemplate template = metadataTemplates.get(msgType);
+      String receivedAt = IsoTimestampClock.systemUTC().now();
+      if (publishQueue != null && publishQueue.isRunning()) {
+         publishQueue.submit(() -> publishNow(publisher, template, payload, senderIp, receivedAt));
+      } else {
+         publishNow(publisher, template, payload, senderIp, receivedAt);
+      }
+   }
+
+   /**
+    * Publishes the message to its raw encoded topic, or in direct decode mode
+    * hands it to the decoder input topic and only mirrors it to the raw topic
+    * if asked to.
+    */
+   private void publishNow(StringPublisher publisher, UdpMetadataTemplate template, byte[] payloadBytes,
+         String senderIp, String receivedAt) {
+      OdeAsn1Payload payload = new OdeAsn1Payload(payloadBytes);
+      OdeLogMetadata metadata = template.createMetadata(payload, senderIp, receivedAt);
+      if (!odeProperties.isUdpDirectDecodeEnabled()) {
+         publisher.publish(JsonUtils.toJson(new OdeAsn1Data(metadata, payload), false), template.getRawEncodedTopic());
+         return;
+      }
+
+      if (odeProperties.isUdpDirectDecodeMirrorRawTopic()) {
+         publisher.publish(JsonUtils.toJson(new OdeAsn1Data(metadata, payload), false), template.getRawEncodedTopic(),
+               Asn1DecoderInputPublisher.DIRECT_DECODE_HEADERS);
+      }
+
+      OdeAsn1Data decoderInput = Asn1DecoderInputPublisher.toDecoderInput(metadata, payloadBytes,
+            template.getMessageType());
+      if (decoderInput == null) {
+         logger.debug("No {} start flag in payload from {} on port {}", template.getMessageType(), senderIp, port);
+         stats.markDropped();
+         return;
+      }
+      decoderInputPublisher.publish(decoderInput);
+   }
+
+   /**
+    * Handles a packet received on the dedicated port of a message type.
+    */
+   protected void publishPacket(StringPublisher publisher, UperUtil.SupportedMessageTypes msgType,
+         DatagramPacket packet) {
+      String senderIp = packet.getAddress().getHostAddress();
+      logger.debug("Packet received from {}:{}", senderIp, packet.getPort());
+
+      byte[] payload = extractPayload(packet, msgType);
+      if (payload == null)
+         return;
+
+      // Submit JSON to the OdeRawEncodedMessageJson Kafka Topic
+      publish(publisher, msgType, payload, senderIp);
+   }
+
+   public int getPort() {
+      return port;
+   }
+
+   public int getReaderThreads() {
+      return readerThreads;
+   }
+
+   public UdpPublishQueue getPublishQueue() {
+      return publishQueue;
+   }
 
-      OdeAsn1Payload timPayload = new OdeAsn1Payload(HexUtils.fromHexString(payloadHexString));
-      
-      return timPayload;
+   public UdpReceiverStats getStats() {
+      return stats;
    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+import us.dot.its.jpo.ode.OdeProperties;
+
+/**
+ * Drops flood traffic and replayed copies of a message at the UDP edge, before
+ * they are published and decoded downstream.
+ *
+ * Each origin IP gets a token bucket, kept as a single theoretical arrival
+ * time (the virtual scheduling form of the generic cell rate algorithm) so a
+ * source costs one long and an update is a single CAS. At most
+ * <code>maxTrackedSources</code> sources get a bucket of their own; the sources
+ * seen while the table is full share one bucket until idle sources are evicted,
+ * which is tried at most once per second. Duplicates are found in
+ * a direct mapped table of xxHash64 digests of the stripped payload, seeded
+ * with the origin IP: a digest seen in the same slot within the window is a
+ * replay. A collision in the table only evicts the older digest, so it can let
+ * a duplicate through but never drops a distinct message unless two payloads
+ * share a 64-bit digest.
+ */
+public class UdpIngressFilter {
+
+   private static final XXHash64 XXHASH = XXHashFactory.fastestJavaInstance().hash64();
+   private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+   private final UdpReceiverStats stats;
+   private final LongSupplier nanoClock;
+
+   private final long emissionIntervalNanos;
+   private final long burstToleranceNanos;
+   private final int maxTrackedSources;
+   private final Map<InetAddress, AtomicLong> buckets = new ConcurrentHashMap<>();
+   private final AtomicInteger trackedSources = new AtomicInteger();
+   private final AtomicLong overflowBucket;
+   private final AtomicLong lastEvictionAt;
+
+   private final long duplicateWindowNanos;
+   private final int digestMask;
+   private final AtomicLongArray digests;
+   private final AtomicLongArray digestSeenAt;
+
+   /**
+    * @return the filter configured by the UDP ingress properties, or null if
+    *         neither rate limiting nor duplicate suppression is enabled
+    */
+   public static UdpIngressFilter create(OdeProperties odeProps, UdpReceiverStats stats) {
+      if (odeProps.getUdpRateLimitPerSource() <= 0 && odeProps.getUdpDuplicateWindowMillis() <= 0)
+         return null;
+      return new UdpIngressFilter(odeProps.getUdpRateLimitPerSource(), odeProps.getUdpRateLimitBurst(),
+            odeProps.getUdpRateLimitMaxSources(), odeProps.getUdpDuplicateWindowMillis(),
+            odeProps.getUdpDuplicateCacheSize(), stats, System::nanoTime);
+   }
+
+   /**
+    * @param ratePerSecond         messages per second accepted from one origin
+    *                              IP, 0 disables rate limiting
+    * @param burst                 messages an idle source may send at once, 0
+    *                              allows one second worth
+    * @param maxTrackedSources     sources with a bucket of their own, the
+    *                              others share one
+    * @param duplicateWindowMillis how long a payload is remembered, 0 disables
+    *                              duplicate suppression
+    * @param duplicateCacheSize    digest slots, rounded up to a power of two
+    */
+   UdpIngressFilter(int ratePerSecond, int burst, int maxTrackedSources, long duplicateWindowMillis,
+         int duplicateCacheSize, UdpReceiverStats stats, LongSupplier nanoClock) {
+      this.stats = stats;
+      this.nanoClock = nanoClock;
+
+      if (ratePerSecond > 0) {
+         this.emissionIntervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+         int effectiveBurst = burst > 0 ? burst : ratePerSecond;
+         this.burstToleranceNanos = emissionIntervalNanos * (effectiveBurst - 1);
+      } else {
+         this.emissionIntervalNanos = 0;
+         this.burstToleranceNanos = 0;
+      }
+      this.maxTrackedSources = Math.max(1, maxTrackedSources);
+      long start = nanoClock.getAsLong();
+      this.overflowBucket = new AtomicLong(start);
+      this.lastEvictionAt = new AtomicLong(start - EVICTION_INTERVAL_NANOS);
+
+      this.duplicateWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, duplicateWindowMillis));
+      int slots = 1;
+      if (duplicateWindowNanos > 0) {
+         slots = Math.max(2, Integer.highestOneBit(Math.max(1, duplicateCacheSize)));
+         if (slots < duplicateCacheSize)
+            slots <<= 1;
+      }
+      this.digestMask = slots - 1;
+      this.digests = new AtomicLongArray(slots);
+      this.digestSeenAt = new AtomicLongArray(slots);
+   }
+
+   /**
+    * Checks a payload of <code>length</code> bytes of <code>data</code> starting
+    * at <code>offset</code>. Duplicates are checked first so a replaying source
+    * does not use up its own rate budget.
+    *
+    * @return false if the message should be dropped
+    */
+   public boolean accept(InetAddress source, byte[] data, int offset, int length) {
+      long now = nanoClock.getAsLong();
+
+      if (duplicateWindowNanos > 0 && isDuplicate(source, data, offset, length, now)) {
+         stats.markDuplicate();
+         return false;
+      }
+
+      if (emissionIntervalNanos > 0 && !acquire(source, now)) {
+         stats.markRateLimited();
+         return false;
+      }
+      return true;
+   }
+
+   private boolean isDuplicate(InetAddress source, byte[] data, int offset, int length, long now) {
+      long digest = XXHASH.hash(data, offset, length, source.hashCode());
+      int slot = (int) (digest ^ (digest >>> 32)) & digestMask;
+
+      if (digests.get(slot) == digest && now - digestSeenAt.get(slot) < duplicateWindowNanos)
+         return true;
+
+      // the pair is not updated atomically; a torn write can at worst let one
+      // copy through or shorten the window of a digest
+      digestSeenAt.set(slot, now);
+      digests.set(slot, digest);
+      return false;
+   }
+
+   private boolean acquire(InetAddress source, long now) {
+      AtomicLong bucket = buckets.get(source);
+      if (bucket == null)
+         bucket = track(source, now);
+
+      for (;;) {
+         long theoreticalArrival = bucket.get();
+         long arrival = Math.max(theoreticalArrival, now);
+         if (arrival - now > burstToleranceNanos)
+            return false;
+         if (bucket.compareAndSet(theoreticalArrival, arrival + emissionIntervalNanos))
+            return true;
+      }
+   }
+
+   /**
+    * Gives a new source a bucket of its own if there is room for it, evicting
+    * idle sources first if they have not been evicted within the last second.
+    *
+    * @return the bucket of the source, or the shared overflow bucket
+    */
+   private AtomicLong track(InetAddress source, long now) {
+      if (trackedSources.get() >= maxTrackedSources) {
+         long last = lastEvictionAt.get();
+         if (now - last < EVICTION_INTERVAL_NANOS || !lastEvictionAt.compareAndSet(last, now))
+            return overflowBucket;
+         evictIdleSources(now);
+      }
+
+      if (trackedSources.incrementAndGet() > maxTrackedSources) {
+         trackedSources.decrementAndGet();
+         return overflowBucket;
+      }
+      AtomicLong bucket = new AtomicLong(now);
+      AtomicLong existing = buckets.putIfAbsent(source, bucket);
+      if (existing != null) {
+         trackedSources.decrementAndGet();
+         return existing;
+      }
+      return bucket;
+   }
+
+   /**
+    * Removes the buckets of sources that have been quiet long enough to be
+    * full again, since a new bucket behaves the same.
+    */
+   private void evictIdleSources(long now) {
+      for (Map.Entry<InetAddress, AtomicLong> entry : buckets.entrySet()) {
+         AtomicLong bucket = entry.getValue();
+         if (bucket.get() <= now && buckets.remove(entry.getKey(), bucket))
+            trackedSources.decrementAndGet();
+      }
+   }
+
+   int getTrackedSources() {
+      return buckets.size();
+   }
+}
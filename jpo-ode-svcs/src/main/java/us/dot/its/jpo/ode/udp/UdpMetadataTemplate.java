@@ -0,0 +1,178 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
+import us.dot.its.jpo.ode.model.OdeLogMetadata;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.SecurityResultCode;
+import us.dot.its.jpo.ode.model.OdeLogMsgMetadataLocation;
+import us.dot.its.jpo.ode.model.OdeMapMetadata;
+import us.dot.its.jpo.ode.model.OdeMapMetadata.MapSource;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata.GeneratedBy;
+import us.dot.its.jpo.ode.model.OdePsmMetadata;
+import us.dot.its.jpo.ode.model.OdePsmMetadata.PsmSource;
+import us.dot.its.jpo.ode.model.OdeSpatMetadata;
+import us.dot.its.jpo.ode.model.OdeSpatMetadata.SpatSource;
+import us.dot.its.jpo.ode.model.OdeSrmMetadata;
+import us.dot.its.jpo.ode.model.OdeSrmMetadata.SrmSource;
+import us.dot.its.jpo.ode.model.OdeSsmMetadata;
+import us.dot.its.jpo.ode.model.OdeSsmMetadata.SsmSource;
+import us.dot.its.jpo.ode.model.OdeTimMetadata;
+import us.dot.its.jpo.ode.model.ReceivedMessageDetails;
+import us.dot.its.jpo.ode.model.RxSource;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+import us.dot.its.jpo.ode.util.IsoTimestampClock;
+
+/**
+ * Metadata shared by every message of one type received over UDP: the values
+ * that can be assumed from the UDP endpoint the type is received on and the
+ * raw encoded topic it is published to. Templates are immutable and resolved
+ * once per receiver, so creating the metadata of a message only fills in what
+ * differs per packet.
+ */
+public final class UdpMetadataTemplate {
+
+   private static final String UNAVAILABLE = "unavailable";
+
+   // never modified once created, so every BSM can refer to the same instance
+   private static final OdeLogMsgMetadataLocation UNAVAILABLE_LOCATION = new OdeLogMsgMetadataLocation(UNAVAILABLE,
+         UNAVAILABLE, UNAVAILABLE, UNAVAILABLE, UNAVAILABLE);
+
+   private final SupportedMessageTypes msgType;
+   private final String rawEncodedTopic;
+
+   private UdpMetadataTemplate(SupportedMessageTypes msgType, String rawEncodedTopic) {
+      this.msgType = msgType;
+      this.rawEncodedTopic = rawEncodedTopic;
+   }
+
+   public static UdpMetadataTemplate forType(OdeProperties odeProps, SupportedMessageTypes msgType) {
+      return new UdpMetadataTemplate(msgType, getRawEncodedTopic(odeProps, msgType));
+   }
+
+   /**
+    * @return a template for each supported message type
+    */
+   public static Map<SupportedMessageTypes, UdpMetadataTemplate> forAllTypes(OdeProperties odeProps) {
+      Map<SupportedMessageTypes, UdpMetadataTemplate> templates = new EnumMap<>(SupportedMessageTypes.class);
+      for (SupportedMessageTypes msgType : SupportedMessageTypes.values()) {
+         templates.put(msgType, forType(odeProps, msgType));
+      }
+      return templates;
+   }
+
+   /**
+    * Creates the metadata of a message received now.
+    */
+   public OdeLogMetadata createMetadata(OdeAsn1Payload payload, String originIp) {
+      return createMetadata(payload, originIp, IsoTimestampClock.systemUTC().now());
+   }
+
+   /**
+    * Creates the metadata of a message.
+    *
+    * @param receivedAt the time the packet was read off the socket, as
+    *                   formatted by {@link IsoTimestampClock}
+    */
+   public OdeLogMetadata createMetadata(OdeAsn1Payload payload, String originIp, String receivedAt) {
+      OdeLogMetadata metadata;
+      switch (msgType) {
+      case BSM:
+         OdeBsmMetadata bsmMetadata = new OdeBsmMetadata(payload);
+         bsmMetadata.setReceivedMessageDetails(new ReceivedMessageDetails(UNAVAILABLE_LOCATION, RxSource.RSU));
+         bsmMetadata.setBsmSource(BsmSource.EV);
+         bsmMetadata.setRecordType(RecordType.bsmTx);
+         bsmMetadata.setRecordGeneratedBy(GeneratedBy.OBU);
+         bsmMetadata.setOriginIp(originIp);
+         metadata = bsmMetadata;
+         break;
+      case TIM:
+         OdeTimMetadata timMetadata = new OdeTimMetadata(payload);
+         timMetadata.setRecordType(RecordType.timMsg);
+         timMetadata.setRecordGeneratedBy(GeneratedBy.RSU);
+         timMetadata.setOriginIp(originIp);
+         metadata = timMetadata;
+         break;
+      case SPAT:
+         OdeSpatMetadata spatMetadata = new OdeSpatMetadata(payload);
+         spatMetadata.setSpatSource(SpatSource.RSU);
+         spatMetadata.setRecordType(RecordType.spatTx);
+         spatMetadata.setRecordGeneratedBy(GeneratedBy.RSU);
+         spatMetadata.setOriginIp(originIp);
+         metadata = spatMetadata;
+         break;
+      case SSM:
+         OdeSsmMetadata ssmMetadata = new OdeSsmMetadata(payload);
+         ssmMetadata.setSsmSource(SsmSource.RSU);
+         ssmMetadata.setRecordType(RecordType.ssmTx);
+         ssmMetadata.setRecordGeneratedBy(GeneratedBy.RSU);
+         ssmMetadata.setOriginIp(originIp);
+         metadata = ssmMetadata;
+         break;
+      case SRM:
+         OdeSrmMetadata srmMetadata = new OdeSrmMetadata(payload);
+         srmMetadata.setSrmSource(SrmSource.RSU);
+         srmMetadata.setRecordType(RecordType.srmTx);
+         srmMetadata.setRecordGeneratedBy(GeneratedBy.OBU);
+         srmMetadata.setOriginIp(originIp);
+         metadata = srmMetadata;
+         break;
+      case MAP:
+         OdeMapMetadata mapMetadata = new OdeMapMetadata(payload);
+         mapMetadata.setMapSource(MapSource.RSU);
+         mapMetadata.setRecordType(RecordType.mapTx);
+         mapMetadata.setRecordGeneratedBy(GeneratedBy.RSU);
+         mapMetadata.setOriginIp(originIp);
+         metadata = mapMetadata;
+         break;
+      case PSM:
+         OdePsmMetadata psmMetadata = new OdePsmMetadata(payload);
+         psmMetadata.setPsmSource(PsmSource.RSU);
+         psmMetadata.setRecordType(RecordType.psmTx);
+         psmMetadata.setRecordGeneratedBy(GeneratedBy.UNKNOWN);
+         psmMetadata.setOriginIp(originIp);
+         metadata = psmMetadata;
+         break;
+      default:
+         throw new IllegalArgumentException("Unsupported message type " + msgType);
+      }
+
+      metadata.setOdeReceivedAt(receivedAt);
+      metadata.setSecurityResultCode(SecurityResultCode.success);
+      return metadata;
+   }
+
+   public SupportedMessageTypes getMessageType() {
+      return msgType;
+   }
+
+   public String getRawEncodedTopic() {
+      return rawEncodedTopic;
+   }
+
+   public static String getRawEncodedTopic(OdeProperties odeProps, SupportedMessageTypes msgType) {
+      switch (msgType) {
+      case BSM:
+         return odeProps.getKafkaTopicOdeRawEncodedBSMJson();
+      case TIM:
+         return odeProps.getKafkaTopicOdeRawEncodedTIMJson();
+      case SPAT:
+         return odeProps.getKafkaTopicOdeRawEncodedSPATJson();
+      case SSM:
+         return odeProps.getKafkaTopicOdeRawEncodedSSMJson();
+      case SRM:
+         return odeProps.getKafkaTopicOdeRawEncodedSRMJson();
+      case MAP:
+         return odeProps.getKafkaTopicOdeRawEncodedMAPJson();
+      case PSM:
+         return odeProps.getKafkaTopicOdeRawEncodedPSMJson();
+      default:
+         return null;
+      }
+   }
+}
@@ -0,0 +1,196 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.util.MpmcRingBuffer;
+
+/**
+ * Hands received messages from the socket reader threads to a pool of workers
+ * that serialize and publish them, so a slow Kafka producer does not stall the
+ * readers. The hand-off is a bounded lock-free ring; when it is full the
+ * {@link OverflowPolicy} decides which message is lost. Idle workers spin
+ * briefly, then park for longer and longer until a reader queues a message
+ * and unparks one of them, so they use no CPU without traffic.
+ */
+public class UdpPublishQueue {
+
+   public enum OverflowPolicy {
+      /** Evict the oldest queued message to make room for the new one */
+      DROP_OLDEST,
+      /** Discard the new message */
+      DROP_NEWEST,
+      /** Make the reader wait for room, pushing back on the socket */
+      BLOCK
+   }
+
+   private static Logger logger = LoggerFactory.getLogger(UdpPublishQueue.class);
+
+   private static final int SPIN_TRIES = 100;
+   private static final int YIELD_TRIES = 200;
+   private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+   // idle workers park up to 100us << 9, about 50ms, in case a wake-up is missed
+   private static final int MAX_PARK_SHIFT = 9;
+
+   private final MpmcRingBuffer<Runnable> ring;
+   private final OverflowPolicy overflowPolicy;
+   private final int workerThreads;
+   private final UdpReceiverStats stats;
+   private final Queue<Thread> parkedWorkers = new ConcurrentLinkedQueue<>();
+
+   private ExecutorService workers;
+   private volatile boolean running = false;
+
+   public UdpPublishQueue(int capacity, OverflowPolicy overflowPolicy, int workerThreads, UdpReceiverStats stats) {
+      this.ring = new MpmcRingBuffer<>(capacity);
+      this.overflowPolicy = overflowPolicy != null ? overflowPolicy : OverflowPolicy.DROP_OLDEST;
+      this.workerThreads = Math.max(1, workerThreads);
+      this.stats = stats;
+      stats.setQueueDepth(ring::size);
+   }
+
+   public synchronized void start(ThreadFactory threadFactory) {
+      if (running)
+         return;
+      running = true;
+      workers = Executors.newFixedThreadPool(workerThreads, threadFactory);
+      for (int i = 0; i < workerThreads; i++) {
+         workers.submit(this::drain);
+      }
+   }
+
+   /**
+    * Stops the workers once the messages already queued have been published.
+    */
+   public synchronized void stop() {
+      if (!running)
+         return;
+      running = false;
+      workers.shutdown();
+      parkedWorkers.forEach(LockSupport::unpark);
+   }
+
+   /**
+    * Waits for the workers of a stopped queue to publish the messages left.
+    *
+    * @return false if they are still publishing after the timeout
+    */
+   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      ExecutorService stopping;
+      synchronized (this) {
+         stopping = workers;
+      }
+      return stopping == null || stopping.awaitTermination(timeout, unit);
+   }
+
+   public boolean isRunning() {
+      return running;
+   }
+
+   /**
+    * Queues a publish task, applying the overflow policy if the ring is full.
+    *
+    * @return false if the task was discarded
+    */
+   public boolean submit(Runnable task) {
+      if (ring.offer(task)) {
+         wakeWorker();
+         return true;
+      }
+
+      switch (overflowPolicy) {
+      case DROP_NEWEST:
+         stats.markOverflow();
+         return false;
+      case BLOCK:
+         for (int idle = 0; !ring.offer(task); idle++) {
+            if (!running) {
+               stats.markOverflow();
+               return false;
+            }
+            idle(idle);
+         }
+         wakeWorker();
+         return true;
+      case DROP_OLDEST:
+      default:
+         do {
+            if (ring.poll() != null)
+               stats.markOverflow();
+         } while (!ring.offer(task));
+         wakeWorker();
+         return true;
+      }
+   }
+
+   public int size() {
+      return ring.size();
+   }
+
+   public int capacity() {
+      return ring.capacity();
+   }
+
+   public OverflowPolicy getOverflowPolicy() {
+      return overflowPolicy;
+   }
+
+   private void drain() {
+      int idle = 0;
+      while (running || !ring.isEmpty()) {
+         Runnable task = ring.poll();
+         if (task == null) {
+            awaitTask(idle++);
+            continue;
+         }
+         idle = 0;
+         try {
+            task.run();
+            stats.markPublished();
+         } catch (Exception e) {
+            stats.markPublishError();
+            logger.error("Error publishing UDP message from port {}", stats.getPort(), e);
+         }
+      }
+   }
+
+   private void wakeWorker() {
+      Thread worker = parkedWorkers.peek();
+      if (worker != null)
+         LockSupport.unpark(worker);
+   }
+
+   /**
+    * Spins, then yields, then parks the idle worker until a message is queued,
+    * for twice as long each time.
+    */
+   private void awaitTask(int count) {
+      if (count < YIELD_TRIES) {
+         idle(count);
+         return;
+      }
+      Thread worker = Thread.currentThread();
+      parkedWorkers.add(worker);
+      // checked once registered, a message queued since then unparks the worker
+      if (running && ring.isEmpty())
+         LockSupport.parkNanos(this, PARK_NANOS << Math.min(count - YIELD_TRIES, MAX_PARK_SHIFT));
+      parkedWorkers.remove(worker);
+   }
+
+   private static void idle(int count) {
+      if (count < SPIN_TRIES)
+         Thread.onSpinWait();
+      else if (count < YIELD_TRIES)
+         Thread.yield();
+      else
+         LockSupport.parkNanos(PARK_NANOS);
+   }
+}
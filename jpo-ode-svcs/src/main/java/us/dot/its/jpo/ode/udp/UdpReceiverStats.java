@@ -0,0 +1,171 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+import us.dot.its.jpo.ode.context.AppContext;
+
+/**
+ * Per-port ingest counters shared by every reader thread bound to a UDP port.
+ * The counters are registered in the shared ODE metric registry under
+ * <code>udp.&lt;port&gt;.*</code>.
+ */
+public class UdpReceiverStats {
+
+   private static final Map<Integer, UdpReceiverStats> statsByPort = new ConcurrentHashMap<>();
+
+   private final int port;
+   private final Meter received;
+   private final Counter dropped;
+   private final Counter overruns;
+   private final Counter errors;
+   private final Meter published;
+   private final Counter overflows;
+   private final Counter publishErrors;
+   private final Counter rateLimited;
+   private final Counter duplicates;
+   private volatile IntSupplier queueDepth = () -> 0;
+
+   public static UdpReceiverStats forPort(int port) {
+      return statsByPort.computeIfAbsent(port, UdpReceiverStats::new);
+   }
+
+   public static Map<Integer, UdpReceiverStats> getAll() {
+      return Collections.unmodifiableMap(statsByPort);
+   }
+
+   private UdpReceiverStats(int port) {
+      this.port = port;
+      MetricRegistry registry = SharedMetricRegistries.getOrCreate(AppContext.METRICS_REGISTRY_NAME);
+      String prefix = MetricRegistry.name("udp", String.valueOf(port));
+      this.received = registry.meter(MetricRegistry.name(prefix, "received"));
+      this.dropped = registry.counter(MetricRegistry.name(prefix, "dropped"));
+      this.overruns = registry.counter(MetricRegistry.name(prefix, "overruns"));
+      this.errors = registry.counter(MetricRegistry.name(prefix, "errors"));
+      this.published = registry.meter(MetricRegistry.name(prefix, "published"));
+      this.overflows = registry.counter(MetricRegistry.name(prefix, "queue", "overflows"));
+      this.publishErrors = registry.counter(MetricRegistry.name(prefix, "publishErrors"));
+      this.rateLimited = registry.counter(MetricRegistry.name(prefix, "ingress", "rateLimited"));
+      this.duplicates = registry.counter(MetricRegistry.name(prefix, "ingress", "duplicates"));
+      registry.gauge(MetricRegistry.name(prefix, "queue", "depth"), () -> (Gauge<Integer>) this::getQueueDepth);
+   }
+
+   public void markReceived() {
+      received.mark();
+   }
+
+   /**
+    * A datagram was received but did not contain a recognizable payload.
+    */
+   public void markDropped() {
+      dropped.inc();
+   }
+
+   /**
+    * A datagram filled the whole receive buffer and was most likely truncated.
+    */
+   public void markOverrun() {
+      overruns.inc();
+   }
+
+   public void markError() {
+      errors.inc();
+   }
+
+   /**
+    * A message was published by a worker of the publish queue.
+    */
+   public void markPublished() {
+      published.mark();
+   }
+
+   /**
+    * A message was lost because the publish queue was full.
+    */
+   public void markOverflow() {
+      overflows.inc();
+   }
+
+   public void markPublishError() {
+      publishErrors.inc();
+   }
+
+   /**
+    * A message was dropped because its origin IP exceeded its rate.
+    */
+   public void markRateLimited() {
+      rateLimited.inc();
+   }
+
+   /**
+    * A message was dropped as a replay of one received within the duplicate
+    * window.
+    */
+   public void markDuplicate() {
+      duplicates.inc();
+   }
+
+   public void setQueueDepth(IntSupplier queueDepth) {
+      this.queueDepth = queueDepth;
+   }
+
+   public int getPort() {
+      return port;
+   }
+
+   public long getReceived() {
+      return received.getCount();
+   }
+
+   public long getDropped() {
+      return dropped.getCount();
+   }
+
+   public long getOverruns() {
+      return overruns.getCount();
+   }
+
+   public long getErrors() {
+      return errors.getCount();
+   }
+
+   public long getPublished() {
+      return published.getCount();
+   }
+
+   public long getOverflows() {
+      return overflows.getCount();
+   }
+
+   public long getPublishErrors() {
+      return publishErrors.getCount();
+   }
+
+   public long getRateLimited() {
+      return rateLimited.getCount();
+   }
+
+   public long getDuplicates() {
+      return duplicates.getCount();
+   }
+
+   public int getQueueDepth() {
+      return queueDepth.getAsInt();
+   }
+
+   @Override
+   public String toString() {
+      return "UdpReceiverStats [port=" + port + ", received=" + getReceived() + ", dropped=" + getDropped()
+            + ", overruns=" + getOverruns() + ", errors=" + getErrors() + ", published=" + getPublished()
+            + ", overflows=" + getOverflows() + ", publishErrors=" + getPublishErrors() + ", rateLimited="
+            + getRateLimited() + ", duplicates=" + getDuplicates() + ", queueDepth=" + getQueueDepth() + "]";
+   }
+}
@@ -1,19 +1,149 @@
 package us.dot.its.jpo.ode.udp.controller;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher;
+import us.dot.its.jpo.ode.udp.UdpPublishQueue;
+import us.dot.its.jpo.ode.udp.bsm.BsmReceiver;
+import us.dot.its.jpo.ode.udp.map.MapReceiver;
+import us.dot.its.jpo.ode.udp.psm.PsmReceiver;
+import us.dot.its.jpo.ode.udp.spat.SpatReceiver;
+import us.dot.its.jpo.ode.udp.srm.SrmReceiver;
+import us.dot.its.jpo.ode.udp.ssm.SsmReceiver;
+import us.dot.its.jpo.ode.udp.tim.TimReceiver;
+import us.dot.its.jpo.ode.udp.unified.UnifiedReceiver;
 
 public class ServiceManager implements UdpManager{
 
+   private static final Logger logger = LoggerFactory.getLogger(ServiceManager.class);
+
+   private static final long STOP_TIMEOUT_SECONDS = 5;
+
    private ThreadFactory threadFactory;
+   private final List<AbstractUdpReceiverPublisher> submitted = new CopyOnWriteArrayList<>();
+   private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
 
    public ServiceManager(ThreadFactory tf) {
       this.threadFactory = tf;
    }
 
    public void submit(AbstractUdpReceiverPublisher rec) {
-      Executors.newSingleThreadExecutor(threadFactory).submit(rec);
+      rec.startPublishWorkers(threadFactory);
+
+      int readers = rec.getReaderThreads();
+      ExecutorService executor = Executors.newFixedThreadPool(readers, threadFactory);
+      submitted.add(rec);
+      executors.add(executor);
+      for (int i = 0; i < readers; i++) {
+         executor.submit(rec);
+      }
+   }
+
+   /**
+    * Stops the receivers submitted, closing their channels, and shuts down
+    * their reader threads. Waits for the messages already queued to be
+    * published so the producers can be closed afterwards.
+    */
+   public void stop() {
+      for (AbstractUdpReceiverPublisher rec : submitted) {
+         rec.setStopped(true);
+      }
+      for (ExecutorService executor : executors) {
+         executor.shutdown();
+      }
+
+      try {
+         for (ExecutorService executor : executors) {
+            if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+               executor.shutdownNow();
+         }
+         for (AbstractUdpReceiverPublisher rec : submitted) {
+            UdpPublishQueue publishQueue = rec.getPublishQueue();
+            if (publishQueue != null && !publishQueue.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+               logger.warn("Messages still queued on port {} after {} seconds", rec.getPort(),
+                     STOP_TIMEOUT_SECONDS);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         logger.warn("Interrupted stopping the UDP receivers");
+      }
+      submitted.clear();
+      executors.clear();
+   }
+
+   /**
+    * Creates and starts the registered receivers. Registrations without a port
+    * are skipped.
+    *
+    * @return the receivers started
+    */
+   public List<AbstractUdpReceiverPublisher> submit(OdeProperties odeProps,
+         List<UdpReceiverRegistration> registrations) {
+      List<AbstractUdpReceiverPublisher> receivers = new ArrayList<>(registrations.size());
+      for (UdpReceiverRegistration registration : registrations) {
+         if (registration.getPort() <= 0) {
+            logger.error("Skipping {}, no port configured", registration);
+            continue;
+         }
+         AbstractUdpReceiverPublisher receiver = newReceiver(odeProps, registration);
+         logger.info("Starting {} with {} reader thread(s)", registration, receiver.getReaderThreads());
+         submit(receiver);
+         receivers.add(receiver);
+      }
+      return receivers;
+   }
+
+   /**
+    * Creates the receiver of a registration, filling in the default reader
+    * thread count and buffer size of its message type where left at 0.
+    */
+   public static AbstractUdpReceiverPublisher newReceiver(OdeProperties odeProps,
+         UdpReceiverRegistration registration) {
+      int port = registration.getPort();
+      int bufferSize = registration.getBufferSize();
+      int readerThreads = registration.getReaderThreads() > 0 ? registration.getReaderThreads()
+            : odeProps.getUdpReceiverThreads();
+
+      if (registration.getMessageType() == null) {
+         if (registration.getReaderThreads() <= 0 && odeProps.getUdpUnifiedReceiverThreads() > 0)
+            readerThreads = odeProps.getUdpUnifiedReceiverThreads();
+         return new UnifiedReceiver(odeProps, port,
+               bufferSize > 0 ? bufferSize : odeProps.getUdpUnifiedReceiverBufferSize(), readerThreads, null);
+      }
+
+      switch (registration.getMessageType()) {
+      case BSM:
+         return new BsmReceiver(odeProps, port, bufferSize > 0 ? bufferSize : odeProps.getBsmBufferSize(),
+               readerThreads);
+      case TIM:
+         return new TimReceiver(odeProps, port, bufferSize > 0 ? bufferSize : odeProps.getTimBufferSize(),
+               readerThreads);
+      case SSM:
+         return new SsmReceiver(odeProps, port, bufferSize > 0 ? bufferSize : odeProps.getSsmBufferSize(),
+               readerThreads);
+      case SRM:
+         return new SrmReceiver(odeProps, port, bufferSize > 0 ? bufferSize : odeProps.getSrmBufferSize(),
+               readerThreads);
+      case SPAT:
+         return new SpatReceiver(odeProps, port, bufferSize > 0 ? bufferSize : odeProps.getSpatBufferSize(),
+               readerThreads);
+      case MAP:
+         return new MapReceiver(odeProps, port, bufferSize > 0 ? bufferSize : odeProps.getMapBufferSize(),
+               readerThreads);
+      case PSM:
+      default:
+         return new PsmReceiver(odeProps, port, bufferSize > 0 ? bufferSize : odeProps.getPsmBufferSize(),
+               readerThreads);
+      }
    }
 }
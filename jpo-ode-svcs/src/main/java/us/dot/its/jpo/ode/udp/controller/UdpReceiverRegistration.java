@@ -0,0 +1,104 @@
+package us.dot.its.jpo.ode.udp.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+
+/**
+ * A UDP receiver to start, as listed in the <code>ode.udpReceivers</code>
+ * property:
+ *
+ * <pre>
+ * ode.udpReceivers[0].messageType=BSM
+ * ode.udpReceivers[0].port=46800
+ * ode.udpReceivers[0].readerThreads=2
+ * ode.udpReceivers[1].port=44990
+ * </pre>
+ *
+ * A receiver without a message type accepts every supported type. Reader
+ * threads and buffer size left at 0 take the defaults of the type.
+ */
+public class UdpReceiverRegistration {
+
+   private SupportedMessageTypes messageType;
+   private int port;
+   private int readerThreads;
+   private int bufferSize;
+
+   public UdpReceiverRegistration() {
+      super();
+   }
+
+   public UdpReceiverRegistration(SupportedMessageTypes messageType, int port, int readerThreads, int bufferSize) {
+      this.messageType = messageType;
+      this.port = port;
+      this.readerThreads = readerThreads;
+      this.bufferSize = bufferSize;
+   }
+
+   /**
+    * The receivers started when <code>ode.udpReceivers</code> is empty: one per
+    * message type on its <code>xxxReceiverPort</code> unless
+    * <code>udpPerTypeReceiversEnabled</code> is false, and one on each of the
+    * <code>udpUnifiedReceiverPorts</code>.
+    */
+   public static List<UdpReceiverRegistration> defaults(OdeProperties odeProps) {
+      List<UdpReceiverRegistration> registrations = new ArrayList<>();
+      if (odeProps.isUdpPerTypeReceiversEnabled()) {
+         registrations.add(new UdpReceiverRegistration(SupportedMessageTypes.BSM, odeProps.getBsmReceiverPort(), 0, 0));
+         registrations.add(new UdpReceiverRegistration(SupportedMessageTypes.TIM, odeProps.getTimReceiverPort(), 0, 0));
+         registrations.add(new UdpReceiverRegistration(SupportedMessageTypes.SSM, odeProps.getSsmReceiverPort(), 0, 0));
+         registrations.add(new UdpReceiverRegistration(SupportedMessageTypes.SRM, odeProps.getSrmReceiverPort(), 0, 0));
+         registrations.add(new UdpReceiverRegistration(SupportedMessageTypes.SPAT, odeProps.getSpatReceiverPort(), 0, 0));
+         registrations.add(new UdpReceiverRegistration(SupportedMessageTypes.MAP, odeProps.getMapReceiverPort(), 0, 0));
+         registrations.add(new UdpReceiverRegistration(SupportedMessageTypes.PSM, odeProps.getPsmReceiverPort(), 0, 0));
+      }
+      for (int port : odeProps.getUdpUnifiedReceiverPorts()) {
+         registrations.add(new UdpReceiverRegistration(null, port, 0, 0));
+      }
+      return registrations;
+   }
+
+   /**
+    * @return the message type received, null if the receiver accepts every
+    *         supported type
+    */
+   public SupportedMessageTypes getMessageType() {
+      return messageType;
+   }
+
+   public void setMessageType(SupportedMessageTypes messageType) {
+      this.messageType = messageType;
+   }
+
+   public int getPort() {
+      return port;
+   }
+
+   public void setPort(int port) {
+      this.port = port;
+   }
+
+   public int getReaderThreads() {
+      return readerThreads;
+   }
+
+   public void setReaderThreads(int readerThreads) {
+      this.readerThreads = readerThreads;
+   }
+
+   public int getBufferSize() {
+      return bufferSize;
+   }
+
+   public void setBufferSize(int bufferSize) {
+      this.bufferSize = bufferSize;
+   }
+
+   @Override
+   public String toString() {
+      return (messageType != null ? messageType : "unified") + " receiver on port " + port;
+   }
+}
@@ -1,18 +1,14 @@
 package us.dot.its.jpo.ode.udp.controller;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
 import us.dot.its.jpo.ode.OdeProperties;
-import us.dot.its.jpo.ode.udp.bsm.BsmReceiver;
-import us.dot.its.jpo.ode.udp.tim.TimReceiver;
-import us.dot.its.jpo.ode.udp.ssm.SsmReceiver;
-import us.dot.its.jpo.ode.udp.srm.SrmReceiver;
-import us.dot.its.jpo.ode.udp.spat.SpatReceiver;
-import us.dot.its.jpo.ode.udp.map.MapReceiver;
-import us.dot.its.jpo.ode.udp.psm.PsmReceiver;
+import us.dot.its.jpo.ode.util.ExecutorFactory;
 
 /**
  * Centralized UDP service dispatcher.
@@ -23,36 +19,31 @@ public class UdpServicesController {
 
    private Logger logger = LoggerFactory.getLogger(UdpServicesController.class);
 
+   private final ServiceManager rm;
+
    @Autowired
    public UdpServicesController(OdeProperties odeProps) {
       super();
 
       // Start the UDP receivers
-      ServiceManager rm = new ServiceManager(new UdpServiceThreadFactory("UdpReceiverManager"));
+      rm = new ServiceManager(ExecutorFactory.threadFactory("UdpReceiverManager"));
 
       logger.debug("Starting UDP receiver services...");
 
-      // BSM internal
-      rm.submit(new BsmReceiver(odeProps));
-
-      // TIM internal
-      rm.submit(new TimReceiver(odeProps));
-
-      // SSM internal port
-      rm.submit(new SsmReceiver(odeProps));
-      
-      // SRM internal port
-      rm.submit(new SrmReceiver(odeProps));
-
-      // SPAT internal port
-      rm.submit(new SpatReceiver(odeProps));
-
-      // MAP internal port
-      rm.submit(new MapReceiver(odeProps));
-
-      // PSM internal port
-      rm.submit(new PsmReceiver(odeProps));
+      // Receivers listed in ode.udpReceivers, or the per-type and unified ones
+      List<UdpReceiverRegistration> registrations = odeProps.getUdpReceivers();
+      if (registrations == null || registrations.isEmpty())
+         registrations = UdpReceiverRegistration.defaults(odeProps);
+      rm.submit(odeProps, registrations);
 
       logger.debug("UDP receiver services started.");
    }
+
+   /**
+    * Stops the UDP receivers and their threads.
+    */
+   public void stop() {
+      logger.debug("Stopping UDP receiver services...");
+      rm.stop();
+   }
 }
@@ -0,0 +1,73 @@
+package us.dot.its.jpo.ode.udp.unified;
+
+import java.net.DatagramPacket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.coder.StringPublisher;
+import us.dot.its.jpo.ode.services.asn1.message.Asn1DecoderInputPublisher;
+import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher;
+import us.dot.its.jpo.ode.uper.Ieee1609Envelope;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+
+/**
+ * Receives every supported message type on a single port. Each packet is
+ * classified by the message ID behind its 1609.3/1609.2 headers and published
+ * to the raw encoded topic of that type, so one pool of reader threads can be
+ * sized for the total load instead of one mostly idle port per type.
+ */
+public class UnifiedReceiver extends AbstractUdpReceiverPublisher {
+
+   private static Logger logger = LoggerFactory.getLogger(UnifiedReceiver.class);
+
+   private StringPublisher publisher;
+
+   public UnifiedReceiver(OdeProperties odeProps, int port) {
+      this(odeProps, port, odeProps.getUdpUnifiedReceiverBufferSize());
+   }
+
+   public UnifiedReceiver(OdeProperties odeProps, int port, int bufferSize) {
+      this(odeProps, port, bufferSize, null);
+   }
+
+   /**
+    * @param publisher publisher of the received messages, null creates one
+    *                  from the properties
+    */
+   public UnifiedReceiver(OdeProperties odeProps, int port, int bufferSize, StringPublisher publisher) {
+      this(odeProps, port, bufferSize, odeProps.getUdpUnifiedReceiverThreads() > 0
+            ? odeProps.getUdpUnifiedReceiverThreads() : odeProps.getUdpReceiverThreads(), publisher);
+   }
+
+   public UnifiedReceiver(OdeProperties odeProps, int port, int bufferSize, int readerThreads,
+         StringPublisher publisher) {
+      super(odeProps, port, bufferSize, readerThreads);
+
+      this.publisher = publisher != null ? publisher : new StringPublisher(odeProps);
+      this.decoderInputPublisher = new Asn1DecoderInputPublisher(this.publisher,
+            odeProps.getKafkaTopicAsn1DecoderInput());
+   }
+
+   @Override
+   protected void processPacket(DatagramPacket packet) {
+      String senderIp = packet.getAddress().getHostAddress();
+      logger.debug("Packet received from {}:{}", senderIp, packet.getPort());
+
+      Ieee1609Envelope envelope = Ieee1609Envelope.parse(packet.getData(), packet.getOffset(), packet.getLength());
+      SupportedMessageTypes msgType = envelope != null ? envelope.getMessageType() : null;
+      if (msgType == null) {
+         logger.debug("Dropping unsupported packet from {} on port {}: {}", senderIp, port, envelope);
+         stats.markDropped();
+         return;
+      }
+
+      byte[] payload = extractPayload(packet, envelope, msgType);
+      if (payload == null)
+         return;
+
+      // Submit JSON to the OdeRawEncodedMessageJson Kafka Topic of the type
+      publish(publisher, msgType, payload, senderIp);
+   }
+}
@@ -0,0 +1,335 @@
+package us.dot.its.jpo.ode.uper;
+
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+
+/**
+ * Location of a J2735 MessageFrame inside a received packet, found by walking
+ * the IEEE 1609.3 WSMP header and the IEEE 1609.2 envelope that may precede it.
+ *
+ * The walk reads each header field once and only falls back to scanning the
+ * packet for a valid MessageFrame when the headers are not recognized, so
+ * classifying a well formed packet costs O(header) rather than O(packet).
+ *
+ * Like {@link UperUtil#stripDot3Header(byte[], byte[]...)}, the payload keeps
+ * a signed 1609.2 header for the decoder while the WSMP and unsecured 1609.2
+ * headers are stripped.
+ */
+public final class Ieee1609Envelope {
+
+    public static final int NO_PSID = -1;
+
+    private static final int WSMP_VERSION = 3;
+    private static final int WSMP_VERSION_MASK = 0x07;
+    private static final int WSMP_OPTION_INDICATOR = 0x08;
+    private static final int MAX_SUPPORTED_TPID = 3;
+
+    private static final int DOT2_PROTOCOL_VERSION = 3;
+    private static final int DOT2_UNSECURED_DATA = 0x80;
+    private static final int DOT2_SIGNED_DATA = 0x81;
+    private static final int DOT2_SIGNED_PAYLOAD_HAS_DATA = 0x40;
+    private static final int MAX_DOT2_NESTING = 2;
+
+    private final int payloadOffset;
+    private final int payloadLength;
+    private final int messageFrameOffset;
+    private final int messageId;
+    private final int psid;
+    private final boolean wsmpHeader;
+    private final boolean signed;
+
+    private Ieee1609Envelope(int payloadOffset, int payloadLength, int messageFrameOffset, int messageId, int psid,
+            boolean wsmpHeader, boolean signed) {
+        this.payloadOffset = payloadOffset;
+        this.payloadLength = payloadLength;
+        this.messageFrameOffset = messageFrameOffset;
+        this.messageId = messageId;
+        this.psid = psid;
+        this.wsmpHeader = wsmpHeader;
+        this.signed = signed;
+    }
+
+    /**
+     * Parses the headers in <code>length</code> bytes of <code>data</code>
+     * starting at <code>offset</code>.
+     *
+     * @return the envelope, or null if no MessageFrame could be located
+     */
+    public static Ieee1609Envelope parse(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int pos = offset;
+        int psid = NO_PSID;
+        boolean wsmpHeader = false;
+
+        // IEEE 1609.3 WSMP N-Header and T-Header. A 1609.2 header also starts with
+        // 0x03 but is followed by a content type that is never a valid TPID.
+        boolean options = end - pos >= 2 && (data[pos] & WSMP_OPTION_INDICATOR) != 0;
+        if (end - pos >= 2 && (data[pos] & WSMP_VERSION_MASK) == WSMP_VERSION
+                && (options || (data[pos + 1] & 0xff) <= MAX_SUPPORTED_TPID)) {
+            pos++;
+            if (options)
+                pos = skipExtensionFields(data, pos, end);
+            if (pos < 0 || pos >= end)
+                return scan(data, offset, end);
+
+            int tpid = data[pos++] & 0xff;
+            if (tpid <= 1) {
+                int psidLength = psidLength(data, pos, end);
+                if (psidLength < 0)
+                    return scan(data, offset, end);
+                psid = decodePsid(data, pos, psidLength);
+                pos += psidLength;
+            } else {
+                // source and destination port
+                pos += 4;
+            }
+            if ((tpid & 1) != 0)
+                pos = skipExtensionFields(data, pos, end);
+            if (pos < 0)
+                return scan(data, offset, end);
+
+            int wsmLength = readCount(data, pos, end);
+            if (wsmLength < 0)
+                return scan(data, offset, end);
+            pos += countLength(data[pos]);
+            if (pos + wsmLength > end)
+                return scan(data, offset, end);
+            end = pos + wsmLength;
+            wsmpHeader = true;
+        }
+
+        // IEEE 1609.2 Ieee1609Dot2Data, possibly a signed envelope around an
+        // unsecured one
+        int payloadStart = pos;
+        boolean signed = false;
+        for (int depth = 0; depth < MAX_DOT2_NESTING && end - pos >= 2
+                && data[pos] == DOT2_PROTOCOL_VERSION; depth++) {
+            int contentType = data[pos + 1] & 0xff;
+            if (contentType == DOT2_UNSECURED_DATA) {
+                pos += 2;
+                int opaqueLength = oerLengthSize(data, pos, end);
+                if (opaqueLength < 0)
+                    return scan(data, offset, end);
+                pos += opaqueLength;
+                if (!signed)
+                    payloadStart = pos;
+                break;
+            } else if (contentType == DOT2_SIGNED_DATA && !signed) {
+                // hashId and the SignedDataPayload preamble
+                if (end - pos < 4 || (data[pos + 3] & DOT2_SIGNED_PAYLOAD_HAS_DATA) == 0)
+                    return scan(data, offset, end);
+                signed = true;
+                payloadStart = pos;
+                pos += 4;
+            } else {
+                return scan(data, offset, end);
+            }
+        }
+
+        int messageId = messageFrameId(data, pos, end);
+        if (messageId < 0)
+            return scan(data, offset, end);
+
+        return new Ieee1609Envelope(payloadStart, end - payloadStart, pos, messageId, psid, wsmpHeader, signed);
+    }
+
+    /**
+     * Fallback for packets whose headers could not be walked: the first
+     * supported MessageFrame whose length determinant fits in the packet,
+     * preceded by a signed 1609.2 header if one is found before it.
+     */
+    private static Ieee1609Envelope scan(byte[] data, int offset, int end) {
+        for (int pos = offset; pos < end - 1; pos++) {
+            if (data[pos] != 0)
+                continue;
+            int messageId = messageFrameId(data, pos, end);
+            if (messageId < 0)
+                continue;
+
+            int payloadStart = UperUtil.indexOfSignedDot2Header(data, offset, pos);
+            boolean signed = payloadStart != -1;
+            if (!signed)
+                payloadStart = pos;
+            return new Ieee1609Envelope(payloadStart, end - payloadStart, pos, messageId, NO_PSID, false, signed);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the messageId of a UPER MessageFrame at <code>pos</code> and checks
+     * that the length determinant of its value fits before <code>end</code>.
+     * Only supported message IDs are accepted, even behind recognized headers,
+     * so a header walked wrongly falls back to the scan instead of locating an
+     * unsupported message.
+     *
+     * @return the messageId, or -1
+     */
+    private static int messageFrameId(byte[] data, int pos, int end) {
+        if (end - pos < 3 || (data[pos] & 0x80) != 0)
+            return -1;
+        int messageId = ((data[pos] & 0x7f) << 8) | (data[pos + 1] & 0xff);
+        if (SupportedMessageTypes.fromMessageId(messageId) == null)
+            return -1;
+
+        int lengthByte = data[pos + 2] & 0xff;
+        int valueLength;
+        int headerLength;
+        if ((lengthByte & 0x80) == 0) {
+            valueLength = lengthByte;
+            headerLength = 3;
+        } else if ((lengthByte & 0xc0) == 0x80 && end - pos >= 4) {
+            valueLength = ((lengthByte & 0x3f) << 8) | (data[pos + 3] & 0xff);
+            headerLength = 4;
+        } else {
+            // fragmented values are not expected in a single packet
+            return -1;
+        }
+        return pos + headerLength + valueLength <= end ? messageId : -1;
+    }
+
+    /**
+     * Skips a 1609.3 extension field list: a count followed by that many
+     * elements made of an ID octet, a length and the contents.
+     *
+     * @return the position after the list, or -1
+     */
+    private static int skipExtensionFields(byte[] data, int pos, int end) {
+        int count = readCount(data, pos, end);
+        if (count < 0)
+            return -1;
+        pos += countLength(data[pos]);
+        for (int i = 0; i < count; i++) {
+            if (pos + 1 >= end)
+                return -1;
+            pos++;
+            int elementLength = readCount(data, pos, end);
+            if (elementLength < 0)
+                return -1;
+            pos += countLength(data[pos]) + elementLength;
+        }
+        return pos <= end ? pos : -1;
+    }
+
+    /**
+     * Reads a 1609.3 Count/Length field: one octet for values below 128,
+     * otherwise two octets with the leading bits <code>10</code>.
+     */
+    private static int readCount(byte[] data, int pos, int end) {
+        if (pos >= end)
+            return -1;
+        int first = data[pos] & 0xff;
+        if ((first & 0x80) == 0)
+            return first;
+        if ((first & 0xc0) != 0x80 || pos + 1 >= end)
+            return -1;
+        return ((first & 0x3f) << 8) | (data[pos + 1] & 0xff);
+    }
+
+    private static int countLength(byte first) {
+        return (first & 0x80) == 0 ? 1 : 2;
+    }
+
+    /**
+     * Size of a p-encoded PSID (IEEE 1609.12), given by the number of leading
+     * one bits of its first octet.
+     */
+    private static int psidLength(byte[] data, int pos, int end) {
+        if (pos >= end)
+            return -1;
+        int first = data[pos] & 0xff;
+        int length;
+        if ((first & 0x80) == 0)
+            length = 1;
+        else if ((first & 0xc0) == 0x80)
+            length = 2;
+        else if ((first & 0xe0) == 0xc0)
+            length = 3;
+        else if ((first & 0xf0) == 0xe0)
+            length = 4;
+        else
+            return -1;
+        return pos + length <= end ? length : -1;
+    }
+
+    private static int decodePsid(byte[] data, int pos, int length) {
+        switch (length) {
+        case 1:
+            return data[pos] & 0x7f;
+        case 2:
+            return (((data[pos] & 0x3f) << 8) | (data[pos + 1] & 0xff)) + 0x80;
+        case 3:
+            return (((data[pos] & 0x1f) << 16) | ((data[pos + 1] & 0xff) << 8) | (data[pos + 2] & 0xff)) + 0x4080;
+        default:
+            return (((data[pos] & 0x0f) << 24) | ((data[pos + 1] & 0xff) << 16) | ((data[pos + 2] & 0xff) << 8)
+                    | (data[pos + 3] & 0xff)) + 0x204080;
+        }
+    }
+
+    /**
+     * Size of a COER length determinant: short form below 128, otherwise
+     * <code>0x80 | n</code> followed by n octets.
+     *
+     * @return the size of the determinant itself, or -1
+     */
+    private static int oerLengthSize(byte[] data, int pos, int end) {
+        if (pos >= end)
+            return -1;
+        int first = data[pos] & 0xff;
+        if ((first & 0x80) == 0)
+            return 1;
+        int size = 1 + (first & 0x7f);
+        return size <= 5 && pos + size <= end ? size : -1;
+    }
+
+    /**
+     * Offset of the payload handed to the decoder: the signed 1609.2 header if
+     * there is one, otherwise the MessageFrame.
+     */
+    public int getPayloadOffset() {
+        return payloadOffset;
+    }
+
+    /**
+     * Length of the payload, bounded by the WSM length when a WSMP header was
+     * present and by the end of the packet otherwise.
+     */
+    public int getPayloadLength() {
+        return payloadLength;
+    }
+
+    public int getMessageFrameOffset() {
+        return messageFrameOffset;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * @return the supported message type of the frame
+     */
+    public SupportedMessageTypes getMessageType() {
+        return SupportedMessageTypes.fromMessageId(messageId);
+    }
+
+    /**
+     * @return the PSID carried in the WSMP header, or {@link #NO_PSID}
+     */
+    public int getPsid() {
+        return psid;
+    }
+
+    public boolean hasWsmpHeader() {
+        return wsmpHeader;
+    }
+
+    public boolean isSigned() {
+        return signed;
+    }
+
+    @Override
+    public String toString() {
+        return "Ieee1609Envelope [payloadOffset=" + payloadOffset + ", payloadLength=" + payloadLength
+                + ", messageFrameOffset=" + messageFrameOffset + ", messageId=" + messageId + ", psid=" + psid
+                + ", wsmpHeader=" + wsmpHeader + ", signed=" + signed + "]";
+    }
+}
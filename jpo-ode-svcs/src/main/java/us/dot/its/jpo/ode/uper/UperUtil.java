@@ -1,5 +1,8 @@
 package us.dot.its.jpo.ode.uper;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 
 import org.apache.tomcat.util.buf.HexUtils;
@@ -7,7 +10,9 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import us.dot.its.jpo.ode.model.OdeHexByteArray;
 import us.dot.its.jpo.ode.model.OdeMsgPayload;
+import us.dot.its.jpo.ode.util.CodecUtils;
 import us.dot.its.jpo.ode.util.JsonUtils;
 import us.dot.its.jpo.ode.util.JsonUtils.JsonUtilsException;
 
@@ -23,8 +28,48 @@ public class UperUtil {
     private static final String MAP_START_FLAG = "0012"; 
     private static final String PSM_START_FLAG = "0020";
 
+    // start of a signed IEEE 1609.2 header
+    private static final byte[] SIGNED_DOT2_START_FLAG = { 0x03, (byte) 0x81, 0x00 };
+
     public enum SupportedMessageTypes {
-        BSM, TIM, SPAT, SSM, SRM, MAP, PSM
+        BSM(20), TIM(31), SPAT(19), SSM(30), SRM(29), MAP(18), PSM(32);
+
+        private static final SupportedMessageTypes[] byMessageId = new SupportedMessageTypes[64];
+
+        static {
+            for (SupportedMessageTypes msgType : values()) {
+                byMessageId[msgType.messageId] = msgType;
+            }
+        }
+
+        private final int messageId;
+
+        SupportedMessageTypes(int messageId) {
+            this.messageId = messageId;
+        }
+
+        /**
+         * @return the J2735 DSRCmsgID of the message type
+         */
+        public int getMessageId() {
+            return messageId;
+        }
+
+        /**
+         * @return the message type with the given J2735 DSRCmsgID, or null if it
+         *         is not supported
+         */
+        public static SupportedMessageTypes fromMessageId(int messageId) {
+            return messageId >= 0 && messageId < byMessageId.length ? byMessageId[messageId] : null;
+        }
+    }
+
+    private static final EnumMap<SupportedMessageTypes, byte[]> startFlagBytes = new EnumMap<>(SupportedMessageTypes.class);
+
+    static {
+        for (SupportedMessageTypes msgType : SupportedMessageTypes.values()) {
+            startFlagBytes.put(msgType, HexUtils.fromHexString(getStartFlag(msgType)));
+        }
     }
 
     // Strips the IEEE 1609.2 security header (if it exists) and returns the payload
@@ -36,92 +81,186 @@ public class UperUtil {
         return hexString.substring(startIndex, hexString.length());
     }
 
-    /*
-     * Strips the 1609.3 and unsigned 1609.2 headers if they are present.
-     * Will return the payload with a signed 1609.2 header if it is present.
-     * Otherwise, returns just the payload.
+    /**
+     * Locates the message payload in <code>length</code> bytes of
+     * <code>data</code> starting at <code>offset</code>, without copying. The
+     * payload starts at the first occurrence of the message start flag, or at
+     * the signed 1609.2 header preceding it if there is one, so the 1609.3 and
+     * unsigned 1609.2 headers are skipped.
+     * 
+     * @return a view over <code>data</code> whose position and limit bound the
+     *         payload, or null if the start flag is not present
      */
-    public static byte[] stripDot3Header(byte[] packet, HashMap<String, String> msgStartFlags) {
-        String hexString = HexUtils.toHexString(packet);
-        String hexPacketParsed = "";
+    public static ByteBuffer findPayload(byte[] data, int offset, int length, SupportedMessageTypes msgType) {
+        return findPayload(data, offset, length, startFlagBytes.get(msgType));
+    }
 
-        for (String start_flag : msgStartFlags.values()) {
-            int payloadStartIndex = hexString.indexOf(start_flag);
+    public static ByteBuffer findPayload(byte[] data, int offset, int length, byte[] startFlag) {
+        int end = offset + length;
+        int payloadStart = indexOf(data, offset, end, startFlag);
+        if (payloadStart == -1)
+            return null;
 
-            if (payloadStartIndex == -1)
-                continue;
+        int signedDot2Start = indexOfSignedDot2Header(data, offset, payloadStart);
+        if (signedDot2Start != -1)
+            payloadStart = signedDot2Start;
 
-            String headers = hexString.substring(0, payloadStartIndex);
-            String payload = hexString.substring(payloadStartIndex, hexString.length());
-            
-            // Look for the index of the start flag of a signed 1609.2 header, if one exists
-            int signedDot2StartIndex = headers.indexOf("038100");
-            if (signedDot2StartIndex == -1)
-                hexPacketParsed = payload;
-            else
-                hexPacketParsed = headers.substring(signedDot2StartIndex, headers.length()) + payload;
-            break;
+        return ByteBuffer.wrap(data, payloadStart, end - payloadStart);
+    }
+
+    /**
+     * Returns the index of the first signed 1609.2 header lying entirely within
+     * <code>data[from, to)</code>, or -1.
+     */
+    public static int indexOfSignedDot2Header(byte[] data, int from, int to) {
+        return indexOf(data, from, to, SIGNED_DOT2_START_FLAG);
+    }
+
+    /**
+     * Returns the index of the first occurrence of <code>pattern</code> that
+     * lies entirely within <code>data[from, to)</code>, or -1.
+     */
+    public static int indexOf(byte[] data, int from, int to, byte[] pattern) {
+        int last = to - pattern.length;
+        byte first = pattern[0];
+        next:
+        for (int i = from; i <= last; i++) {
+            if (data[i] != first)
+                continue;
+            for (int j = 1; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j])
+                    continue next;
+            }
+            return i;
         }
+        return -1;
+    }
 
-        if (hexPacketParsed.equals("")) {
-            hexPacketParsed = hexString;
-            logger.debug("Packet is not a BSM, TIM or Map message: " + hexPacketParsed);
+    /**
+     * Copies the remaining bytes of a payload view into a new array.
+     */
+    public static byte[] toByteArray(ByteBuffer payload) {
+        if (payload.hasArray()) {
+            int start = payload.arrayOffset() + payload.position();
+            return Arrays.copyOfRange(payload.array(), start, start + payload.remaining());
         }
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return bytes;
+    }
 
-        return HexUtils.fromHexString(hexPacketParsed);
+    public static byte[] getStartFlagBytes(SupportedMessageTypes msgType) {
+        return startFlagBytes.get(msgType).clone();
     }
 
     /*
      * Strips the 1609.3 and unsigned 1609.2 headers if they are present.
      * Will return the payload with a signed 1609.2 header if it is present.
-     * Otherwise, returns just the payload.
+     * Otherwise, returns just the payload. The start flags are tried in order
+     * and the packet is returned unchanged if none of them is found.
+     */
+    public static byte[] stripDot3Header(byte[] packet, byte[]... msgStartFlags) {
+        for (byte[] startFlag : msgStartFlags) {
+            ByteBuffer payload = findPayload(packet, 0, packet.length, startFlag);
+            if (payload != null)
+                return toByteArray(payload);
+        }
+
+        if (logger.isDebugEnabled())
+            logger.debug("Packet is not a BSM, TIM or Map message: " + HexUtils.toHexString(packet));
+        return packet;
+    }
+
+    /*
+     * Hex string keyed variant of {@link #stripDot3Header(byte[], byte[]...)}.
+     */
+    public static byte[] stripDot3Header(byte[] packet, HashMap<String, String> msgStartFlags) {
+        byte[][] startFlags = new byte[msgStartFlags.size()][];
+        int i = 0;
+        for (String start_flag : msgStartFlags.values()) {
+            startFlags[i++] = HexUtils.fromHexString(start_flag);
+        }
+        return stripDot3Header(packet, startFlags);
+    }
+
+    /*
+     * Hex string variant of {@link #stripDot3Header(byte[], byte[]...)}. Flags
+     * are only matched at byte boundaries. Returns the input unchanged if it is
+     * not valid hex or the start flag is not found.
      */
     public static String stripDot3Header(String hexString, String payload_start_flag) {
-        int payloadStartIndex = hexString.indexOf(payload_start_flag);
-        String headers = hexString.substring(0, payloadStartIndex);
-        String payload = hexString.substring(payloadStartIndex, hexString.length());
-        // Look for the index of the start flag of a signed 1609.2 header
-        int signedDot2StartIndex = headers.indexOf("038100");
-        if (signedDot2StartIndex == -1)
-            return payload;
-        else
-            return headers.substring(signedDot2StartIndex, headers.length()) + payload;
-    }
-
-    	/**
-		* Determines the message type based off the most likely start flag
-		* 
-		* @param payload The OdeMsgPayload to check the content of.
-		*/
-	public static String determineMessageType(OdeMsgPayload payload) {
-		String messageType = "";
-		try {
-			JSONObject payloadJson = JsonUtils.toJSONObject(payload.getData().toJson());
-			String hexString = payloadJson.getString("bytes").toLowerCase();
-
-			HashMap<String, Integer> flagIndexes = new HashMap<String, Integer>();
-			flagIndexes.put("MAP", hexString.indexOf(MAP_START_FLAG));
-			flagIndexes.put("TIM", hexString.indexOf(TIM_START_FLAG));
-			flagIndexes.put("SSM", hexString.indexOf(SSM_START_FLAG));
-			flagIndexes.put("PSM", hexString.indexOf(PSM_START_FLAG));
-			flagIndexes.put("SRM", hexString.indexOf(SRM_START_FLAG));
-
-			int lowestIndex = Integer.MAX_VALUE;
-			for (String key : flagIndexes.keySet()) {
-				if (flagIndexes.get(key) == -1) {
-					logger.debug("This message is not of type " + key);
-					continue;
-				}
-				if (flagIndexes.get(key) < lowestIndex) {
-					messageType = key;
-					lowestIndex = flagIndexes.get(key);
-				}
-			}
-		} catch (JsonUtilsException e) {
-			logger.error("JsonUtilsException while checking message header. Stacktrace: " + e.toString());
-		}
-		return messageType;
-	}
+        byte[] packet;
+        try {
+            packet = HexUtils.fromHexString(hexString);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Packet is not valid hex: {}", hexString);
+            return hexString;
+        }
+        ByteBuffer payload = findPayload(packet, 0, packet.length, HexUtils.fromHexString(payload_start_flag));
+        if (payload == null)
+            return hexString;
+        return hexString.substring(payload.position() * 2);
+    }
+
+    /**
+     * Classifies a packet by the messageId of its MessageFrame, located by
+     * walking the 1609.3 and 1609.2 headers with {@link Ieee1609Envelope}.
+     * Packets without a well formed MessageFrame fall back to the earliest
+     * start flag found in the packet.
+     *
+     * @return the message type, or null if it is unknown or not supported
+     */
+    public static SupportedMessageTypes getMessageType(byte[] data, int offset, int length) {
+        Ieee1609Envelope envelope = Ieee1609Envelope.parse(data, offset, length);
+        if (envelope != null)
+            return envelope.getMessageType();
+
+        SupportedMessageTypes messageType = null;
+        int end = offset + length;
+        int lowestIndex = end;
+        for (SupportedMessageTypes msgType : SupportedMessageTypes.values()) {
+            // only look for flags starting before the earliest one found so far
+            int index = indexOf(data, offset, Math.min(end, lowestIndex + 1), startFlagBytes.get(msgType));
+            if (index != -1) {
+                messageType = msgType;
+                lowestIndex = index;
+            }
+        }
+        return messageType;
+    }
+
+    /**
+     * Determines the message type of an ASN.1 payload by its messageId.
+     *
+     * @param payload The OdeMsgPayload to check the content of.
+     * @return the message type, or null if it could not be determined
+     */
+    public static SupportedMessageTypes getMessageType(OdeMsgPayload payload) {
+        byte[] bytes;
+        if (payload.getData() instanceof OdeHexByteArray) {
+            bytes = CodecUtils.fromHex(((OdeHexByteArray) payload.getData()).getBytes());
+        } else {
+            try {
+                JSONObject payloadJson = JsonUtils.toJSONObject(payload.getData().toJson());
+                bytes = CodecUtils.fromHex(payloadJson.getString("bytes"));
+            } catch (JsonUtilsException e) {
+                logger.error("JsonUtilsException while checking message header. Stacktrace: " + e.toString());
+                return null;
+            }
+        }
+        return getMessageType(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Determines the message type based off the messageId of the payload
+     * 
+     * @param payload The OdeMsgPayload to check the content of.
+     * @return the name of the message type, or an empty string if unknown
+     */
+    public static String determineMessageType(OdeMsgPayload payload) {
+        SupportedMessageTypes messageType = getMessageType(payload);
+        return messageType != null ? messageType.name() : "";
+    }
 
     // Get methods for message start flags
     public static String getBsmStartFlag() {
@@ -18,7 +18,6 @@ package us.dot.its.jpo.ode.upload;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +38,7 @@ import us.dot.its.jpo.ode.importer.ImporterDirectoryWatcher;
 import us.dot.its.jpo.ode.importer.ImporterDirectoryWatcher.ImporterFileType;
 import us.dot.its.jpo.ode.storage.StorageFileNotFoundException;
 import us.dot.its.jpo.ode.storage.StorageService;
+import us.dot.its.jpo.ode.util.ExecutorFactory;
 
 @RestController
 public class FileUploadController {
@@ -56,7 +56,7 @@ public class FileUploadController {
       super();
       this.storageService = storageService;
 
-      ExecutorService threadPool = Executors.newCachedThreadPool();
+      ExecutorService threadPool = ExecutorFactory.newCachedThreadPool("FileUploadController");
 
       Path logPath = Paths.get(odeProperties.getUploadLocationRoot(),
          odeProperties.getUploadLocationObuLog());
@@ -0,0 +1,47 @@
+package us.dot.its.jpo.ode.coder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import us.dot.its.jpo.ode.context.AppContext;
+import us.dot.its.jpo.ode.plugin.j2735.J2735DSRCmsgID;
+import us.dot.its.jpo.ode.util.XmlUtils;
+
+public class DecodedMessageBindingTest {
+
+   @Test
+   public void testForMessageId() {
+      for (J2735DSRCmsgID msgId : J2735DSRCmsgID.values()) {
+         assertEquals(msgId.getMsgID(), DecodedMessageBinding.forMessageId(msgId.getMsgID()).getMessageId());
+      }
+      assertSame(DecodedMessageBinding.BSM, DecodedMessageBinding.forMessageId(20));
+      assertNull(DecodedMessageBinding.forMessageId(17));
+   }
+
+   @Test
+   public void testPartsOfDecoderOutput() throws Exception {
+      ObjectNode consumed;
+      try (InputStream in = getClass().getResourceAsStream("bsmDecoderOutput.xml")) {
+         consumed = XmlUtils.toObjectNode(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      assertSame(consumed.findValue(AppContext.METADATA_STRING), DecodedMessageBinding.metadata(consumed));
+      assertSame(consumed.findValue("BasicSafetyMessage"), DecodedMessageBinding.BSM.message(consumed));
+      assertNull(DecodedMessageBinding.SPAT.message(consumed));
+   }
+
+   @Test
+   public void testPartsSearchedOutsideTheLayout() throws Exception {
+      ObjectNode consumed = XmlUtils.toObjectNode(
+            "<root><metadata><recordType>rxMsg</recordType></metadata><SPAT><intersections/></SPAT></root>");
+      assertEquals("rxMsg", DecodedMessageBinding.metadata(consumed).get("recordType").textValue());
+      assertEquals("", DecodedMessageBinding.SPAT.message(consumed).get("intersections").textValue());
+   }
+}
@@ -0,0 +1,101 @@
+package us.dot.its.jpo.ode.coder;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.wrapper.serdes.MessagingSerializer;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmDeserializer;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmSerializer;
+
+/**
+ * Compares the serialization of a decoded BSM to the BSM POJO topic: the Kryo
+ * serialization of earlier releases, which published the whole Kryo buffer,
+ * and the versioned {@link OdeBsmSerializer}. The record size of each is
+ * printed when the benchmark sets up. Java object serialization is left out,
+ * the BSM model does not support it.
+ *
+ * Run from the main method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OdeBsmSerdesBenchmark {
+
+   public enum Format {
+      LEGACY_KRYO, VERSIONED_KRYO
+   }
+
+   @Param({ "LEGACY_KRYO", "VERSIONED_KRYO" })
+   private Format format;
+
+   private OdeBsmData bsm;
+   private byte[] record;
+
+   private final Kryo legacyKryo = new Kryo();
+   private final OdeBsmSerializer serializer = new OdeBsmSerializer();
+   private final OdeBsmDeserializer deserializer = new OdeBsmDeserializer();
+
+   static OdeBsmData decodedBsm() throws Exception {
+      try (InputStream in = OdeBsmSerdesBenchmark.class.getResourceAsStream("bsmDecoderOutput.xml")) {
+         return OdeBsmDataCreatorHelper.createOdeBsmData(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+      }
+   }
+
+   @Setup
+   public void setup() throws Exception {
+      serializer.configure(Map.of(MessagingSerializer.LEGACY_FORMAT_CONFIG, false), false);
+      bsm = decodedBsm();
+      record = serialize();
+      System.out.printf("%n%s: %d bytes per record%n", format, record.length);
+   }
+
+   @Benchmark
+   public byte[] serialize() {
+      if (format == Format.LEGACY_KRYO) {
+         Output output = new Output(1024, -1);
+         legacyKryo.writeClassAndObject(output, bsm);
+         return output.getBuffer();
+      }
+      return serializer.serialize(null, bsm);
+   }
+
+   @Benchmark
+   public Object deserialize() {
+      if (format == Format.LEGACY_KRYO)
+         return legacyKryo.readClassAndObject(new Input(record));
+      return deserializer.deserialize(null, record);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      Options options = new OptionsBuilder()
+            .include(OdeBsmSerdesBenchmark.class.getSimpleName())
+            .build();
+      new Runner(options).run();
+   }
+}
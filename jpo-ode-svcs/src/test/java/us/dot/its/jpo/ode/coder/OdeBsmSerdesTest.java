@@ -0,0 +1,47 @@
+package us.dot.its.jpo.ode.coder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+
+import us.dot.its.jpo.ode.model.OdeBsmData;
+import us.dot.its.jpo.ode.util.SerializationUtils;
+import us.dot.its.jpo.ode.wrapper.serdes.MessagingSerializer;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmDeserializer;
+import us.dot.its.jpo.ode.wrapper.serdes.OdeBsmSerializer;
+
+public class OdeBsmSerdesTest {
+
+   @Test
+   public void testDecodedBsmRoundTrip() throws Exception {
+      OdeBsmData bsm = OdeBsmSerdesBenchmark.decodedBsm();
+
+      byte[] record = new OdeBsmSerializer().serialize("topic.OdeBsmPojo", bsm);
+      OdeBsmData actual = new OdeBsmDeserializer().deserialize("topic.OdeBsmPojo", record);
+      assertEquals(bsm.toJson(), actual.toJson());
+
+      // records published by earlier releases
+      Output output = new Output(1024, -1);
+      new Kryo().writeClassAndObject(output, bsm);
+      assertTrue(record.length < output.getBuffer().length);
+      actual = new OdeBsmDeserializer().deserialize("topic.OdeBsmPojo", output.getBuffer());
+      assertEquals(bsm.toJson(), actual.toJson());
+   }
+
+   @Test
+   public void testVersionedFormatConfigured() throws Exception {
+      OdeBsmData bsm = OdeBsmSerdesBenchmark.decodedBsm();
+      OdeBsmSerializer serializer = new OdeBsmSerializer();
+      serializer.configure(Map.of(MessagingSerializer.LEGACY_FORMAT_CONFIG, "false"), false);
+
+      byte[] record = serializer.serialize("topic.OdeBsmPojo", bsm);
+      assertEquals(SerializationUtils.MAGIC_0, record[0]);
+      assertEquals(bsm.toJson(), new OdeBsmDeserializer().deserialize("topic.OdeBsmPojo", record).toJson());
+   }
+}
@@ -17,7 +17,6 @@ package us.dot.its.jpo.ode.importer;
 
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -30,6 +29,7 @@ import mockit.Mocked;
 import mockit.Tested;
 import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.importer.ImporterDirectoryWatcher.ImporterFileType;
+import us.dot.its.jpo.ode.util.ExecutorFactory;
 
 public class ImporterDirectoryWatcherTest {
 
@@ -53,8 +53,8 @@ public class ImporterDirectoryWatcherTest {
    OdeFileUtils capturingOdeFileUtils;
    @Capturing
    ImporterProcessor capturingImporterProcessor;
-   @Capturing
-   Executors capturingExecutors;
+   @Mocked
+   ExecutorFactory mockExecutorFactory;
 
    @Mocked
    ScheduledExecutorService mockScheduledExecutorService;
@@ -66,7 +66,7 @@ public class ImporterDirectoryWatcherTest {
             OdeFileUtils.createDirectoryRecursively((Path) any);
             times = 3;
 
-            Executors.newScheduledThreadPool(1);
+            ExecutorFactory.newSingleThreadScheduledExecutor(anyString);
             result = mockScheduledExecutorService;
          }
       };
@@ -79,7 +79,7 @@ public class ImporterDirectoryWatcherTest {
             OdeFileUtils.createDirectoryRecursively((Path) any);
             times = 3;
 
-            Executors.newScheduledThreadPool(1);
+            ExecutorFactory.newSingleThreadScheduledExecutor(anyString);
             result = mockScheduledExecutorService;
 
             mockScheduledExecutorService.scheduleWithFixedDelay((Runnable) any, anyLong, anyLong, TimeUnit.SECONDS);
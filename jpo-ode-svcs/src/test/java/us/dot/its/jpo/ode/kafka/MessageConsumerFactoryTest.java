@@ -0,0 +1,125 @@
+package us.dot.its.jpo.ode.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.services.asn1.Asn1DecodedDataRouter;
+import us.dot.its.jpo.ode.services.asn1.message.Asn1DecodeBSMJSON;
+import us.dot.its.jpo.ode.wrapper.MessageConsumer;
+import us.dot.its.jpo.ode.wrapper.OrderedWorkerPool;
+
+public class MessageConsumerFactoryTest {
+
+   @Test
+   public void testConsumersConfiguredPerProcessorClass() {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setKafkaBrokers("localhost:9092");
+      new Binder(new MapConfigurationPropertySource(Map.of(
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.threads", "4",
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.ordering", "key",
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.commitMode", "sync",
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.maxDeliveryAttempts", "5",
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.maxPollRecords", "1000",
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.fetchMinBytes", "65536",
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.adaptive", "true",
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.maxBatchRecords", "5000")))
+            .bind("ode", Bindable.ofInstance(odeProps));
+
+      Asn1DecodedDataRouter router = new Asn1DecodedDataRouter(odeProps);
+      MessageConsumer<String, String> routerConsumer = MessageConsumerFactory.stringConsumer(odeProps,
+            "MessageConsumerFactoryTest", "Asn1DecoderConsumer", router);
+      assertEquals(4, router.getWorkerPool().getThreads());
+      assertEquals(OrderedWorkerPool.Ordering.KEY, router.getWorkerPool().getOrdering());
+      assertEquals("Asn1DecoderConsumer", routerConsumer.getName());
+      assertEquals(MessageConsumer.CommitMode.SYNC, routerConsumer.getCommitMode());
+      assertEquals(5, routerConsumer.getMaxDeliveryAttempts());
+      assertTrue(routerConsumer.isAdaptive());
+      assertEquals(1000, routerConsumer.getBatchTarget());
+      assertEquals(5000, routerConsumer.getMaxBatchRecords());
+      router.getWorkerPool().shutdown();
+      routerConsumer.getConsumer().close();
+
+      Asn1DecodeBSMJSON decoder = new Asn1DecodeBSMJSON(odeProps);
+      MessageConsumer<String, String> decoderConsumer = MessageConsumerFactory.stringConsumer(odeProps,
+            "MessageConsumerFactoryTest", "asn1DecodeBSMJSON", decoder);
+      assertNull(decoder.getWorkerPool());
+      assertEquals(MessageConsumer.CommitMode.AUTO, decoderConsumer.getCommitMode());
+      assertFalse(decoderConsumer.isAdaptive());
+      decoderConsumer.getConsumer().close();
+
+      MessageProducerRegistry.closeAll();
+   }
+
+   @Test
+   public void testUnsetFetchSettingsKeepKafkaDefaults() {
+      KafkaConsumerSettings settings = new KafkaConsumerSettings();
+      settings.setFetchMaxWaitMs(50);
+      settings.setMaxPartitionFetchBytes(2097152);
+
+      Properties props = settings.applyTo(new Properties());
+      assertEquals(Map.of("fetch.max.wait.ms", "50", "max.partition.fetch.bytes", "2097152"), props);
+   }
+
+   @Test
+   public void testAdaptiveRequiresManualCommits() {
+      KafkaConsumerSettings settings = new KafkaConsumerSettings();
+      settings.setAdaptive(true);
+      assertThrows(IllegalArgumentException.class, () -> settings.applyTo(new Properties()));
+
+      settings.setCommitMode(MessageConsumer.CommitMode.ASYNC);
+      assertEquals(new Properties(), settings.applyTo(new Properties()));
+   }
+
+   @Test
+   public void testGroupPerPipelineWithStaticMembership() {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setKafkaBrokers("localhost:9092");
+      new Binder(new MapConfigurationPropertySource(Map.of(
+            "ode.hostId", "ode-0",
+            "ode.kafkaConsumerGroupPerPipeline", "true",
+            "ode.kafkaConsumers.Asn1DecodeBSMJSON.staticMembership", "true",
+            "ode.kafkaConsumers.Asn1DecodeBSMJSON.cooperativeSticky", "true",
+            "ode.kafkaConsumers.Asn1DecodedDataRouter.groupId", "Asn1Router")))
+            .bind("ode", Bindable.ofInstance(odeProps));
+
+      KafkaConsumerSettings bsm = odeProps.getKafkaConsumers().get("Asn1DecodeBSMJSON");
+      String bsmGroupId = MessageConsumerFactory.groupId(odeProps, bsm, "AsnCodecMessageServiceController",
+            "asn1DecodeBSMJSON");
+      assertEquals("AsnCodecMessageServiceController.asn1DecodeBSMJSON", bsmGroupId);
+      assertEquals("AsnCodecMessageServiceController.asn1DecodeBSMJSON-ode-0",
+            MessageConsumerFactory.groupInstanceId(odeProps, bsmGroupId, "asn1DecodeBSMJSON"));
+      assertEquals("org.apache.kafka.clients.consumer.CooperativeStickyAssignor",
+            bsm.applyTo(new Properties()).get("partition.assignment.strategy"));
+
+      KafkaConsumerSettings router = odeProps.getKafkaConsumers().get("Asn1DecodedDataRouter");
+      assertEquals("Asn1Router", MessageConsumerFactory.groupId(odeProps, router,
+            "AsnCodecRouterServiceController", "Asn1DecoderConsumer"));
+      assertEquals("Asn1Router.Asn1DecoderConsumer-ode-0",
+            MessageConsumerFactory.groupInstanceId(odeProps, "Asn1Router", "Asn1DecoderConsumer"));
+
+      // a consumer joining as a static member with the cooperative assignor
+      Asn1DecodeBSMJSON decoder = new Asn1DecodeBSMJSON(odeProps);
+      MessageConsumer<String, String> consumer = MessageConsumerFactory.stringConsumer(odeProps,
+            "AsnCodecMessageServiceController", "asn1DecodeBSMJSON", decoder);
+      assertEquals("asn1DecodeBSMJSON", consumer.getName());
+      consumer.getConsumer().close();
+
+      odeProps.setKafkaConsumerGroupPerPipeline(false);
+      assertEquals("AsnCodecMessageServiceController", MessageConsumerFactory.groupId(odeProps,
+            new KafkaConsumerSettings(), "AsnCodecMessageServiceController", "asn1DecodeBSMJSON"));
+
+      MessageProducerRegistry.closeAll();
+   }
+}
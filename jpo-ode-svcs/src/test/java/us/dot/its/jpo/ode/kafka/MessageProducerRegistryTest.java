@@ -0,0 +1,154 @@
+package us.dot.its.jpo.ode.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import mockit.Capturing;
+import mockit.Verifications;
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.wrapper.MessageProducer;
+import us.dot.its.jpo.ode.wrapper.serdes.MessagingSerializer;
+
+public class MessageProducerRegistryTest {
+
+   private static OdeProperties odeProperties() {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setKafkaBrokers("localhost:9092");
+      return odeProps;
+   }
+
+   @AfterEach
+   public void closeProducers() {
+      MessageProducerRegistry.closeAll();
+   }
+
+   @Test
+   public void testPipelineSettingsOverrideDefaults() {
+      OdeProperties odeProps = odeProperties();
+      new Binder(new MapConfigurationPropertySource(Map.of(
+            "ode.kafkaProducers.decoded.lingerMs", "20",
+            "ode.kafkaProducers.decoded.compressionType", "lz4",
+            "ode.kafkaProducers.decoded.bufferMemory", "8388608")))
+            .bind("ode", Bindable.ofInstance(odeProps));
+
+      Properties decoded = MessageProducerRegistry.producerProperties(odeProps, ProducerPipeline.DECODED,
+            MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+      assertEquals(20, decoded.get("linger.ms"));
+      assertEquals("lz4", decoded.get("compression.type"));
+      assertEquals(8388608L, decoded.get("buffer.memory"));
+      assertEquals(ProducerProfile.THROUGHPUT.getBatchSize(), decoded.get("batch.size"));
+      assertEquals(MessageProducer.DEFAULT_PRODUCER_ACKS, decoded.get("acks"));
+      assertEquals(true, decoded.get(MessagingSerializer.LEGACY_FORMAT_CONFIG));
+
+      Properties ingest = MessageProducerRegistry.producerProperties(odeProps, ProducerPipeline.INGEST,
+            MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+      assertEquals(ProducerProfile.THROUGHPUT.getLingerMs(), ingest.get("linger.ms"));
+   }
+
+   @Test
+   public void testProfileSelectedPerPipeline() {
+      OdeProperties odeProps = odeProperties();
+      new Binder(new MapConfigurationPropertySource(Map.of(
+            "ode.kafkaProducers.ingest.profile", "latency",
+            "ode.kafkaProducers.ingest.compressionType", "none")))
+            .bind("ode", Bindable.ofInstance(odeProps));
+
+      Properties ingest = MessageProducerRegistry.producerProperties(odeProps, ProducerPipeline.INGEST,
+            MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+      assertEquals(0, ingest.get("linger.ms"));
+      assertEquals("1", ingest.get("acks"));
+      assertEquals("none", ingest.get("compression.type"));
+
+      Properties deposit = MessageProducerRegistry.producerProperties(odeProps, ProducerPipeline.DEPOSIT,
+            MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+      assertEquals(true, deposit.get("enable.idempotence"));
+      assertEquals("all", deposit.get("acks"));
+      assertEquals("zstd", deposit.get("compression.type"));
+      assertEquals(Integer.MAX_VALUE, deposit.get("retries"));
+   }
+
+   @Test
+   public void testIdempotenceOverrideSetsWhatItRequires() {
+      OdeProperties odeProps = odeProperties();
+      new Binder(new MapConfigurationPropertySource(Map.of(
+            "ode.kafkaProducers.ingest.enableIdempotence", "true")))
+            .bind("ode", Bindable.ofInstance(odeProps));
+
+      Properties ingest = MessageProducerRegistry.producerProperties(odeProps, ProducerPipeline.INGEST,
+            MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+      assertEquals(true, ingest.get("enable.idempotence"));
+      assertEquals("all", ingest.get("acks"));
+      assertEquals(Integer.MAX_VALUE, ingest.get("retries"));
+      assertEquals(5, ingest.get("max.in.flight.requests.per.connection"));
+      assertEquals(ProducerProfile.THROUGHPUT.getCompressionType(), ingest.get("compression.type"));
+
+      // the settings are accepted by the producer
+      MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.INGEST);
+   }
+
+   @Test
+   public void testIdempotenceWithoutAllAcksRejected() {
+      OdeProperties odeProps = odeProperties();
+      new Binder(new MapConfigurationPropertySource(Map.of(
+            "ode.kafkaProducers.deposit.acks", "1")))
+            .bind("ode", Bindable.ofInstance(odeProps));
+
+      try {
+         MessageProducerRegistry.producerProperties(odeProps, ProducerPipeline.DEPOSIT,
+               MessageProducer.SERIALIZATION_STRING_SERIALIZER);
+         fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+         assertTrue(e.getMessage().contains("acks=1"));
+      }
+   }
+
+   @Test
+   public void testProducersSharedPerPipelineAndSerializer() {
+      OdeProperties odeProps = odeProperties();
+
+      MessageProducer<String, String> first = MessageProducerRegistry.stringProducer(odeProps,
+            ProducerPipeline.INGEST);
+      MessageProducer<String, String> second = MessageProducerRegistry.stringProducer(odeProps,
+            ProducerPipeline.INGEST);
+      assertSame(first.getProducer(), second.getProducer());
+
+      assertNotSame(first.getProducer(),
+            MessageProducerRegistry.stringProducer(odeProps, ProducerPipeline.DECODED).getProducer());
+      assertNotSame(first.getProducer(),
+            MessageProducerRegistry.byteArrayProducer(odeProps, ProducerPipeline.INGEST).getProducer());
+   }
+
+   @Test
+   public void testClosingPublisherKeepsSharedProducerOpen(@Capturing Producer<String, String> capturingProducer) {
+      MessageProducer<String, String> publisher = MessageProducerRegistry.stringProducer(odeProperties(),
+            ProducerPipeline.INGEST);
+      publisher.close();
+      new Verifications() {
+         {
+            capturingProducer.close();
+            times = 0;
+         }
+      };
+
+      MessageProducerRegistry.closeAll();
+      new Verifications() {
+         {
+            capturingProducer.close();
+            times = 1;
+         }
+      };
+   }
+}
@@ -0,0 +1,122 @@
+package us.dot.its.jpo.ode.kafka;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the {@link ProducerProfile}s on the recorded JSON and XML messages
+ * in <code>data/</code>: the time to batch and compress them the way the
+ * producer record accumulator does, and the bytes the batches take on the
+ * wire, printed when the benchmark sets up. Batches are filled up to the
+ * batch size of the profile as they would be under sustained load, so the
+ * linger time plays no part.
+ *
+ * Run from the main method with jpo-ode-svcs as the working directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProducerProfileBenchmark {
+
+   private static final Path DATA = Paths.get("..", "data");
+   private static final Header[] NO_HEADERS = new Header[0];
+
+   @Param({ "DEFAULT", "THROUGHPUT", "LATENCY", "DURABLE" })
+   private ProducerProfile profile;
+
+   private List<byte[]> messages;
+   private CompressionType compressionType;
+
+   /**
+    * One message per line of the JSON captures and one per XML document.
+    */
+   static List<byte[]> loadMessages() throws IOException {
+      List<byte[]> messages = new ArrayList<>();
+      for (String file : new String[] { "bsmTx.json", "bsmLogDuringEvent.json", "driverAlert.json",
+            "rxMsg_TIM_GeneratedBy_RSU.json", "rxMsg_TIM_GeneratedBy_TMC_VIA_SAT.json",
+            "rxMsg_TIM_GeneratedBy_TMC_VIA_SNMP.json" }) {
+         for (String line : Files.readAllLines(DATA.resolve(file), StandardCharsets.UTF_8)) {
+            if (line.startsWith("{"))
+               messages.add(line.getBytes(StandardCharsets.UTF_8));
+         }
+      }
+      messages.add(Files.readAllBytes(DATA.resolve("rxMsg_TIM_Asn1DecoderInput.xml")));
+      messages.add(Files.readAllBytes(DATA.resolve("rxMsg_TIM_Asn1DecoderOutput.xml")));
+      return messages;
+   }
+
+   /**
+    * Bytes of the record batches holding every message.
+    */
+   static long wireBytes(List<byte[]> messages, CompressionType compressionType, int batchSize) {
+      long bytes = 0;
+      MemoryRecordsBuilder batch = null;
+      for (byte[] message : messages) {
+         if (batch != null && !batch.hasRoomFor(0L, null, message, NO_HEADERS)) {
+            bytes += batch.build().sizeInBytes();
+            batch = null;
+         }
+         if (batch == null) {
+            batch = MemoryRecords.builder(ByteBuffer.allocate(Math.max(batchSize, message.length + 128)),
+                  RecordBatch.CURRENT_MAGIC_VALUE, compressionType, TimestampType.CREATE_TIME, 0L);
+         }
+         batch.append(0L, null, message);
+      }
+      return batch != null ? bytes + batch.build().sizeInBytes() : bytes;
+   }
+
+   @Setup
+   public void setup() throws IOException {
+      messages = loadMessages();
+      compressionType = CompressionType.forName(profile.getCompressionType());
+
+      long messageBytes = messages.stream().mapToLong(m -> m.length).sum();
+      long wireBytes = wireBytes(messages, compressionType, profile.getBatchSize());
+      System.out.printf("%n%s: %d messages, %d bytes, %d bytes on the wire (%.1f%%)%n", profile, messages.size(),
+            messageBytes, wireBytes, 100.0 * wireBytes / messageBytes);
+   }
+
+   @Benchmark
+   public long batchMessages() {
+      return wireBytes(messages, compressionType, profile.getBatchSize());
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      Options options = new OptionsBuilder()
+            .include(ProducerProfileBenchmark.class.getSimpleName())
+            .build();
+      new Runner(options).run();
+   }
+}
@@ -0,0 +1,112 @@
+package us.dot.its.jpo.ode.services.asn1;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import us.dot.its.jpo.ode.coder.OdeBsmDataCreatorHelper;
+import us.dot.its.jpo.ode.context.AppContext;
+import us.dot.its.jpo.ode.model.OdeAsn1Data;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.traveler.TimTransmogrifier;
+import us.dot.its.jpo.ode.util.JsonUtils;
+import us.dot.its.jpo.ode.util.XmlUtils;
+
+/**
+ * Parse cost per message of the {@link Asn1DecodedDataRouter}, from the decoder
+ * output to the record published, without the producers. REPARSE is the
+ * routing of earlier releases: the XML is parsed for the messageId and
+ * recordType, then again by the data creator helper, by way of a JSON string.
+ * SINGLE_PARSE pre-scans for the messageId and recordType and parses the XML
+ * once into the tree handed to the helper.
+ *
+ * Run from the main method, in the jpo-ode-svcs directory so that the sample TIM
+ * in ../data is found.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Asn1DecodedDataRouterBenchmark {
+
+   public enum Message {
+      TIM, BSM
+   }
+
+   public enum Routing {
+      REPARSE, SINGLE_PARSE
+   }
+
+   @Param({ "TIM", "BSM" })
+   private Message message;
+
+   @Param({ "REPARSE", "SINGLE_PARSE" })
+   private Routing routing;
+
+   private String decoderOutput;
+
+   @Setup
+   public void setup() throws Exception {
+      if (message == Message.TIM) {
+         Path tim = Path.of("data", "rxMsg_TIM_Asn1DecoderOutput.xml");
+         if (!Files.exists(tim))
+            tim = Path.of("..").resolve(tim);
+         decoderOutput = Files.readString(tim);
+      } else {
+         try (InputStream in = OdeBsmDataCreatorHelper.class.getResourceAsStream("bsmDecoderOutput.xml")) {
+            decoderOutput = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+         }
+      }
+   }
+
+   @Benchmark
+   public Object route() throws Exception {
+      if (routing == Routing.REPARSE) {
+         JSONObject consumed = XmlUtils.toJSONObject(decoderOutput).getJSONObject(OdeAsn1Data.class.getSimpleName());
+         int messageId = consumed.getJSONObject(AppContext.PAYLOAD_STRING).getJSONObject(AppContext.DATA_STRING)
+               .getJSONObject("MessageFrame").getInt("messageId");
+         RecordType.valueOf(consumed.getJSONObject(AppContext.METADATA_STRING).getString("recordType"));
+         if (messageId == 31)
+            return TimTransmogrifier.createOdeTimData(consumed).toString();
+         return OdeBsmDataCreatorHelper
+               .createOdeBsmData(JsonUtils.toObjectNode(XmlUtils.toJSONObject(decoderOutput).toString()));
+      }
+
+      DecodedDataHeader header = DecodedDataHeader.scan(decoderOutput);
+      ObjectNode consumed = XmlUtils.toObjectNode(decoderOutput);
+      if (header.getMessageId() == 31)
+         return TimTransmogrifier.createOdeTimData((ObjectNode) consumed.get(OdeAsn1Data.class.getSimpleName()))
+               .toString();
+      return OdeBsmDataCreatorHelper.createOdeBsmData(consumed);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      Options options = new OptionsBuilder()
+            .include(Asn1DecodedDataRouterBenchmark.class.getSimpleName())
+            .build();
+      new Runner(options).run();
+   }
+}
@@ -0,0 +1,60 @@
+package us.dot.its.jpo.ode.services.asn1;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import us.dot.its.jpo.ode.coder.OdeBsmDataCreatorHelper;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+
+public class DecodedDataHeaderTest {
+
+   @Test
+   public void testScanDecoderOutput() throws Exception {
+      String xml;
+      try (InputStream in = OdeBsmDataCreatorHelper.class.getResourceAsStream("bsmDecoderOutput.xml")) {
+         xml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      }
+      DecodedDataHeader header = DecodedDataHeader.scan(xml);
+      assertNotNull(header);
+      assertEquals(20, header.getMessageId());
+      assertEquals(RecordType.bsmTx, header.getRecordType());
+   }
+
+   @Test
+   public void testScanWhitespaceAndOrder() {
+      DecodedDataHeader header = DecodedDataHeader.scan("<OdeAsn1Data><payload><MessageFrame><messageId>\n 31 \n"
+            + "</messageId></MessageFrame></payload><metadata><recordType> dnMsg </recordType></metadata></OdeAsn1Data>");
+      assertEquals(31, header.getMessageId());
+      assertEquals(RecordType.dnMsg, header.getRecordType());
+   }
+
+   @Test
+   public void testScanFirstElementsOnly() {
+      DecodedDataHeader header = DecodedDataHeader.scan("<a><recordType>rxMsg</recordType><messageId>19</messageId>"
+            + "<recordType>mapTx</recordType><messageId>18</messageId></a>");
+      assertEquals(19, header.getMessageId());
+      assertEquals(RecordType.rxMsg, header.getRecordType());
+   }
+
+   @Test
+   public void testScanUnknownRecordType() {
+      DecodedDataHeader header = DecodedDataHeader
+            .scan("<a><recordType>rxMsgs</recordType><messageId>20</messageId></a>");
+      assertEquals(20, header.getMessageId());
+      assertNull(header.getRecordType());
+   }
+
+   @Test
+   public void testScanMissingOrInvalid() {
+      assertNull(DecodedDataHeader.scan("<a><recordType>rxMsg</recordType></a>"));
+      assertNull(DecodedDataHeader.scan("<a><messageId>20</messageId></a>"));
+      assertNull(DecodedDataHeader.scan("<a><recordType>rxMsg</recordType><messageId>x</messageId></a>"));
+      assertNull(DecodedDataHeader.scan("not xml"));
+   }
+}
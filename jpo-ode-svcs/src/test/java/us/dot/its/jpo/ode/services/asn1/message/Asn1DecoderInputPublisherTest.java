@@ -0,0 +1,70 @@
+package us.dot.its.jpo.ode.services.asn1.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Optional;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.tomcat.util.buf.HexUtils;
+import org.junit.jupiter.api.Test;
+
+import mockit.Capturing;
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.coder.StringPublisher;
+import us.dot.its.jpo.ode.model.Asn1Encoding.EncodingRule;
+import us.dot.its.jpo.ode.model.OdeAsn1Data;
+import us.dot.its.jpo.ode.model.OdeMapMetadata;
+import us.dot.its.jpo.ode.model.OdeTimMetadata;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+
+public class Asn1DecoderInputPublisherTest {
+
+   private static final String RAW_MAP_JSON = "{\"metadata\":{\"recordType\":\"mapTx\",\"securityResultCode\":\"success\",\"payloadType\":\"us.dot.its.jpo.ode.model.OdeAsn1Payload\",\"serialId\":{\"streamId\":\"7f8a9d2e-7c1a-4a8e-9a0c-3b8f1e2d4c5a\",\"bundleSize\":1,\"bundleId\":0,\"recordId\":0,\"serialNumber\":0},\"odeReceivedAt\":\"2023-10-18T00:00:00.001Z\",\"schemaVersion\":6,\"maxDurationTime\":0,\"recordGeneratedBy\":\"RSU\",\"sanitized\":false,\"mapSource\":\"RSU\",\"originIp\":\"10.0.0.1\"},\"payload\":{\"dataType\":\"us.dot.its.jpo.ode.model.OdeHexByteArray\",\"data\":{\"bytes\":\"0012020102\"}}}";
+
+   @Test
+   public void testToDecoderInputDropsSignedHeader() {
+      OdeTimMetadata metadata = new OdeTimMetadata();
+      byte[] payload = HexUtils.fromHexString("0381004003800a001f020102");
+
+      OdeAsn1Data decoderInput = Asn1DecoderInputPublisher.toDecoderInput(metadata, payload,
+            SupportedMessageTypes.TIM);
+
+      assertNotNull(decoderInput);
+      assertEquals("{\"bytes\":\"001F020102\"}", decoderInput.getPayload().getData().toString());
+      assertEquals("unsecuredData", metadata.getEncodings().get(0).getElementName());
+      assertEquals(EncodingRule.UPER, metadata.getEncodings().get(0).getEncodingRule());
+   }
+
+   @Test
+   public void testToDecoderInputWithoutStartFlag() {
+      OdeTimMetadata metadata = new OdeTimMetadata();
+      byte[] payload = HexUtils.fromHexString("0012020102");
+
+      assertNull(Asn1DecoderInputPublisher.toDecoderInput(metadata, payload, SupportedMessageTypes.TIM));
+      assertNull(metadata.getEncodings());
+   }
+
+   @Capturing
+   StringPublisher capturingStringPublisher;
+
+   @Test
+   public void testConsumerSkipsDirectlyDecodedRecords() {
+      OdeProperties odeProps = new OdeProperties();
+      Asn1DecodeMAPJSON decodeMapJson = new Asn1DecodeMAPJSON(odeProps);
+
+      decodeMapJson.setRecord(new ConsumerRecord<>(odeProps.getKafkaTopicOdeRawEncodedMAPJson(), 0, 0L, 0L,
+            TimestampType.CREATE_TIME, 0, 0, null, RAW_MAP_JSON,
+            new RecordHeaders(Asn1DecoderInputPublisher.DIRECT_DECODE_HEADERS), Optional.empty()));
+      assertNull(decodeMapJson.call());
+
+      decodeMapJson.setRecord(new ConsumerRecord<>(odeProps.getKafkaTopicOdeRawEncodedMAPJson(), 0, 1L, null,
+            RAW_MAP_JSON));
+      OdeAsn1Data decoded = (OdeAsn1Data) decodeMapJson.call();
+      assertEquals(OdeMapMetadata.class, decoded.getMetadata().getClass());
+      assertEquals("{\"bytes\":\"0012020102\"}", decoded.getPayload().getData().toString());
+   }
+}
@@ -279,6 +279,18 @@ public class TimTransmogrifierTest {
             actualOdeTimData.toString());
    }
 
+   @Test
+   public void testCreateOdeTimDataFromObjectNode() throws JsonUtilsException {
+
+      ObjectNode testObject = JsonUtils.toObjectNode(
+            "{\"metadata\":{\"object\":\"value\",\"encodings\":[]},\"payload\":{\"object\":\"value\"}}");
+      ObjectNode actualOdeTimData = TimTransmogrifier.createOdeTimData(testObject);
+
+      assertEquals(
+            "{\"metadata\":{\"object\":\"value\",\"payloadType\":\"us.dot.its.jpo.ode.model.OdeTimPayload\"},\"payload\":{\"object\":\"value\",\"dataType\":\"TravelerInformation\"}}",
+            actualOdeTimData.toString());
+   }
+
    @Test
    public void testConstructorIsPrivate()
          throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
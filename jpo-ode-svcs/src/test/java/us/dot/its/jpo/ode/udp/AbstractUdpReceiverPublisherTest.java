@@ -0,0 +1,163 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeHexByteArray;
+import us.dot.its.jpo.ode.uper.UperUtil;
+import us.dot.its.jpo.ode.util.CodecUtils;
+
+public class AbstractUdpReceiverPublisherTest {
+
+   static class CollectingReceiver extends AbstractUdpReceiverPublisher {
+      final LinkedBlockingQueue<Integer> lengths = new LinkedBlockingQueue<>();
+
+      CollectingReceiver(OdeProperties odeProps, int port, int bufferSize) {
+         super(odeProps, port, bufferSize);
+      }
+
+      @Override
+      protected void processPacket(DatagramPacket packet) {
+         lengths.add(packet.getLength());
+      }
+   }
+
+   private static int freePort() throws SocketException {
+      try (DatagramSocket probe = new DatagramSocket(0)) {
+         return probe.getLocalPort();
+      }
+   }
+
+   private static void send(int port, byte[] data) throws Exception {
+      try (DatagramSocket sender = new DatagramSocket()) {
+         sender.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), port));
+      }
+   }
+
+   @Test
+   public void testMultipleReadersReceiveOnSamePort() throws Exception {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setUdpReceiverThreads(3);
+      odeProps.setUdpSocketReceiveBufferSize(1 << 20);
+      int port = freePort();
+
+      CollectingReceiver receiver = new CollectingReceiver(odeProps, port, 500);
+      assertEquals(3, receiver.getReaderThreads());
+
+      ExecutorService readers = Executors.newFixedThreadPool(receiver.getReaderThreads());
+      for (int i = 0; i < receiver.getReaderThreads(); i++) {
+         readers.submit(receiver);
+      }
+
+      try {
+         for (int i = 0; i < 20; i++) {
+            send(port, new byte[] { 0x00, 0x14, (byte) i });
+         }
+         for (int i = 0; i < 20; i++) {
+            Integer length = receiver.lengths.poll(5, TimeUnit.SECONDS);
+            assertEquals(Integer.valueOf(3), length);
+         }
+         assertEquals(20, receiver.getStats().getReceived());
+         assertEquals(0, receiver.getStats().getOverruns());
+      } finally {
+         receiver.setStopped(true);
+         readers.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testOversizedPacketCountsOverrun() throws Exception {
+      OdeProperties odeProps = new OdeProperties();
+      int port = freePort();
+
+      CollectingReceiver receiver = new CollectingReceiver(odeProps, port, 4);
+      ExecutorService readers = Executors.newSingleThreadExecutor();
+      readers.submit(receiver);
+
+      try {
+         send(port, new byte[10]);
+         Integer length = receiver.lengths.poll(5, TimeUnit.SECONDS);
+         assertEquals(Integer.valueOf(4), length);
+         assertTrue(receiver.getStats().getOverruns() >= 1);
+      } finally {
+         receiver.setStopped(true);
+         readers.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testEmptyPacketCountedAsDropped() throws Exception {
+      int port = freePort();
+      CollectingReceiver receiver = new CollectingReceiver(new OdeProperties(), port, 16);
+      ExecutorService readers = Executors.newSingleThreadExecutor();
+      readers.submit(receiver);
+
+      try {
+         send(port, new byte[0]);
+         send(port, new byte[] { 0x00, 0x14 });
+         assertEquals(Integer.valueOf(2), receiver.lengths.poll(5, TimeUnit.SECONDS));
+         assertEquals(2, receiver.getStats().getReceived());
+         assertEquals(1, receiver.getStats().getDropped());
+      } finally {
+         receiver.setStopped(true);
+         readers.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testStopClosesEveryReaderChannel() throws Exception {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setUdpReceiverThreads(3);
+      int port = freePort();
+
+      CollectingReceiver receiver = new CollectingReceiver(odeProps, port, 16);
+      ExecutorService readers = Executors.newFixedThreadPool(receiver.getReaderThreads());
+      for (int i = 0; i < receiver.getReaderThreads(); i++) {
+         readers.submit(receiver);
+      }
+      send(port, new byte[] { 0x00, 0x14 });
+      assertEquals(Integer.valueOf(2), receiver.lengths.poll(5, TimeUnit.SECONDS));
+
+      receiver.setStopped(true);
+      readers.shutdown();
+      // the readers blocked in receive end without being interrupted
+      assertTrue(readers.awaitTermination(5, TimeUnit.SECONDS));
+      try (DatagramSocket rebound = new DatagramSocket(port)) {
+         assertEquals(port, rebound.getLocalPort());
+      }
+   }
+
+   @Test
+   public void testGetPayloadReadsOnlyPacketLength() throws Exception {
+      CollectingReceiver receiver = new CollectingReceiver(new OdeProperties(), freePort(), 16);
+      byte[] buffer = new byte[16];
+      byte[] packetBytes = { 0x01, 0x02, 0x00, 0x1f, 0x02, 0x0a, 0x0b };
+      System.arraycopy(packetBytes, 0, buffer, 0, packetBytes.length);
+      buffer[10] = 0x00;
+      buffer[11] = 0x14;
+
+      long dropped = receiver.getStats().getDropped();
+      DatagramPacket packet = new DatagramPacket(buffer, packetBytes.length);
+
+      OdeAsn1Payload timPayload = receiver.getPayload(packet, UperUtil.SupportedMessageTypes.TIM);
+      assertArrayEquals(new byte[] { 0x00, 0x1f, 0x02, 0x0a, 0x0b }, CodecUtils.fromHex(((OdeHexByteArray) timPayload.getData()).getBytes()));
+
+      assertNull(receiver.getPayload(packet, UperUtil.SupportedMessageTypes.BSM));
+      assertEquals(dropped + 1, receiver.getStats().getDropped());
+   }
+}
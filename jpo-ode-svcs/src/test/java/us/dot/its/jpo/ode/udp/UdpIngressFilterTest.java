@@ -0,0 +1,123 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import us.dot.its.jpo.ode.OdeProperties;
+
+public class UdpIngressFilterTest {
+
+   private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+
+   private static InetAddress address(int lastOctet) throws Exception {
+      return InetAddress.getByAddress(new byte[] { 10, 0, 0, (byte) lastOctet });
+   }
+
+   private static byte[] payload(int n) {
+      return new byte[] { 0x00, 0x1f, 0x02, (byte) n, (byte) (n >> 8) };
+   }
+
+   @Test
+   public void testDisabledByDefault() {
+      assertNull(UdpIngressFilter.create(new OdeProperties(), UdpReceiverStats.forPort(47001)));
+   }
+
+   @Test
+   public void testRateLimitPerSource() throws Exception {
+      UdpReceiverStats stats = UdpReceiverStats.forPort(47002);
+      UdpIngressFilter filter = new UdpIngressFilter(10, 3, 100, 0, 0, stats, nanos::get);
+      InetAddress flooder = address(1);
+      InetAddress other = address(2);
+
+      // the burst is accepted at once, then one message per 100 ms
+      for (int i = 0; i < 3; i++) {
+         assertTrue(filter.accept(flooder, payload(i), 0, 5));
+      }
+      assertFalse(filter.accept(flooder, payload(3), 0, 5));
+      assertTrue(filter.accept(other, payload(3), 0, 5));
+
+      nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+      assertTrue(filter.accept(flooder, payload(4), 0, 5));
+      assertFalse(filter.accept(flooder, payload(5), 0, 5));
+
+      assertEquals(2, stats.getRateLimited());
+   }
+
+   @Test
+   public void testDuplicatesWithinWindowAreDropped() throws Exception {
+      UdpReceiverStats stats = UdpReceiverStats.forPort(47003);
+      UdpIngressFilter filter = new UdpIngressFilter(0, 0, 100, 1000, 1024, stats, nanos::get);
+      InetAddress rsu = address(1);
+      byte[] packet = { 0x7f, 0x7f, 0x00, 0x1f, 0x02, 0x01, 0x02 };
+
+      assertTrue(filter.accept(rsu, packet, 2, 5));
+      assertFalse(filter.accept(rsu, payload(0x0201), 0, 5));
+      assertFalse(filter.accept(rsu, packet, 2, 5));
+
+      // the same payload from another source and a different payload pass
+      assertTrue(filter.accept(address(2), packet, 2, 5));
+      assertTrue(filter.accept(rsu, payload(7), 0, 5));
+
+      nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+      assertTrue(filter.accept(rsu, packet, 2, 5));
+
+      assertEquals(2, stats.getDuplicates());
+   }
+
+   @Test
+   public void testDuplicatesDoNotUseRateBudget() throws Exception {
+      UdpReceiverStats stats = UdpReceiverStats.forPort(47004);
+      UdpIngressFilter filter = new UdpIngressFilter(1, 2, 100, 60_000, 1024, stats, nanos::get);
+      InetAddress rsu = address(1);
+
+      assertTrue(filter.accept(rsu, payload(1), 0, 5));
+      for (int i = 0; i < 100; i++) {
+         assertFalse(filter.accept(rsu, payload(1), 0, 5));
+      }
+      assertTrue(filter.accept(rsu, payload(2), 0, 5));
+      assertFalse(filter.accept(rsu, payload(3), 0, 5));
+
+      assertEquals(100, stats.getDuplicates());
+      assertEquals(1, stats.getRateLimited());
+   }
+
+   @Test
+   public void testIdleSourcesAreEvicted() throws Exception {
+      UdpIngressFilter filter = new UdpIngressFilter(10, 1, 2, 0, 0, UdpReceiverStats.forPort(47005), nanos::get);
+
+      assertTrue(filter.accept(address(1), payload(1), 0, 5));
+      assertTrue(filter.accept(address(2), payload(1), 0, 5));
+      assertEquals(2, filter.getTrackedSources());
+
+      nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+      assertTrue(filter.accept(address(3), payload(1), 0, 5));
+      assertEquals(1, filter.getTrackedSources());
+   }
+
+   @Test
+   public void testSourcesBeyondLimitShareOneBucket() throws Exception {
+      UdpReceiverStats stats = UdpReceiverStats.forPort(47006);
+      UdpIngressFilter filter = new UdpIngressFilter(10, 1, 2, 0, 0, stats, nanos::get);
+
+      assertTrue(filter.accept(address(1), payload(1), 0, 5));
+      assertTrue(filter.accept(address(2), payload(1), 0, 5));
+      assertTrue(filter.accept(address(3), payload(1), 0, 5));
+      assertFalse(filter.accept(address(4), payload(1), 0, 5));
+      assertFalse(filter.accept(address(3), payload(2), 0, 5));
+      assertEquals(2, filter.getTrackedSources());
+      assertEquals(2, stats.getRateLimited());
+
+      // the tracked sources keep their own budget
+      nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+      assertTrue(filter.accept(address(1), payload(2), 0, 5));
+      assertEquals(2, filter.getTrackedSources());
+   }
+}
@@ -0,0 +1,109 @@
+package us.dot.its.jpo.ode.udp;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata.BsmSource;
+import us.dot.its.jpo.ode.model.OdeLogMetadata;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.SecurityResultCode;
+import us.dot.its.jpo.ode.model.OdeLogMsgMetadataLocation;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata.GeneratedBy;
+import us.dot.its.jpo.ode.model.ReceivedMessageDetails;
+import us.dot.its.jpo.ode.model.RxSource;
+import us.dot.its.jpo.ode.model.SerialId;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+import us.dot.its.jpo.ode.util.IsoTimestampClock;
+
+/**
+ * Compares the per packet cost of building the metadata of a received BSM the
+ * way the receivers used to, formatting the time through a new
+ * DateTimeFormatter twice and allocating the location of every message, with
+ * the cached {@link UdpMetadataTemplate} and {@link IsoTimestampClock}.
+ *
+ * Run from the main method to include the allocation rate per operation
+ * reported by the GC profiler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UdpMetadataBenchmark {
+
+   private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+   private OdeAsn1Payload payload;
+   private UdpMetadataTemplate template;
+
+   @Setup
+   public void setup() {
+      payload = new OdeAsn1Payload(new byte[] { 0x00, 0x14, 0x25, 0x01, 0x02, 0x03 });
+      template = UdpMetadataTemplate.forType(new OdeProperties(), SupportedMessageTypes.BSM);
+   }
+
+   @Benchmark
+   public String legacyTimestamp() {
+      return ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ofPattern(PATTERN));
+   }
+
+   @Benchmark
+   public String cachedTimestamp() {
+      return IsoTimestampClock.systemUTC().now();
+   }
+
+   @Benchmark
+   public OdeLogMetadata legacyMetadata() {
+      OdeBsmMetadata bsmMetadata = new OdeBsmMetadata(payload, new SerialId(), legacyTimestamp());
+
+      ReceivedMessageDetails receivedMessageDetails = new ReceivedMessageDetails();
+      OdeLogMsgMetadataLocation locationData = new OdeLogMsgMetadataLocation("unavailable", "unavailable",
+            "unavailable", "unavailable", "unavailable");
+      receivedMessageDetails.setRxSource(RxSource.RSU);
+      receivedMessageDetails.setLocationData(locationData);
+      bsmMetadata.setReceivedMessageDetails(receivedMessageDetails);
+
+      bsmMetadata.setOriginIp("127.0.0.1");
+      bsmMetadata.setBsmSource(BsmSource.EV);
+      bsmMetadata.setRecordType(RecordType.bsmTx);
+      bsmMetadata.setRecordGeneratedBy(GeneratedBy.OBU);
+      bsmMetadata.setOdeReceivedAt(legacyTimestamp());
+      bsmMetadata.setSecurityResultCode(SecurityResultCode.success);
+      return bsmMetadata;
+   }
+
+   @Benchmark
+   public OdeLogMetadata templateMetadata() {
+      return template.createMetadata(payload, "127.0.0.1", IsoTimestampClock.systemUTC().now());
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      Options options = new OptionsBuilder()
+            .include(UdpMetadataBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+      new Runner(options).run();
+   }
+}
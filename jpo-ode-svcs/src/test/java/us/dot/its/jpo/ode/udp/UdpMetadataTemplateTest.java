@@ -0,0 +1,71 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.model.OdeBsmMetadata;
+import us.dot.its.jpo.ode.model.OdeLogMetadata;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.RecordType;
+import us.dot.its.jpo.ode.model.OdeLogMetadata.SecurityResultCode;
+import us.dot.its.jpo.ode.model.OdeMapMetadata;
+import us.dot.its.jpo.ode.model.OdeMsgMetadata.GeneratedBy;
+import us.dot.its.jpo.ode.model.RxSource;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+
+public class UdpMetadataTemplateTest {
+
+   private final OdeAsn1Payload payload = new OdeAsn1Payload(new byte[] { 0x00, 0x14, 0x01, 0x0a });
+
+   @Test
+   public void testTemplatesResolveTopicOnce() {
+      OdeProperties odeProperties = new OdeProperties();
+      Map<SupportedMessageTypes, UdpMetadataTemplate> templates = UdpMetadataTemplate.forAllTypes(odeProperties);
+
+      assertEquals(SupportedMessageTypes.values().length, templates.size());
+      for (SupportedMessageTypes msgType : SupportedMessageTypes.values()) {
+         assertEquals(UdpMetadataTemplate.getRawEncodedTopic(odeProperties, msgType),
+               templates.get(msgType).getRawEncodedTopic());
+      }
+   }
+
+   @Test
+   public void testBsmMetadata() {
+      UdpMetadataTemplate template = UdpMetadataTemplate.forType(new OdeProperties(), SupportedMessageTypes.BSM);
+
+      OdeLogMetadata first = template.createMetadata(payload, "10.0.0.1", "2023-10-18T00:00:00.001Z");
+      OdeLogMetadata second = template.createMetadata(payload, "10.0.0.2", "2023-10-18T00:00:00.002Z");
+
+      assertTrue(first instanceof OdeBsmMetadata);
+      assertEquals("10.0.0.1", ((OdeBsmMetadata) first).getOriginIp());
+      assertEquals("2023-10-18T00:00:00.001Z", first.getOdeReceivedAt());
+      assertEquals(RecordType.bsmTx, first.getRecordType());
+      assertEquals(GeneratedBy.OBU, first.getRecordGeneratedBy());
+      assertEquals(SecurityResultCode.success, first.getSecurityResultCode());
+      assertEquals(RxSource.RSU, first.getReceivedMessageDetails().getRxSource());
+      assertEquals("unavailable", first.getReceivedMessageDetails().getLocationData().getLatitude());
+
+      assertNotSame(first, second);
+      assertNotSame(first.getSerialId().getStreamId(), second.getSerialId().getStreamId());
+      assertSame(first.getReceivedMessageDetails().getLocationData(),
+            second.getReceivedMessageDetails().getLocationData());
+   }
+
+   @Test
+   public void testMapMetadata() {
+      OdeLogMetadata metadata = UdpMetadataTemplate.forType(new OdeProperties(), SupportedMessageTypes.MAP)
+            .createMetadata(payload, "10.0.0.1");
+
+      assertTrue(metadata instanceof OdeMapMetadata);
+      assertEquals(RecordType.mapTx, metadata.getRecordType());
+      assertEquals(GeneratedBy.RSU, metadata.getRecordGeneratedBy());
+      assertEquals(24, metadata.getOdeReceivedAt().length());
+   }
+}
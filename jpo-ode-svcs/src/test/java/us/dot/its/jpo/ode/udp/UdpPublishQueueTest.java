@@ -0,0 +1,124 @@
+package us.dot.its.jpo.ode.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import us.dot.its.jpo.ode.udp.UdpPublishQueue.OverflowPolicy;
+
+public class UdpPublishQueueTest {
+
+   private static int nextPort = 61000;
+
+   private static UdpReceiverStats newStats() {
+      return UdpReceiverStats.forPort(nextPort++);
+   }
+
+   @Test
+   public void testDropNewestKeepsQueuedMessages() {
+      UdpReceiverStats stats = newStats();
+      UdpPublishQueue queue = new UdpPublishQueue(2, OverflowPolicy.DROP_NEWEST, 1, stats);
+      List<Integer> ran = new CopyOnWriteArrayList<>();
+
+      assertTrue(queue.submit(() -> ran.add(1)));
+      assertTrue(queue.submit(() -> ran.add(2)));
+      assertFalse(queue.submit(() -> ran.add(3)));
+      assertEquals(1, stats.getOverflows());
+      assertEquals(2, stats.getQueueDepth());
+   }
+
+   @Test
+   public void testDropOldestEvictsHead() throws Exception {
+      UdpReceiverStats stats = newStats();
+      UdpPublishQueue queue = new UdpPublishQueue(2, OverflowPolicy.DROP_OLDEST, 1, stats);
+      List<Integer> ran = new CopyOnWriteArrayList<>();
+
+      for (int i = 1; i <= 5; i++) {
+         final int n = i;
+         assertTrue(queue.submit(() -> ran.add(n)));
+      }
+      assertEquals(3, stats.getOverflows());
+
+      queue.start(Executors.defaultThreadFactory());
+      queue.stop();
+      for (int i = 0; i < 100 && ran.size() < 2; i++) {
+         Thread.sleep(20);
+      }
+      assertEquals(List.of(4, 5), ran);
+      assertEquals(2, stats.getPublished());
+   }
+
+   @Test
+   public void testBlockWaitsForWorkers() throws Exception {
+      UdpReceiverStats stats = newStats();
+      UdpPublishQueue queue = new UdpPublishQueue(1, OverflowPolicy.BLOCK, 2, stats);
+      CountDownLatch done = new CountDownLatch(50);
+      queue.start(Executors.defaultThreadFactory());
+      try {
+         for (int i = 0; i < 50; i++) {
+            assertTrue(queue.submit(done::countDown));
+         }
+         assertTrue(done.await(10, TimeUnit.SECONDS));
+         assertEquals(0, stats.getOverflows());
+      } finally {
+         queue.stop();
+      }
+   }
+
+   @Test
+   public void testParkedWorkersWokenBySubmit() throws Exception {
+      UdpReceiverStats stats = newStats();
+      UdpPublishQueue queue = new UdpPublishQueue(8, OverflowPolicy.DROP_OLDEST, 2, stats);
+      queue.start(Executors.defaultThreadFactory());
+      try {
+         for (int round = 0; round < 3; round++) {
+            // long enough for the workers to back off to their longest park
+            Thread.sleep(300);
+            CountDownLatch done = new CountDownLatch(1);
+            assertTrue(queue.submit(done::countDown));
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+         }
+      } finally {
+         queue.stop();
+      }
+   }
+
+   @Test
+   public void testBlockGivesUpWhenStopped() {
+      UdpReceiverStats stats = newStats();
+      UdpPublishQueue queue = new UdpPublishQueue(2, OverflowPolicy.BLOCK, 1, stats);
+      assertTrue(queue.submit(() -> {
+      }));
+      assertTrue(queue.submit(() -> {
+      }));
+      assertFalse(queue.submit(() -> {
+      }));
+      assertEquals(1, stats.getOverflows());
+   }
+
+   @Test
+   public void testPublishErrorsAreCounted() throws Exception {
+      UdpReceiverStats stats = newStats();
+      UdpPublishQueue queue = new UdpPublishQueue(4, OverflowPolicy.DROP_NEWEST, 1, stats);
+      CountDownLatch after = new CountDownLatch(1);
+      queue.submit(() -> {
+         throw new IllegalStateException("test");
+      });
+      queue.submit(after::countDown);
+      queue.start(Executors.defaultThreadFactory());
+      try {
+         assertTrue(after.await(10, TimeUnit.SECONDS));
+         assertEquals(1, stats.getPublishErrors());
+      } finally {
+         queue.stop();
+      }
+   }
+}
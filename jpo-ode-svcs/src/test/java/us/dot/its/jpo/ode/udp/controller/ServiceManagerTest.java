@@ -0,0 +1,106 @@
+package us.dot.its.jpo.ode.udp.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import mockit.Capturing;
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.coder.StringPublisher;
+import us.dot.its.jpo.ode.udp.AbstractUdpReceiverPublisher;
+import us.dot.its.jpo.ode.udp.bsm.BsmReceiver;
+import us.dot.its.jpo.ode.udp.map.MapReceiver;
+import us.dot.its.jpo.ode.udp.unified.UnifiedReceiver;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+import us.dot.its.jpo.ode.util.ExecutorFactory;
+
+public class ServiceManagerTest {
+
+   @Capturing
+   StringPublisher capturingStringPublisher;
+
+   private static int freePort() throws SocketException {
+      try (DatagramSocket probe = new DatagramSocket(0)) {
+         return probe.getLocalPort();
+      }
+   }
+
+   @Test
+   public void testRegistrationsBindFromProperties() {
+      OdeProperties odeProps = new OdeProperties();
+      new Binder(new MapConfigurationPropertySource(Map.of(
+            "ode.udpReceivers[0].messageType", "bsm",
+            "ode.udpReceivers[0].port", "46801",
+            "ode.udpReceivers[0].readerThreads", "4",
+            "ode.udpReceivers[1].port", "44990")))
+            .bind("ode", Bindable.ofInstance(odeProps));
+
+      List<UdpReceiverRegistration> registrations = odeProps.getUdpReceivers();
+      assertEquals(2, registrations.size());
+      assertEquals(SupportedMessageTypes.BSM, registrations.get(0).getMessageType());
+      assertEquals(46801, registrations.get(0).getPort());
+      assertEquals(4, registrations.get(0).getReaderThreads());
+      assertNull(registrations.get(1).getMessageType());
+      assertEquals(44990, registrations.get(1).getPort());
+   }
+
+   @Test
+   public void testDefaultsKeepPerTypeAndUnifiedReceivers() {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setUdpUnifiedReceiverPorts(new int[] { 44990 });
+
+      List<UdpReceiverRegistration> registrations = UdpReceiverRegistration.defaults(odeProps);
+      assertEquals(SupportedMessageTypes.values().length + 1, registrations.size());
+      assertEquals(odeProps.getBsmReceiverPort(), registrations.get(0).getPort());
+      assertNull(registrations.get(registrations.size() - 1).getMessageType());
+
+      odeProps.setUdpPerTypeReceiversEnabled(false);
+      assertEquals(1, UdpReceiverRegistration.defaults(odeProps).size());
+   }
+
+   @Test
+   public void testNewReceiverFillsInTypeDefaults() throws Exception {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setUdpReceiverThreads(2);
+      odeProps.setUdpUnifiedReceiverThreads(3);
+
+      AbstractUdpReceiverPublisher bsm = ServiceManager.newReceiver(odeProps,
+            new UdpReceiverRegistration(SupportedMessageTypes.BSM, freePort(), 4, 0));
+      assertEquals(BsmReceiver.class, bsm.getClass());
+      assertEquals(4, bsm.getReaderThreads());
+
+      AbstractUdpReceiverPublisher map = ServiceManager.newReceiver(odeProps,
+            new UdpReceiverRegistration(SupportedMessageTypes.MAP, freePort(), 0, 0));
+      assertEquals(MapReceiver.class, map.getClass());
+      assertEquals(2, map.getReaderThreads());
+
+      AbstractUdpReceiverPublisher unified = ServiceManager.newReceiver(odeProps,
+            new UdpReceiverRegistration(null, freePort(), 0, 0));
+      assertEquals(UnifiedReceiver.class, unified.getClass());
+      assertEquals(3, unified.getReaderThreads());
+   }
+
+   @Test
+   public void testSubmitSkipsRegistrationsWithoutPort() throws Exception {
+      OdeProperties odeProps = new OdeProperties();
+      ServiceManager rm = new ServiceManager(ExecutorFactory.threadFactory("ServiceManagerTest"));
+
+      List<AbstractUdpReceiverPublisher> receivers = rm.submit(odeProps,
+            List.of(new UdpReceiverRegistration(SupportedMessageTypes.TIM, 0, 0, 0),
+                  new UdpReceiverRegistration(SupportedMessageTypes.TIM, freePort(), 0, 0)));
+
+      assertEquals(1, receivers.size());
+      rm.stop();
+      assertTrue(receivers.get(0).isStopped());
+   }
+}
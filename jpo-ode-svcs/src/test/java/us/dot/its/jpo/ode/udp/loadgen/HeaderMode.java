@@ -0,0 +1,89 @@
+package us.dot.its.jpo.ode.udp.loadgen;
+
+import java.io.ByteArrayOutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+
+/**
+ * How the load generator wraps a MessageFrame before sending it, mimicking the
+ * different ways RSUs forward what they receive.
+ */
+public enum HeaderMode {
+   /** The payload as captured, signed 1609.2 header included if it had one */
+   CAPTURED,
+   /** The bare MessageFrame */
+   FRAME,
+   /** The MessageFrame in an unsecured 1609.2 Ieee1609Dot2Data */
+   DOT2_UNSECURED,
+   /** A 1609.3 WSMP header in front of an unsecured 1609.2 Ieee1609Dot2Data */
+   WSMP_DOT2_UNSECURED;
+
+   private static final int WSMP_VERSION = 3;
+   private static final int DOT2_PROTOCOL_VERSION = 3;
+   private static final int DOT2_UNSECURED_DATA = 0x80;
+
+   // p-encoded PSIDs (IEEE 1609.12) commonly configured on RSUs
+   private static final Map<SupportedMessageTypes, byte[]> PSIDS = new EnumMap<>(SupportedMessageTypes.class);
+   static {
+      PSIDS.put(SupportedMessageTypes.BSM, new byte[] { 0x20 });
+      PSIDS.put(SupportedMessageTypes.PSM, new byte[] { 0x27 });
+      PSIDS.put(SupportedMessageTypes.SPAT, new byte[] { (byte) 0x80, 0x02 });
+      PSIDS.put(SupportedMessageTypes.TIM, new byte[] { (byte) 0x80, 0x03 });
+      PSIDS.put(SupportedMessageTypes.SSM, new byte[] { (byte) 0xe0, 0x00, 0x00, 0x15 });
+      PSIDS.put(SupportedMessageTypes.SRM, new byte[] { (byte) 0xe0, 0x00, 0x00, 0x16 });
+      PSIDS.put(SupportedMessageTypes.MAP, new byte[] { (byte) 0xe0, 0x00, 0x00, 0x17 });
+   }
+
+   public byte[] wrap(LogCorpus.Message message) {
+      switch (this) {
+      case CAPTURED:
+         return message.getCaptured();
+      case FRAME:
+         return message.getMessageFrame();
+      case DOT2_UNSECURED:
+         return dot2Unsecured(message.getMessageFrame());
+      case WSMP_DOT2_UNSECURED:
+      default:
+         return wsmp(PSIDS.get(message.getMessageType()), dot2Unsecured(message.getMessageFrame()));
+      }
+   }
+
+   private static byte[] dot2Unsecured(byte[] messageFrame) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(messageFrame.length + 6);
+      out.write(DOT2_PROTOCOL_VERSION);
+      out.write(DOT2_UNSECURED_DATA);
+      // COER length determinant of the opaque unsecuredData
+      int length = messageFrame.length;
+      if (length < 0x80) {
+         out.write(length);
+      } else if (length < 0x100) {
+         out.write(0x81);
+         out.write(length);
+      } else {
+         out.write(0x82);
+         out.write(length >> 8);
+         out.write(length);
+      }
+      out.writeBytes(messageFrame);
+      return out.toByteArray();
+   }
+
+   private static byte[] wsmp(byte[] psid, byte[] wsm) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(wsm.length + 9);
+      // N-Header without extension fields
+      out.write(WSMP_VERSION);
+      // T-Header: TPID 0, PSID and the WSM length as a 1609.3 Count/Length
+      out.write(0);
+      out.writeBytes(psid);
+      if (wsm.length < 0x80) {
+         out.write(wsm.length);
+      } else {
+         out.write(0x80 | (wsm.length >> 8));
+         out.write(wsm.length);
+      }
+      out.writeBytes(wsm);
+      return out.toByteArray();
+   }
+}
@@ -0,0 +1,130 @@
+package us.dot.its.jpo.ode.udp.loadgen;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.tomcat.util.buf.HexUtils;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.UniformReservoir;
+
+import us.dot.its.jpo.ode.uper.Ieee1609Envelope;
+
+/**
+ * Producer standing in for Kafka behind the receivers under load. Records are
+ * counted per topic and dropped instead of kept like {@link MockProducer}
+ * does, and each published message is matched by its MessageFrame with the
+ * packet the generator sent to measure the end-to-end latency.
+ */
+public class KafkaStandIn extends MockProducer<String, String> {
+
+   private static final String JSON_BYTES = "\"bytes\":\"";
+   private static final String XML_BYTES = "<bytes>";
+
+   private final Map<String, AtomicLong> publishedByTopic = new ConcurrentHashMap<>();
+   private final Map<String, ConcurrentLinkedQueue<Long>> inFlight = new ConcurrentHashMap<>();
+   private final AtomicLong published = new AtomicLong();
+   private final AtomicLong unmatched = new AtomicLong();
+   private volatile Histogram latencyNanos = new Histogram(new UniformReservoir());
+
+   public KafkaStandIn() {
+      super(true, new StringSerializer(), new StringSerializer());
+   }
+
+   /**
+    * Registers a packet carrying the given MessageFrame as sent now.
+    */
+   public void sent(String messageFrameKey, long sentNanos) {
+      inFlight.computeIfAbsent(messageFrameKey, k -> new ConcurrentLinkedQueue<>()).add(sentNanos);
+   }
+
+   @Override
+   public Future<RecordMetadata> send(ProducerRecord<String, String> record, Callback callback) {
+      long now = System.nanoTime();
+      publishedByTopic.computeIfAbsent(record.topic(), t -> new AtomicLong()).incrementAndGet();
+
+      String key = messageFrameKey(record.value());
+      ConcurrentLinkedQueue<Long> sentTimes = key != null ? inFlight.get(key) : null;
+      Long sentNanos = sentTimes != null ? sentTimes.poll() : null;
+      if (sentNanos != null)
+         latencyNanos.update(now - sentNanos);
+      else
+         unmatched.incrementAndGet();
+      // counted last so a message is fully accounted for once it shows here
+      published.incrementAndGet();
+
+      RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0), 0, 0, now, 0, 0);
+      if (callback != null)
+         callback.onCompletion(metadata, null);
+      return CompletableFuture.completedFuture(metadata);
+   }
+
+   /**
+    * Key pairing a sent packet with the message published for it: the bytes
+    * from the MessageFrame to the end of the packet, which the receivers
+    * publish unchanged whatever headers precede the frame.
+    */
+   public static String messageFrameKey(byte[] packet) {
+      Ieee1609Envelope envelope = Ieee1609Envelope.parse(packet, 0, packet.length);
+      if (envelope == null)
+         return null;
+      return HexUtils.toHexString(Arrays.copyOfRange(packet, envelope.getMessageFrameOffset(), packet.length));
+   }
+
+   private static String messageFrameKey(String value) {
+      int start = value.indexOf(JSON_BYTES);
+      int hexStart = start + JSON_BYTES.length();
+      char end = '"';
+      if (start == -1) {
+         start = value.indexOf(XML_BYTES);
+         hexStart = start + XML_BYTES.length();
+         end = '<';
+      }
+      if (start == -1)
+         return null;
+      int hexEnd = value.indexOf(end, hexStart);
+      return hexEnd == -1 ? null : messageFrameKey(HexUtils.fromHexString(value.substring(hexStart, hexEnd)));
+   }
+
+   /**
+    * Forgets everything published so far, such as the messages of a warm-up
+    * run.
+    */
+   public void reset() {
+      publishedByTopic.clear();
+      inFlight.clear();
+      published.set(0);
+      unmatched.set(0);
+      latencyNanos = new Histogram(new UniformReservoir());
+   }
+
+   public long getPublished() {
+      return published.get();
+   }
+
+   public Map<String, AtomicLong> getPublishedByTopic() {
+      return publishedByTopic;
+   }
+
+   /**
+    * Published messages that could not be paired with a sent packet.
+    */
+   public long getUnmatched() {
+      return unmatched.get();
+   }
+
+   public Histogram getLatencyNanos() {
+      return latencyNanos;
+   }
+}
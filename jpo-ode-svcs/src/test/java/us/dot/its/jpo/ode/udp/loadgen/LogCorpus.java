@@ -0,0 +1,139 @@
+package us.dot.its.jpo.ode.udp.loadgen;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import us.dot.its.jpo.ode.importer.parser.FileParser.FileParserException;
+import us.dot.its.jpo.ode.importer.parser.FileParser.ParserStatus;
+import us.dot.its.jpo.ode.importer.parser.LogFileParser;
+import us.dot.its.jpo.ode.uper.Ieee1609Envelope;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+
+/**
+ * J2735 messages extracted from the gzipped log file captures shipped in
+ * <code>data/</code>, parsed with the same {@link LogFileParser}s as the file
+ * importer. Records whose payload does not hold a supported MessageFrame are
+ * skipped.
+ */
+public class LogCorpus {
+
+   public static class Message {
+      private final SupportedMessageTypes messageType;
+      private final byte[] captured;
+      private final byte[] messageFrame;
+
+      Message(SupportedMessageTypes messageType, byte[] captured, byte[] messageFrame) {
+         this.messageType = messageType;
+         this.captured = captured;
+         this.messageFrame = messageFrame;
+      }
+
+      public SupportedMessageTypes getMessageType() {
+         return messageType;
+      }
+
+      /**
+       * The payload as logged, which may still carry a signed 1609.2 header.
+       */
+      public byte[] getCaptured() {
+         return captured;
+      }
+
+      public byte[] getMessageFrame() {
+         return messageFrame;
+      }
+   }
+
+   private final List<Message> messages = new ArrayList<>();
+   private int skipped;
+
+   /**
+    * Loads the given captures, named like the log files they hold
+    * (<code>bsmTx*.gz</code>, <code>rxMsg*.gz</code>, ...).
+    */
+   public static LogCorpus load(Path... files) throws IOException {
+      LogCorpus corpus = new LogCorpus();
+      for (Path file : files) {
+         corpus.add(file);
+      }
+      return corpus;
+   }
+
+   private void add(Path file) throws IOException {
+      String fileName = file.getFileName().toString();
+      LogFileParser parser = LogFileParser.factory(fileName);
+
+      try (BufferedInputStream bis = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+         ParserStatus status;
+         do {
+            status = parser.parseFile(bis, fileName);
+            if (status == ParserStatus.COMPLETE)
+               addPayload(parser.getPayloadParser().getPayload());
+            skipNewLine(bis);
+         } while (status == ParserStatus.COMPLETE);
+      } catch (FileParserException e) {
+         throw new IOException("Error parsing " + file, e);
+      }
+   }
+
+   private static void skipNewLine(BufferedInputStream bis) throws IOException {
+      bis.mark(1);
+      if (bis.read() != '\n')
+         bis.reset();
+   }
+
+   private void addPayload(byte[] payload) {
+      Ieee1609Envelope envelope = payload != null ? Ieee1609Envelope.parse(payload, 0, payload.length) : null;
+      SupportedMessageTypes messageType = envelope != null ? envelope.getMessageType() : null;
+      int frameLength = envelope != null ? messageFrameLength(payload, envelope.getMessageFrameOffset()) : -1;
+      if (messageType == null || frameLength < 0) {
+         skipped++;
+         return;
+      }
+
+      int frameOffset = envelope.getMessageFrameOffset();
+      messages.add(new Message(messageType, payload,
+            Arrays.copyOfRange(payload, frameOffset, frameOffset + frameLength)));
+   }
+
+   /**
+    * Length of the UPER MessageFrame at <code>offset</code>: the messageId, the
+    * length determinant and the value it announces.
+    */
+   private static int messageFrameLength(byte[] data, int offset) {
+      int lengthByte = data[offset + 2] & 0xff;
+      if ((lengthByte & 0x80) == 0)
+         return 3 + lengthByte;
+      if ((lengthByte & 0xc0) == 0x80 && offset + 3 < data.length)
+         return 4 + (((lengthByte & 0x3f) << 8) | (data[offset + 3] & 0xff));
+      return -1;
+   }
+
+   public List<Message> getMessages() {
+      return Collections.unmodifiableList(messages);
+   }
+
+   public Map<SupportedMessageTypes, Integer> countByType() {
+      Map<SupportedMessageTypes, Integer> counts = new EnumMap<>(SupportedMessageTypes.class);
+      for (Message message : messages) {
+         counts.merge(message.getMessageType(), 1, Integer::sum);
+      }
+      return counts;
+   }
+
+   /**
+    * Records that did not hold a supported MessageFrame.
+    */
+   public int getSkipped() {
+      return skipped;
+   }
+}
@@ -0,0 +1,159 @@
+package us.dot.its.jpo.ode.udp.loadgen;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.codahale.metrics.Snapshot;
+
+import us.dot.its.jpo.ode.udp.UdpReceiverStats;
+
+/**
+ * Replays the messages of a {@link LogCorpus} at a UDP receiver port at a
+ * target rate. Packets are sent in corpus order, cycling through the corpus as
+ * many times as needed, with the gap between them drawn uniformly within the
+ * jitter fraction of the mean gap so the receivers also see bursts.
+ * <p>
+ * Run against a live ODE with
+ * <code>UdpLoadGenerator host port rate seconds headerMode capture.gz...</code>
+ */
+public class UdpLoadGenerator {
+
+   private final byte[][] packets;
+   private final String[] messageFrameKeys;
+   private final InetSocketAddress target;
+   private final double ratePerSecond;
+   private final double jitter;
+   private final Random random;
+
+   /**
+    * @param jitter fraction of the mean gap between packets by which each gap
+    *               varies, between 0 and 1
+    */
+   public UdpLoadGenerator(LogCorpus corpus, HeaderMode headerMode, InetSocketAddress target, double ratePerSecond,
+         double jitter, long seed) {
+      List<LogCorpus.Message> messages = corpus.getMessages();
+      if (messages.isEmpty())
+         throw new IllegalArgumentException("Corpus holds no messages");
+
+      this.packets = new byte[messages.size()][];
+      this.messageFrameKeys = new String[messages.size()];
+      for (int i = 0; i < packets.length; i++) {
+         packets[i] = headerMode.wrap(messages.get(i));
+         messageFrameKeys[i] = KafkaStandIn.messageFrameKey(packets[i]);
+      }
+      this.target = target;
+      this.ratePerSecond = ratePerSecond;
+      this.jitter = Math.max(0, Math.min(1, jitter));
+      this.random = new Random(seed);
+   }
+
+   /**
+    * Sends <code>count</code> packets, registering each one with the Kafka
+    * stand-in if there is one so the latency of its message can be measured.
+    */
+   public Result run(int count, KafkaStandIn standIn) throws IOException {
+      long meanGapNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+      ByteBuffer buffer = ByteBuffer.allocate(Arrays.stream(packets).mapToInt(p -> p.length).max().getAsInt());
+
+      try (DatagramChannel channel = DatagramChannel.open()) {
+         channel.connect(target);
+
+         long start = System.nanoTime();
+         long next = start;
+         for (int i = 0; i < count; i++) {
+            awaitNanos(next);
+
+            int index = i % packets.length;
+            buffer.clear();
+            buffer.put(packets[index]).flip();
+            if (standIn != null && messageFrameKeys[index] != null)
+               standIn.sent(messageFrameKeys[index], System.nanoTime());
+            channel.write(buffer);
+
+            next += meanGapNanos + (long) ((random.nextDouble() * 2 - 1) * jitter * meanGapNanos);
+         }
+         return new Result(count, System.nanoTime() - start);
+      }
+   }
+
+   private static void awaitNanos(long deadline) {
+      long remaining;
+      while ((remaining = deadline - System.nanoTime()) > 0) {
+         // parking overshoots by tens of microseconds, spin for the last stretch
+         if (remaining > TimeUnit.MICROSECONDS.toNanos(100))
+            LockSupport.parkNanos(remaining - TimeUnit.MICROSECONDS.toNanos(100));
+         else
+            Thread.onSpinWait();
+      }
+   }
+
+   public static class Result {
+      private final int sent;
+      private final long elapsedNanos;
+
+      Result(int sent, long elapsedNanos) {
+         this.sent = sent;
+         this.elapsedNanos = elapsedNanos;
+      }
+
+      public int getSent() {
+         return sent;
+      }
+
+      public long getElapsedNanos() {
+         return elapsedNanos;
+      }
+
+      public double getRatePerSecond() {
+         return sent * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+      }
+
+      /**
+       * Report of the run, with what the receiver and the Kafka stand-in saw
+       * when they are given.
+       */
+      public String report(UdpReceiverStats stats, KafkaStandIn standIn) {
+         StringBuilder report = new StringBuilder(String.format("sent=%d in %d ms (%.0f msg/s)", sent,
+               TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getRatePerSecond()));
+         if (stats != null) {
+            report.append(String.format(", received=%d, dropped=%d, overflows=%d, published=%d", stats.getReceived(),
+                  stats.getDropped(), stats.getOverflows(), stats.getPublished()));
+         }
+         if (standIn != null) {
+            Snapshot latency = standIn.getLatencyNanos().getSnapshot();
+            report.append(String.format(
+                  ", kafka=%d %s, unmatched=%d, latency p50=%.0f us p99=%.0f us max=%d us",
+                  standIn.getPublished(), standIn.getPublishedByTopic(), standIn.getUnmatched(),
+                  latency.getMedian() / 1000, latency.get99thPercentile() / 1000, latency.getMax() / 1000));
+         }
+         return report.toString();
+      }
+   }
+
+   public static void main(String[] args) throws IOException {
+      if (args.length < 6) {
+         System.err.println("Usage: UdpLoadGenerator host port rate seconds "
+               + Arrays.toString(HeaderMode.values()) + " capture.gz...");
+         System.exit(1);
+      }
+
+      Path[] captures = Arrays.stream(args, 5, args.length).map(Paths::get).toArray(Path[]::new);
+      LogCorpus corpus = LogCorpus.load(captures);
+      System.out.println("Loaded " + corpus.countByType() + ", skipped " + corpus.getSkipped());
+
+      double rate = Double.parseDouble(args[2]);
+      UdpLoadGenerator generator = new UdpLoadGenerator(corpus, HeaderMode.valueOf(args[4]),
+            new InetSocketAddress(args[0], Integer.parseInt(args[1])), rate, 0.5, System.nanoTime());
+      Result result = generator.run((int) (rate * Double.parseDouble(args[3])), null);
+      System.out.println(result.report(null, null));
+   }
+}
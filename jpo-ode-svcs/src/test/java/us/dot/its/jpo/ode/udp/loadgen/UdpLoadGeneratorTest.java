@@ -0,0 +1,117 @@
+package us.dot.its.jpo.ode.udp.loadgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.coder.StringPublisher;
+import us.dot.its.jpo.ode.udp.UdpReceiverStats;
+import us.dot.its.jpo.ode.udp.unified.UnifiedReceiver;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+import us.dot.its.jpo.ode.wrapper.MessageProducer;
+
+/**
+ * Ingest throughput gate: replays the sample captures at the unified receiver
+ * and expects nearly every packet to reach Kafka. The gate depends on the
+ * speed of the host, so it is tagged perf and only runs with the perf profile,
+ * e.g. <code>mvn test -Pperf -Dtest=UdpLoadGeneratorTest</code>.
+ */
+public class UdpLoadGeneratorTest {
+
+   private static final Path DATA = Paths.get("..", "data");
+
+   private static final int WARM_UP_PACKETS = 500;
+   private static final int PACKETS = 3000;
+   private static final double RATE = 5000;
+   private static final double MIN_DELIVERED = 0.98;
+
+   private static LogCorpus loadCorpus() throws Exception {
+      return LogCorpus.load(DATA.resolve("bsmTx.gz"), DATA.resolve("bsmTx_commsignia.gz"),
+            DATA.resolve("rxMsg_map_and_tim.gz"), DATA.resolve("rxMsg_commsignia_map.gz"),
+            DATA.resolve("rxMsg_commsignia_tim.gz"));
+   }
+
+   private static int freePort() throws Exception {
+      try (DatagramSocket probe = new DatagramSocket(0)) {
+         return probe.getLocalPort();
+      }
+   }
+
+   private static void awaitPublished(KafkaStandIn standIn, int count) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (standIn.getPublished() < count && System.nanoTime() < deadline) {
+         Thread.sleep(10);
+      }
+   }
+
+   @Test
+   public void testCorpusHoldsSeveralMessageTypes() throws Exception {
+      Map<SupportedMessageTypes, Integer> counts = loadCorpus().countByType();
+
+      assertTrue(counts.containsKey(SupportedMessageTypes.BSM), counts.toString());
+      assertTrue(counts.containsKey(SupportedMessageTypes.MAP), counts.toString());
+      assertTrue(counts.containsKey(SupportedMessageTypes.TIM), counts.toString());
+   }
+
+   @Test
+   public void testHeaderModesKeepTheMessageFrame() throws Exception {
+      LogCorpus.Message message = loadCorpus().getMessages().get(0);
+      String frameKey = KafkaStandIn.messageFrameKey(message.getMessageFrame());
+
+      for (HeaderMode headerMode : new HeaderMode[] { HeaderMode.FRAME, HeaderMode.DOT2_UNSECURED,
+            HeaderMode.WSMP_DOT2_UNSECURED }) {
+         assertEquals(frameKey, KafkaStandIn.messageFrameKey(headerMode.wrap(message)), headerMode.name());
+      }
+   }
+
+   @Test
+   @Tag("perf")
+   public void testReceiverPublishesReplayedCorpus() throws Exception {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setUdpSocketReceiveBufferSize(4 * 1024 * 1024);
+      KafkaStandIn standIn = new KafkaStandIn();
+      int port = freePort();
+      UnifiedReceiver receiver = new UnifiedReceiver(odeProps, port, 2048,
+            new StringPublisher(odeProps, new MessageProducer<>(standIn, odeProps.getKafkaTopicsDisabledSet())));
+      UdpReceiverStats stats = receiver.getStats();
+
+      ExecutorService readers = Executors.newFixedThreadPool(receiver.getReaderThreads());
+      try {
+         receiver.startPublishWorkers(Executors.defaultThreadFactory());
+         for (int i = 0; i < receiver.getReaderThreads(); i++) {
+            readers.submit(receiver);
+         }
+
+         UdpLoadGenerator generator = new UdpLoadGenerator(loadCorpus(), HeaderMode.WSMP_DOT2_UNSECURED,
+               new InetSocketAddress(InetAddress.getLoopbackAddress(), port), RATE, 0.5, 42);
+         // the first messages pay for class loading and JIT compilation
+         generator.run(WARM_UP_PACKETS, standIn);
+         awaitPublished(standIn, WARM_UP_PACKETS);
+         standIn.reset();
+
+         UdpLoadGenerator.Result result = generator.run(PACKETS, standIn);
+         awaitPublished(standIn, PACKETS);
+
+         String report = result.report(stats, standIn);
+         assertTrue(standIn.getPublished() >= PACKETS * MIN_DELIVERED, report);
+         assertEquals(0, standIn.getUnmatched(), report);
+         assertTrue(standIn.getLatencyNanos().getCount() >= PACKETS * MIN_DELIVERED, report);
+      } finally {
+         receiver.setStopped(true);
+         readers.shutdownNow();
+      }
+   }
+}
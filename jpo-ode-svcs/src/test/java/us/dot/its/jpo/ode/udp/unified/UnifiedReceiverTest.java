@@ -0,0 +1,104 @@
+package us.dot.its.jpo.ode.udp.unified;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.tomcat.util.buf.HexUtils;
+import org.junit.jupiter.api.Test;
+
+import mockit.Capturing;
+import mockit.Verifications;
+import us.dot.its.jpo.ode.OdeProperties;
+import us.dot.its.jpo.ode.coder.StringPublisher;
+import us.dot.its.jpo.ode.services.asn1.message.Asn1DecoderInputPublisher;
+
+public class UnifiedReceiverTest {
+
+   @Capturing
+   StringPublisher capturingStringPublisher;
+
+   private static int freePort() throws SocketException {
+      try (DatagramSocket probe = new DatagramSocket(0)) {
+         return probe.getLocalPort();
+      }
+   }
+
+   private static DatagramPacket packet(String hex) {
+      byte[] bytes = HexUtils.fromHexString(hex);
+      return new DatagramPacket(bytes, bytes.length, InetAddress.getLoopbackAddress(), 5000);
+   }
+
+   @Test
+   public void testRoutesPacketsByMessageId() throws Exception {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setUdpPublishQueueCapacity(0);
+      UnifiedReceiver receiver = new UnifiedReceiver(odeProps, freePort());
+      long dropped = receiver.getStats().getDropped();
+
+      receiver.processPacket(packet("001f020102"));
+      receiver.processPacket(packet("0380050012020102"));
+      receiver.processPacket(packet("112233"));
+      receiver.processPacket(packet("0300800205" + "001e020102"));
+
+      assertEquals(dropped + 1, receiver.getStats().getDropped());
+
+      new Verifications() {
+         {
+            List<String> messages = new ArrayList<>();
+            List<String> topics = new ArrayList<>();
+            capturingStringPublisher.publish(withCapture(messages), withCapture(topics));
+            times = 3;
+
+            assertEquals(Arrays.asList(odeProps.getKafkaTopicOdeRawEncodedTIMJson(),
+                  odeProps.getKafkaTopicOdeRawEncodedMAPJson(), odeProps.getKafkaTopicOdeRawEncodedSSMJson()), topics);
+            assertTrue(messages.get(0).contains("\"recordType\":\"timMsg\""));
+            assertTrue(messages.get(0).contains("\"bytes\":\"001F020102\""));
+            assertTrue(messages.get(1).contains("\"mapSource\":\"RSU\""));
+            assertTrue(messages.get(1).contains("\"bytes\":\"0012020102\""));
+            assertTrue(messages.get(2).contains("\"originIp\":\"127.0.0.1\""));
+         }
+      };
+   }
+
+   @Test
+   public void testDirectDecodeMirrorsToRawTopic() throws Exception {
+      OdeProperties odeProps = new OdeProperties();
+      odeProps.setUdpPublishQueueCapacity(0);
+      odeProps.setUdpDirectDecodeEnabled(true);
+      odeProps.setUdpDirectDecodeMirrorRawTopic(true);
+      UnifiedReceiver receiver = new UnifiedReceiver(odeProps, freePort());
+
+      receiver.processPacket(packet("0381004003800a" + "001f020102"));
+
+      new Verifications() {
+         {
+            List<String> xml = new ArrayList<>();
+            capturingStringPublisher.publish(withCapture(xml), odeProps.getKafkaTopicAsn1DecoderInput());
+            times = 1;
+            assertTrue(xml.get(0).contains("<recordType>timMsg</recordType>"));
+            assertTrue(xml.get(0).contains("<elementName>unsecuredData</elementName>"));
+            assertTrue(xml.get(0).contains("<bytes>001F020102</bytes>"));
+
+            List<String> json = new ArrayList<>();
+            List<Iterable<Header>> headers = new ArrayList<>();
+            capturingStringPublisher.publish(withCapture(json), odeProps.getKafkaTopicOdeRawEncodedTIMJson(),
+                  withCapture(headers));
+            times = 1;
+            assertTrue(json.get(0).contains("\"bytes\":\"0381004003800A001F020102\""));
+            assertEquals(Asn1DecoderInputPublisher.DIRECT_DECODE_HEADERS, headers.get(0));
+
+            capturingStringPublisher.publish(anyString, odeProps.getKafkaTopicOdeRawEncodedTIMJson());
+            times = 0;
+         }
+      };
+   }
+}
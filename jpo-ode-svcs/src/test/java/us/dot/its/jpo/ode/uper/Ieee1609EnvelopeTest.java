@@ -0,0 +1,132 @@
+package us.dot.its.jpo.ode.uper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.tomcat.util.buf.HexUtils;
+import org.junit.jupiter.api.Test;
+
+import us.dot.its.jpo.ode.model.OdeAsn1Payload;
+import us.dot.its.jpo.ode.uper.UperUtil.SupportedMessageTypes;
+
+public class Ieee1609EnvelopeTest {
+
+    private static Ieee1609Envelope parse(String hex) {
+        byte[] packet = HexUtils.fromHexString(hex);
+        return Ieee1609Envelope.parse(packet, 0, packet.length);
+    }
+
+    @Test
+    public void testBareMessageFrame() {
+        Ieee1609Envelope envelope = parse("001f03aabbcc");
+        assertEquals(SupportedMessageTypes.TIM, envelope.getMessageType());
+        assertEquals(0, envelope.getPayloadOffset());
+        assertEquals(6, envelope.getPayloadLength());
+        assertFalse(envelope.hasWsmpHeader());
+        assertFalse(envelope.isSigned());
+        assertEquals(Ieee1609Envelope.NO_PSID, envelope.getPsid());
+    }
+
+    @Test
+    public void testLongLengthDeterminant() {
+        StringBuilder hex = new StringBuilder("00128100");
+        for (int i = 0; i < 256; i++) {
+            hex.append("ab");
+        }
+        assertEquals(SupportedMessageTypes.MAP, parse(hex.toString()).getMessageType());
+        // one byte short of the encoded length
+        assertNull(parse(hex.substring(0, hex.length() - 2)));
+    }
+
+    @Test
+    public void testUnsecuredDot2IsStripped() {
+        Ieee1609Envelope envelope = parse("0380050014020102");
+        assertEquals(SupportedMessageTypes.BSM, envelope.getMessageType());
+        assertEquals(3, envelope.getPayloadOffset());
+        assertEquals(3, envelope.getMessageFrameOffset());
+        assertFalse(envelope.isSigned());
+    }
+
+    @Test
+    public void testSignedDot2IsKept() {
+        // signedData, sha256, payload with data, then an unsecured MessageFrame
+        Ieee1609Envelope envelope = parse("038100400380050013020102" + "8082aabb");
+        assertEquals(SupportedMessageTypes.SPAT, envelope.getMessageType());
+        assertEquals(0, envelope.getPayloadOffset());
+        assertEquals(16, envelope.getPayloadLength());
+        assertEquals(7, envelope.getMessageFrameOffset());
+        assertTrue(envelope.isSigned());
+    }
+
+    @Test
+    public void testWsmpHeader() {
+        // version 3 without options, TPID 0, PSID 0x8002 (p-encoded), WSM length 5
+        Ieee1609Envelope envelope = parse("0300800205" + "001e020102" + "ffff");
+        assertTrue(envelope.hasWsmpHeader());
+        assertEquals(0x82, envelope.getPsid());
+        assertEquals(SupportedMessageTypes.SSM, envelope.getMessageType());
+        assertEquals(5, envelope.getPayloadOffset());
+        // trailing bytes after the WSM are not part of the payload
+        assertEquals(5, envelope.getPayloadLength());
+    }
+
+    @Test
+    public void testWsmpHeaderWithExtensionFields() {
+        // option indicator, one extension (ID 0x0f, 1 byte), TPID 0, PSID 0x20
+        Ieee1609Envelope envelope = parse("0b010f01aa00200a" + "038100400380" + "03001d00");
+        assertTrue(envelope.hasWsmpHeader());
+        assertEquals(0x20, envelope.getPsid());
+        assertTrue(envelope.isSigned());
+        assertEquals(SupportedMessageTypes.SRM, envelope.getMessageType());
+        assertEquals(8, envelope.getPayloadOffset());
+        assertEquals(10, envelope.getPayloadLength());
+    }
+
+    @Test
+    public void testStartFlagInHeaderIsNotMistakenForMessage() {
+        // the PSID and WSM length of this header read as a MAP start flag
+        String packet = "03000012" + "00200f0102030405060708090a0b0c0d0e0f";
+        Ieee1609Envelope envelope = parse(packet);
+        assertEquals(SupportedMessageTypes.PSM, envelope.getMessageType());
+        assertEquals(4, envelope.getPayloadOffset());
+        assertEquals("PSM", UperUtil.determineMessageType(new OdeAsn1Payload(HexUtils.fromHexString(packet))));
+    }
+
+    @Test
+    public void testUnknownHeaderFallsBackToScan() {
+        Ieee1609Envelope envelope = parse("1122" + "038100" + "33" + "001f020102");
+        assertEquals(SupportedMessageTypes.TIM, envelope.getMessageType());
+        assertTrue(envelope.isSigned());
+        assertEquals(2, envelope.getPayloadOffset());
+        assertEquals(6, envelope.getMessageFrameOffset());
+    }
+
+    @Test
+    public void testUnsupportedMessageIdFallsBackToScan() {
+        // the WSM behind this header starts with the unsupported messageId 5
+        Ieee1609Envelope envelope = parse("03007f08" + "00050200" + "14020102");
+        assertEquals(SupportedMessageTypes.BSM, envelope.getMessageType());
+        assertFalse(envelope.hasWsmpHeader());
+        assertEquals(7, envelope.getMessageFrameOffset());
+    }
+
+    @Test
+    public void testNoMessageFrame() {
+        assertNull(parse("0381"));
+        assertNull(parse("112233"));
+        assertNull(parse("001f05aa"));
+        // TPID with extension fields whose count is malformed
+        assertNull(parse("030120ff"));
+    }
+
+    @Test
+    public void testRespectsOffsetAndLength() {
+        byte[] buffer = HexUtils.fromHexString("ff001402aabb0014");
+        Ieee1609Envelope envelope = Ieee1609Envelope.parse(buffer, 1, 5);
+        assertEquals(1, envelope.getPayloadOffset());
+        assertEquals(5, envelope.getPayloadLength());
+        assertNull(Ieee1609Envelope.parse(buffer, 1, 4));
+    }
+}
@@ -2,7 +2,9 @@ package us.dot.its.jpo.ode.uper;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 
 import org.apache.tomcat.util.buf.HexUtils;
@@ -66,6 +68,39 @@ public class UperUtilTest {
         assertEquals(testExpectedString, UperUtil.stripDot3Header(testPacketString, testMsgStartFlag));
     }
 
+    @Test
+    public void testFindPayloadHonorsOffsetAndLength() {
+        // reused receive buffer: stale bytes after the packet must be ignored
+        byte[] buffer = { 0x7f, 0x10, 0x20, 0x00, 0x14, 0x01, 0x02, 0x00, 0x1f, 0x00 };
+        ByteBuffer payload = UperUtil.findPayload(buffer, 1, 6, UperUtil.SupportedMessageTypes.BSM);
+        assertEquals(3, payload.position());
+        assertEquals(4, payload.remaining());
+        assertArrayEquals(new byte[] { 0x00, 0x14, 0x01, 0x02 }, UperUtil.toByteArray(payload));
+
+        assertNull(UperUtil.findPayload(buffer, 1, 6, UperUtil.SupportedMessageTypes.TIM));
+    }
+
+    @Test
+    public void testFindPayloadKeepsSignedDot2Header() {
+        byte[] packet = { 0x11, 0x03, (byte) 0x81, 0x00, 0x40, 0x00, 0x12, 0x05 };
+        ByteBuffer payload = UperUtil.findPayload(packet, 0, packet.length, UperUtil.SupportedMessageTypes.MAP);
+        assertArrayEquals(new byte[] { 0x03, (byte) 0x81, 0x00, 0x40, 0x00, 0x12, 0x05 },
+                UperUtil.toByteArray(payload));
+    }
+
+    @Test
+    public void testStripDot3HeaderStringWithoutStartFlag() {
+        assertEquals("01020304", UperUtil.stripDot3Header("01020304", "001f"));
+    }
+
+    @Test
+    public void testStripDot3HeaderStringInvalidHex() {
+        assertEquals("01001f0", UperUtil.stripDot3Header("01001f0", "001f"));
+        assertEquals("zz001f00", UperUtil.stripDot3Header("zz001f00", "001f"));
+        // the payload keeps the case of the input
+        assertEquals("001F00", UperUtil.stripDot3Header("01001F00", "001f"));
+    }
+
     @Test
     public void testDetermineMessageType() throws JsonUtilsException {
         String mapHexString = "0012839338023000205E96094D40DF4C2CA626C8516E02DC3C2010640000000289E01C009F603F42E88039900000000A41107B027D80FD0A4200C6400000002973021C09F603DE0C16029200000080002A8A008D027D98FEE805404FB0E1085F60588200028096021200000080002AA0007D027D98FE9802E04FB1200C214456228000A02B1240005022C03240000020000D56B40BC04FB35FF655E2C09F623FB81C835FEC0DB240A0A2BFF4AEBF82C660000804B0089000000800025670034013ECD7FB9578E027D9AFF883C4E050515FFA567A41635000040258024800000400012B8F81F409F663FAC094013ECD7FC83DDB02829AFFA480BC04FB02C6E0000804B09C5000000200035EA98A9604F60DA6C7C113D505C35FFE941D409F65C05034C050500C9880004409BC800000006D2BD3CEC813C40CDE062C1FD400000200008791EA3DB3CF380A009F666F05005813D80FFE0A0588C00040092106A00000000BC75CAC009F66DB54C04A813D80A100801241ED40000000078EBAE3B6DA7A008809E2050904008811F100000000BC72389009F60ECA8002049C400000002F1B2CA3027D93A71FA813EC204BC400000002F1B2B34027B0397608880CD10000000039B8E1A51036820505080D51000000003A7461ED1036760505080DD1000000003B2F62311006260505160BCA00000080002B785E2A80A0A6C028DE728145037F1F9E456488000202B2540001022C1894000001000057058C5B81414D806DBCD4028A18F4DF23A050502C8D0000404B05A5000000800035B6471BC05053602431F380A2864087BDB0141458064AB0D6C00053FC013EC0B0680006012C15940000020000D6C06C6581414D807FB972028A1901D78DC050536020EC1800A0A6C039D639813D80B0780006012C1494000002000096AB8C6581414D8062BE32028A1B01417E04050A360172D77009E2058440003009409C200000040006B3486A480A0A1CAB7134C8117DCC02879B018FAE2C050F3601CED54809E21012720000000067FBAD0007E7E84045C80000000100661580958004041C8000000019F3658401CDFA2C0D64000002000144016C02C36DDFFF0282984ACC1EE05052C36F0AC02828669D82DA8F821480A0A10F140002C8E0001004B03190000008000519FD190C43B2E0066108B08401428C342A0CE02828258A0604A6BE959AEE0E6050502C920001004B02D90000008000459FA164404FB30A8580A00A14619C306701414C32CE10E02829659081F814141029030164B0000802E8000802000035FDB1D84C09EC6C003BA14814140B0540003012C187400040080011B13F6EDB804F115FA6DFC10AFC94FC6A57EE07DCE2BFA7BED3B5FFCD72E80A1E018C900008000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000";
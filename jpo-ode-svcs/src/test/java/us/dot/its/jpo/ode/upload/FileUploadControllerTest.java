@@ -31,9 +31,9 @@ import us.dot.its.jpo.ode.OdeProperties;
 import us.dot.its.jpo.ode.importer.ImporterDirectoryWatcher;
 import us.dot.its.jpo.ode.storage.StorageFileNotFoundException;
 import us.dot.its.jpo.ode.storage.StorageService;
+import us.dot.its.jpo.ode.util.ExecutorFactory;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 
@@ -50,8 +50,8 @@ public class FileUploadControllerTest {
    @Injectable
    SimpMessagingTemplate injectableSimpMessagingTemplate;
 
-   @Capturing
-   Executors capturingExecutors;
+   @Mocked
+   ExecutorFactory mockExecutorFactory;
    @Capturing
    ImporterDirectoryWatcher capturingImporterDirectoryWatcher;
    @Mocked
@@ -72,7 +72,7 @@ public class FileUploadControllerTest {
             mockOdeProperties.getUploadLocationObuLog();
             result = "testLogFileDir";
 
-            Executors.newCachedThreadPool();
+            ExecutorFactory.newCachedThreadPool(anyString);
             result = mockExecutorService;
 
             mockExecutorService.submit((Runnable) any);
@@ -0,0 +1,50 @@
+package us.dot.its.jpo.ode.wrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.management.ObjectName;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+public class MessageProducerStatsTest {
+
+   @Test
+   public void testCountsSendsAcksAndErrorsPerTopic() throws Exception {
+      MockProducer<String, String> mockProducer = new MockProducer<>(false, new StringSerializer(),
+            new StringSerializer());
+      MessageProducer<String, String> producer = new MessageProducer<>(mockProducer,
+            Collections.singleton("topic.Disabled"));
+
+      producer.send("topic.StatsAcked", "key", "value");
+      producer.send(new ProducerRecord<>("topic.StatsAcked", "value"));
+      producer.send("topic.StatsFailed", null, "value");
+      producer.send("topic.Disabled", null, "value");
+      Thread.sleep(5);
+      mockProducer.completeNext();
+      mockProducer.completeNext();
+      mockProducer.errorNext(new RuntimeException("broker unavailable"));
+
+      MessageProducerStats acked = MessageProducerStats.forTopic("topic.StatsAcked");
+      assertEquals(2, acked.getSent());
+      assertEquals(2, acked.getAcked());
+      assertEquals(0, acked.getErrors());
+      assertTrue(acked.getAckLatencyP99() >= 5.0);
+
+      MessageProducerStats failed = MessageProducerStats.forTopic("topic.StatsFailed");
+      assertEquals(1, failed.getSent());
+      assertEquals(0, failed.getAcked());
+      assertEquals(1, failed.getErrors());
+      assertFalse(MessageProducerStats.getAll().containsKey("topic.Disabled"));
+
+      assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(
+            new ObjectName("us.dot.its.jpo.ode:type=MessageProducer,topic=\"topic.StatsAcked\""), "Acked"));
+   }
+}